@@ -0,0 +1,108 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.activation.HyperbolicTangent;
+import com.dj.core.model.activation.LeakyRelu;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every built-in {@link ActivationFunction} applied to a layer worth of values, values are spread over the range
+ * where all the branches of the functions are taken. Compares calling the function value by value with the bulk
+ * methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActivationBenchmark {
+
+    @Param({"sigmoid", "tanh", "relu", "leakyRelu"})
+    public String function;
+
+    @Param({"1024"})
+    public int size;
+
+    private ActivationFunction activationFunction;
+
+    private double[] values;
+
+    private double[] results;
+
+    private double[] forwardResults;
+
+    @Setup
+    public void setUp() {
+        switch (function) {
+            case "sigmoid":
+                activationFunction = new Sigmoid();
+                break;
+            case "tanh":
+                activationFunction = new HyperbolicTangent();
+                break;
+            case "relu":
+                activationFunction = new Relu();
+                break;
+            case "leakyRelu":
+                activationFunction = new LeakyRelu();
+                break;
+            default:
+                throw new RuntimeException("Unknown activation function: " + function);
+        }
+        final Random random = new Random(42);
+        values = new double[size];
+        results = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (random.nextDouble() - .5) * 10;
+        }
+        forwardResults = new double[size];
+        activationFunction.forward(values, forwardResults, size);
+    }
+
+    @Benchmark
+    public double[] forward() {
+        for (int i = 0; i < size; i++) {
+            results[i] = activationFunction.forward(values[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] backward() {
+        for (int i = 0; i < size; i++) {
+            results[i] = activationFunction.backward(values[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] bulkForward() {
+        activationFunction.forward(values, results, size);
+        return results;
+    }
+
+    /**
+     * Derivative with the result of the forward pass already known, the way the layers calculate it.
+     */
+    @Benchmark
+    public double[] bulkBackward() {
+        activationFunction.backward(values, forwardResults, results, size);
+        return results;
+    }
+}
@@ -0,0 +1,103 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ComputeBackend;
+import com.dj.core.model.graph.ComputeBackends;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layer math of the {@link ComputeBackend}s. The vector backend is only available when the benchmarks are packaged
+ * with -Pvector and run with -jvmArgsAppend=--add-modules=jdk.incubator.vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComputeBackendBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String backendName;
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"32"})
+    public int batchSize;
+
+    private ComputeBackend backend;
+
+    private double[] matrix;
+
+    private double[] bias;
+
+    private double[] input;
+
+    private double[] output;
+
+    private final Sigmoid sigmoid = new Sigmoid();
+
+    @Setup
+    public void setUp() {
+        backend = find(backendName);
+        matrix = Networks.randomRows(1, size * size, 1)[0];
+        bias = Networks.randomRows(1, size, 2)[0];
+        input = Networks.randomRows(1, size * batchSize, 3)[0];
+        output = new double[size * batchSize];
+    }
+
+    private static ComputeBackend find(final String name) {
+        if (name.equals(ComputeBackends.scalar().getName())) {
+            return ComputeBackends.scalar();
+        }
+        for (final ComputeBackend backend : ServiceLoader.load(ComputeBackend.class)) {
+            if (backend.getName().equals(name)) {
+                return backend;
+            }
+        }
+        throw new RuntimeException("Compute backend " + name + " is not available");
+    }
+
+    @Benchmark
+    public double dot() {
+        return backend.dot(matrix, 0, input, 0, size);
+    }
+
+    @Benchmark
+    public double[] axpy() {
+        backend.axpy(1e-9, input, 0, matrix, 0, size);
+        return matrix;
+    }
+
+    @Benchmark
+    public double[] gemv() {
+        backend.gemv(matrix, size, size, input, bias, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] gemm() {
+        backend.gemm(matrix, size, size, input, batchSize, bias, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] sigmoid() {
+        backend.forward(sigmoid, input, output, size * batchSize);
+        return output;
+    }
+}
@@ -0,0 +1,137 @@
+package com.dj.benchmarks;
+
+import com.dj.core.inference.Predictor;
+import com.dj.core.model.graph.Context;
+import com.dj.core.serializer.MappedModel;
+import com.dj.core.serializer.ModelWrapper;
+import com.dj.core.serializer.SerializerHelper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first prediction of a freshly loaded model: Java deserialization, the binary format read to the heap
+ * and the {@link MappedModel} evaluated straight from the mapped file. Every iteration loads the model once, the
+ * heap retained by the loaded model is reported as the heapAfterLoad counter.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+// Java serialization walks the graph of the Neurons recursively, wide models need a deep stack.
+@Fork(value = 1, jvmArgsAppend = "-Xss256m")
+@State(Scope.Benchmark)
+public class ModelLoadBenchmark {
+
+    @Param({"512"})
+    public int width;
+
+    @Param({"3"})
+    public int depth;
+
+    private Path javaFile;
+
+    private Path binaryFile;
+
+    private double[] input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final ModelWrapper model = Networks.dense(new Context(), width, width, depth, 10);
+        javaFile = Files.createTempFile("dj-benchmark", ".model");
+        binaryFile = Files.createTempFile("dj-benchmark", ".djm");
+        SerializerHelper.serializeToFile(model, javaFile.toString());
+        SerializerHelper.serializeToBinaryFile(model, binaryFile.toString());
+        input = Networks.randomRows(1, width, 2)[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(javaFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    /**
+     * Keeps the model loaded by the iteration, so the heap it retains can be measured once the load is timed.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+
+        private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private Object loaded;
+
+        private long heapBefore;
+
+        private int iterations;
+
+        /**
+         * Bytes of the heap retained by the model loaded during the iteration. JMH sums the event counters of all the
+         * iterations, so every iteration reports its share and the sum is the average.
+         */
+        public double heapAfterLoad;
+
+        @Setup(Level.Iteration)
+        public void before(final IterationParams params) {
+            loaded = null;
+            iterations = params.getCount();
+            heapBefore = usedHeap();
+        }
+
+        @TearDown(Level.Iteration)
+        public void after() {
+            heapAfterLoad = Math.max(0, usedHeap() - heapBefore) / (double) iterations;
+            loaded = null;
+        }
+
+        void keep(final Object loaded) {
+            this.loaded = loaded;
+        }
+
+        private static long usedHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Benchmark
+    public double javaDeserialization(final Heap heap) {
+        final ModelWrapper model = SerializerHelper.deserializeFromFile(javaFile.toString());
+        heap.keep(model);
+        return new Predictor.Builder().model(model).build().predict(input)[0];
+    }
+
+    @Benchmark
+    public double binaryLoad(final Heap heap) {
+        final ModelWrapper model = SerializerHelper.deserializeFromBinaryFile(binaryFile.toString());
+        heap.keep(model);
+        return new Predictor.Builder().model(model).build().predict(input)[0];
+    }
+
+    @Benchmark
+    public double mappedLoad(final Heap heap) {
+        final MappedModel model = MappedModel.open(binaryFile.toString());
+        heap.keep(model);
+        return model.predict(input)[0];
+    }
+}
@@ -0,0 +1,99 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.serializer.ModelWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic networks and datasets used by the benchmarks. Everything is seeded, so every run measures the same model.
+ */
+final class Networks {
+
+    private Networks() { } // no-op
+
+    /**
+     * Dense network: inputSize inputs, depth hidden Relu layers of the given width and outputSize Sigmoid outputs.
+     */
+    static ModelWrapper dense(
+            final Context context,
+            final int inputSize,
+            final int width,
+            final int depth,
+            final int outputSize) {
+        final Random random = new Random(42);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        for (int i = 0; i < inputSize; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        List<Neuron> previousLayer = inputLayer;
+        for (int layer = 0; layer < depth; layer++) {
+            previousLayer = layer(context, previousLayer, width, true, random);
+        }
+        final List<Neuron> outputLayer = layer(context, previousLayer, outputSize, false, random);
+        return new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(outputLayer)
+                .build();
+    }
+
+    private static List<Neuron> layer(
+            final Context context,
+            final List<Neuron> previousLayer,
+            final int size,
+            final boolean hidden,
+            final Random random) {
+        // Keeps the activations in the useful range no matter how wide the previous layer is.
+        final double scale = 1. / Math.sqrt(previousLayer.size());
+        final List<Neuron> layer = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final ConnectedNeuron neuron = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble() * .1)
+                    .activationFunction(hidden ? new Relu() : new Sigmoid())
+                    .context(context)
+                    .build();
+            for (final Neuron previous : previousLayer) {
+                previous.connect(neuron, (random.nextDouble() - .5) * 2 * scale);
+            }
+            layer.add(neuron);
+        }
+        return layer;
+    }
+
+    /**
+     * @return count rows of the given size with values in [0, 1).
+     */
+    static double[][] randomRows(final int count, final int size, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] rows = new double[count][size];
+        for (final double[] row : rows) {
+            for (int i = 0; i < size; i++) {
+                row[i] = random.nextDouble();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Labels for the inputs: 1 when the mean of the row is above the half, 0 otherwise.
+     */
+    static double[][] labels(final double[][] inputs) {
+        final double[][] labels = new double[inputs.length][1];
+        for (int i = 0; i < inputs.length; i++) {
+            double sum = 0.;
+            for (final double value : inputs[i]) {
+                sum += value;
+            }
+            labels[i][0] = sum / inputs[i].length > .5 ? 1. : 0.;
+        }
+        return labels;
+    }
+}
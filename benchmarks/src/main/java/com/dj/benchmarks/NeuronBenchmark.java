@@ -0,0 +1,78 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single {@link ConnectedNeuron} with fanIn inputs. One forward operation is the whole forward pass of the neuron:
+ * every input sends its signal, the last one triggers the activation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NeuronBenchmark {
+
+    @Param({"4", "64", "1024"})
+    public int fanIn;
+
+    private InputNeuron[] inputs;
+
+    private ConnectedNeuron neuron;
+
+    private double[] signals;
+
+    @Setup
+    public void setUp() {
+        // Tiny learning rate, so the weights stay stable during the backward benchmark.
+        final Context context = new Context(1e-9, false);
+        final Random random = new Random(42);
+        neuron = new ConnectedNeuron.Builder()
+                .bias(.1)
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        inputs = new InputNeuron[fanIn];
+        signals = new double[fanIn];
+        for (int i = 0; i < fanIn; i++) {
+            inputs[i] = new InputNeuron();
+            inputs[i].connect(neuron, random.nextDouble() - .5);
+            signals[i] = random.nextDouble();
+        }
+        forward();
+    }
+
+    @Benchmark
+    public double forward() {
+        for (int i = 0; i < fanIn; i++) {
+            inputs[i].forwardSignalReceived(null, signals[i]);
+        }
+        return neuron.getForwardResult();
+    }
+
+    /**
+     * Only the backward pass: the neuron keeps the inputs of the latest forward pass, weights are updated in place.
+     */
+    @Benchmark
+    public void backward() {
+        neuron.backwardSignalReceived(.5);
+    }
+}
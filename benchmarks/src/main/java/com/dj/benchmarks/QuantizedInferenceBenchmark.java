@@ -0,0 +1,63 @@
+package com.dj.benchmarks;
+
+import com.dj.core.inference.Predictor;
+import com.dj.core.inference.QuantizedModel;
+import com.dj.core.inference.Quantizer;
+import com.dj.core.model.graph.Context;
+import com.dj.core.serializer.ModelWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single prediction with the double weights of the {@link Predictor} and with the int8 weights of the
+ * {@link QuantizedModel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuantizedInferenceBenchmark {
+
+    @Param({"64", "512"})
+    public int width;
+
+    @Param({"2"})
+    public int depth;
+
+    private Predictor predictor;
+
+    private QuantizedModel quantizedModel;
+
+    private double[] input;
+
+    @Setup
+    public void setUp() {
+        final ModelWrapper model = Networks.dense(new Context(), width, width, depth, 10);
+        predictor = new Predictor.Builder().model(model).build();
+        quantizedModel = Quantizer.quantize(model, Networks.randomRows(100, width, 1));
+        input = Networks.randomRows(1, width, 2)[0];
+    }
+
+    @Benchmark
+    public double[] doublePredict() {
+        return predictor.predict(input);
+    }
+
+    @Benchmark
+    public double[] quantizedPredict() {
+        return quantizedModel.predict(input);
+    }
+}
@@ -0,0 +1,72 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.graph.Context;
+import com.dj.core.serializer.ModelWrapper;
+import com.dj.core.serializer.SerializerHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing a model to a file and reading it back with the {@link SerializerHelper}, both with the Java serialization
+ * and with the binary model format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"32", "256"})
+    public int width;
+
+    @Param({"2"})
+    public int depth;
+
+    private ModelWrapper model;
+
+    private Path javaFile;
+
+    private Path binaryFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        model = Networks.dense(new Context(), width, width, depth, 10);
+        javaFile = Files.createTempFile("dj-benchmark", ".model");
+        binaryFile = Files.createTempFile("dj-benchmark", ".djm");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(javaFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public ModelWrapper javaRoundTrip() {
+        SerializerHelper.serializeToFile(model, javaFile.toString());
+        return SerializerHelper.deserializeFromFile(javaFile.toString());
+    }
+
+    @Benchmark
+    public ModelWrapper binaryRoundTrip() {
+        SerializerHelper.serializeToBinaryFile(model, binaryFile.toString());
+        return SerializerHelper.deserializeFromBinaryFile(binaryFile.toString());
+    }
+}
@@ -0,0 +1,85 @@
+package com.dj.benchmarks;
+
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.loss.QuadraticLoss;
+import com.dj.core.optimizer.SGDOptimizer;
+import com.dj.core.serializer.ModelWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One epoch of the {@link SGDOptimizer} on a synthetic dataset. The network is rebuilt before every iteration, so
+ * all the iterations start training from the same weights.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrainingEpochBenchmark {
+
+    @Param({"16", "128"})
+    public int width;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    @Param({"1", "32"})
+    public int batchSize;
+
+    @Param({"1"})
+    public int threads;
+
+    @Param({"1024"})
+    public int examples;
+
+    @Param({"32"})
+    public int inputSize;
+
+    private double[][] inputs;
+
+    private double[][] expected;
+
+    private Context context;
+
+    private ModelWrapper model;
+
+    private SGDOptimizer optimizer;
+
+    @Setup(Level.Trial)
+    public void setUpData() {
+        inputs = Networks.randomRows(examples, inputSize, 1);
+        expected = Networks.labels(inputs);
+        optimizer = new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(1)
+                .batchSize(batchSize)
+                .threads(threads)
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpModel() {
+        context = new Context(.01, false);
+        model = Networks.dense(context, inputSize, width, depth, 1);
+    }
+
+    @Benchmark
+    public ModelWrapper epoch() {
+        optimizer.train(context, model.getInputLayer(), model.getOutputLayer(), inputs, expected);
+        return model;
+    }
+}
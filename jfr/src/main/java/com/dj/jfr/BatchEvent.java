@@ -0,0 +1,32 @@
+package com.dj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name(BatchEvent.NAME)
+@Label("Training Batch")
+@Category({"DeepJava", "Training"})
+@Description("One weight update of the training: the forward pass, the backward pass and the update of a batch")
+public class BatchEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.dj.Batch";
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Batch")
+    long batch;
+
+    @Label("Examples")
+    int examples;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+    @Label("Loss")
+    double loss;
+}
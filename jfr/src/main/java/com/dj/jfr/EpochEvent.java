@@ -0,0 +1,34 @@
+package com.dj.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name(EpochEvent.NAME)
+@Label("Training Epoch")
+@Category({"DeepJava", "Training"})
+@Description("One epoch of the training, committed when it's over")
+public class EpochEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.dj.Epoch";
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+    @Label("Training Loss")
+    double loss;
+
+    @Label("Samples Per Second")
+    double samplesPerSecond;
+
+    @Label("Allocation Rate")
+    @DataAmount(DataAmount.BYTES)
+    double allocatedBytesPerSecond;
+}
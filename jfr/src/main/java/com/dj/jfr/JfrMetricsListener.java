@@ -0,0 +1,41 @@
+package com.dj.jfr;
+
+import com.dj.core.metrics.MetricsListener;
+import com.dj.core.metrics.MetricsRegistry;
+import com.dj.core.metrics.TrainingMetrics;
+
+/**
+ * Commits an {@link EpochEvent} after every epoch and a {@link BatchEvent} after every batch, the Hogwild training
+ * has only the epoch events, see {@link TrainingMetrics}. When no recording has the events enabled, nothing is
+ * committed and the listener costs one check per call.
+ */
+public final class JfrMetricsListener implements MetricsListener {
+
+    @Override
+    public void onEpoch(final int epoch, final long nanos, final MetricsRegistry registry) {
+        final EpochEvent event = new EpochEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.epoch = epoch;
+        event.nanos = nanos;
+        event.loss = registry.gauge(TrainingMetrics.TRAINING_LOSS).get();
+        event.samplesPerSecond = registry.gauge(TrainingMetrics.SAMPLES_PER_SECOND).get();
+        event.allocatedBytesPerSecond = registry.gauge(TrainingMetrics.ALLOCATED_BYTES_PER_SECOND).get();
+        event.commit();
+    }
+
+    @Override
+    public void onBatch(final int epoch, final long batch, final int examples, final long nanos, final double loss) {
+        final BatchEvent event = new BatchEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.epoch = epoch;
+        event.batch = batch;
+        event.examples = examples;
+        event.nanos = nanos;
+        event.loss = loss;
+        event.commit();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Java Flight Recorder events of the training. Add the {@link com.dj.jfr.JfrMetricsListener} to the
+ * {@link com.dj.core.metrics.MetricsRegistry} the optimizer is built with, and every epoch and every batch is
+ * committed as an event to the running recordings.
+ *
+ * @since 0.02
+ */
+package com.dj.jfr;
@@ -0,0 +1,6 @@
+module com.dj.jfr {
+    requires com.kovalevskyi.java.deep.core;
+    requires jdk.jfr;
+
+    exports com.dj.jfr;
+}
@@ -0,0 +1,56 @@
+package com.dj.jfr;
+
+import com.dj.core.metrics.MetricsRegistry;
+import com.dj.core.metrics.TrainingMetrics;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class JfrMetricsListenerTest {
+
+    @Test
+    public void testEventsAreCommitted() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge(TrainingMetrics.TRAINING_LOSS).set(.25);
+        registry.gauge(TrainingMetrics.SAMPLES_PER_SECOND).set(1000.);
+        final JfrMetricsListener listener = new JfrMetricsListener();
+        // Nothing is recorded yet, so these are dropped.
+        listener.onBatch(0, 0, 4, 100, .5);
+
+        final Path path = Files.createTempFile("test-training", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(EpochEvent.NAME);
+            recording.enable(BatchEvent.NAME);
+            recording.start();
+            listener.onBatch(1, 0, 4, 200, .5);
+            listener.onBatch(1, 1, 4, 300, .4);
+            listener.onEpoch(1, 1000, registry);
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        final List<RecordedEvent> batches = events.stream()
+                .filter(event -> event.getEventType().getName().equals(BatchEvent.NAME))
+                .collect(Collectors.toList());
+        final List<RecordedEvent> epochs = events.stream()
+                .filter(event -> event.getEventType().getName().equals(EpochEvent.NAME))
+                .collect(Collectors.toList());
+        assertEquals(2, batches.size());
+        assertTrue(batches.stream().allMatch(event -> event.getInt("epoch") == 1));
+        assertEquals(1, epochs.size());
+        assertEquals(.25, epochs.get(0).getDouble("loss"), 0.);
+        assertEquals(1000., epochs.get(0).getDouble("samplesPerSecond"), 0.);
+        assertEquals(1000L, epochs.get(0).getDuration("nanos").toNanos());
+    }
+}
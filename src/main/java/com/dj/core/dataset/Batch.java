@@ -0,0 +1,66 @@
+package com.dj.core.dataset;
+
+/**
+ * Reusable buffer for a batch of examples filled by a {@link BatchSource}. The rows are allocated once, so reading
+ * the whole Dataset batch by batch does not allocate anything per example.
+ *
+ * Only the first {@link #getSize()} rows of {@link #getInputs()} and {@link #getExpectedResults()} belong to the
+ * current batch, the rest keep the values of the previous ones.
+ */
+public final class Batch {
+
+    private final double[][] inputs;
+
+    private final double[][] expectedResults;
+
+    private int size;
+
+    public Batch(final int capacity, final int inputSize, final int outputSize) {
+        if (capacity < 1) {
+            throw new RuntimeException("Batch capacity should be positive");
+        }
+        this.inputs = new double[capacity][inputSize];
+        this.expectedResults = new double[capacity][outputSize];
+    }
+
+    /**
+     * Throws if the rows of the batch can not hold the examples of the dataset.
+     */
+    void checkRowSizes(final Dataset dataset) {
+        if (inputs[0].length != dataset.getInputSize() || expectedResults[0].length != dataset.getOutputSize()) {
+            throw new RuntimeException("Batch row sizes do not match the dataset");
+        }
+    }
+
+    public int getCapacity() {
+        return inputs.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param size amount of the rows filled by the {@link BatchSource}.
+     */
+    public void setSize(final int size) {
+        if (size < 0 || size > inputs.length) {
+            throw new RuntimeException("Batch size should be between 0 and the capacity");
+        }
+        this.size = size;
+    }
+
+    /**
+     * @return the backing rows (not a copy), getInputs()[i] is the input of the example #i of the batch.
+     */
+    public double[][] getInputs() {
+        return inputs;
+    }
+
+    /**
+     * @return the backing rows (not a copy), getExpectedResults()[i] is the expected result of the example #i.
+     */
+    public double[][] getExpectedResults() {
+        return expectedResults;
+    }
+}
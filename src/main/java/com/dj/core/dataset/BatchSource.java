@@ -0,0 +1,22 @@
+package com.dj.core.dataset;
+
+/**
+ * A single pass over a {@link Dataset}. Not thread safe: a source should be read by one thread at a time.
+ */
+public interface BatchSource extends AutoCloseable {
+
+    /**
+     * Reads the next examples into the batch, as many as the {@link Batch#getCapacity()} unless the end of the data
+     * is reached.
+     *
+     * @return amount of examples read, the same value as the {@link Batch#getSize()} afterwards. 0 when there are no
+     * examples left.
+     */
+    int next(Batch batch);
+
+    /**
+     * Releases files and other resources the source holds.
+     */
+    @Override
+    void close();
+}
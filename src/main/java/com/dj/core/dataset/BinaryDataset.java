@@ -0,0 +1,220 @@
+package com.dj.core.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Dataset stored in a binary file. All the values are little-endian:
+ *
+ * int       magic, "DJDS"
+ * int       format version
+ * int       amount of the input values in a row, I
+ * int       amount of the expected result values in a row, O
+ * long      amount of rows
+ * for every row:
+ *   double[I] input
+ *   double[O] expected result
+ *
+ * The file is read through the memory mapping one chunk at a time, so files of any size can be read with a bounded
+ * amount of memory, and the rows are copied in bulk straight from the OS page cache. Use
+ * {@link #write(Dataset, String)} to convert any other Dataset (for example a {@link CsvDataset}) to this format once
+ * instead of parsing the text on every epoch.
+ */
+public final class BinaryDataset implements Dataset {
+
+    static final int MAGIC = 0x53444A44;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * Default size of the mapped chunk in bytes.
+     */
+    static final int CHUNK_SIZE = 1 << 26;
+
+    private static final int WRITE_BATCH_SIZE = 1024;
+
+    private final String path;
+
+    private final int inputSize;
+
+    private final int outputSize;
+
+    private final long rowCount;
+
+    private final int chunkRows;
+
+    private BinaryDataset(
+            final String path,
+            final int inputSize,
+            final int outputSize,
+            final long rowCount,
+            final int chunkRows) {
+        this.path = path;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.rowCount = rowCount;
+        this.chunkRows = chunkRows;
+    }
+
+    public static BinaryDataset open(final String path) {
+        return open(path, CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize amount of bytes mapped at once, rounded down to the whole rows (but at least one row).
+     */
+    public static BinaryDataset open(final String path, final int chunkSize) {
+        try (var channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Not a binary dataset file");
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary dataset file");
+            }
+            final int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported dataset file version: " + version);
+            }
+            final int inputSize = header.getInt(8);
+            final int outputSize = header.getInt(12);
+            final long rowCount = header.getLong(16);
+            final long rowSize = (long) (inputSize + outputSize) * Double.BYTES;
+            if (inputSize < 1 || outputSize < 1 || channel.size() != HEADER_SIZE + rowCount * rowSize) {
+                throw new IOException("Dataset file has unexpected size");
+            }
+            final int chunkRows = (int) Math.max(1, Math.min(chunkSize / rowSize, rowCount));
+            return new BinaryDataset(path, inputSize, outputSize, rowCount, chunkRows);
+        } catch (IOException e) {
+            throw new RuntimeException("Dataset reading failed", e);
+        }
+    }
+
+    /**
+     * Writes all the examples of the dataset to the file in the binary format.
+     */
+    public static void write(final Dataset dataset, final String path) {
+        final int inputSize = dataset.getInputSize();
+        final int outputSize = dataset.getOutputSize();
+        final Batch batch = new Batch(WRITE_BATCH_SIZE, inputSize, outputSize);
+        final ByteBuffer buffer = ByteBuffer
+                .allocate(WRITE_BATCH_SIZE * (inputSize + outputSize) * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        try (var channel = FileChannel.open(
+                Paths.get(path),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+             var source = dataset.open()) {
+            channel.position(HEADER_SIZE);
+            long rowCount = 0;
+            int size;
+            while ((size = source.next(batch)) > 0) {
+                buffer.clear();
+                final DoubleBuffer values = buffer.asDoubleBuffer();
+                for (int i = 0; i < size; i++) {
+                    values.put(batch.getInputs()[i]);
+                    values.put(batch.getExpectedResults()[i]);
+                }
+                buffer.limit(values.position() * Double.BYTES);
+                writeFully(channel, buffer);
+                rowCount += size;
+            }
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(inputSize).putInt(outputSize).putLong(rowCount).flip();
+            channel.position(0);
+            writeFully(channel, header);
+        } catch (IOException e) {
+            throw new RuntimeException("Dataset writing failed", e);
+        }
+    }
+
+    public long size() {
+        return rowCount;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public BatchSource open() {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException("Dataset reading failed", e);
+        }
+        return new BatchSource() {
+
+            private final long rowSize = (long) (inputSize + outputSize) * Double.BYTES;
+
+            private long nextRow;
+
+            private DoubleBuffer chunk;
+
+            @Override
+            public int next(final Batch batch) {
+                batch.checkRowSizes(BinaryDataset.this);
+                int size = 0;
+                while (size < batch.getCapacity() && (chunk != null && chunk.hasRemaining() || mapNextChunk())) {
+                    chunk.get(batch.getInputs()[size]);
+                    chunk.get(batch.getExpectedResults()[size]);
+                    size++;
+                }
+                batch.setSize(size);
+                return size;
+            }
+
+            /**
+             * The previous chunk is unmapped when it's garbage collected.
+             */
+            private boolean mapNextChunk() {
+                if (nextRow == rowCount) {
+                    return false;
+                }
+                final long rows = Math.min(chunkRows, rowCount - nextRow);
+                try {
+                    chunk = channel
+                            .map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + nextRow * rowSize, rows * rowSize)
+                            .order(ByteOrder.LITTLE_ENDIAN)
+                            .asDoubleBuffer();
+                } catch (IOException e) {
+                    throw new RuntimeException("Dataset reading failed", e);
+                }
+                nextRow += rows;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Dataset closing failed", e);
+                }
+            }
+        };
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
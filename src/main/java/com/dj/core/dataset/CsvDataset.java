@@ -0,0 +1,184 @@
+package com.dj.core.dataset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Dataset stored in a text file, one example per line: the input values followed by the expected result values,
+ * separated by the delimiter. The file is read line by line on every pass, only the current line is kept in memory.
+ * Empty lines are skipped.
+ */
+public final class CsvDataset implements Dataset {
+
+    private final String path;
+
+    private final int inputSize;
+
+    private final int outputSize;
+
+    private final char delimiter;
+
+    private final boolean skipHeader;
+
+    private CsvDataset(
+            final String path,
+            final int inputSize,
+            final int outputSize,
+            final char delimiter,
+            final boolean skipHeader) {
+        this.path = path;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.delimiter = delimiter;
+        this.skipHeader = skipHeader;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public BatchSource open() {
+        final BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+            if (skipHeader) {
+                reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Dataset reading failed", e);
+        }
+        return new BatchSource() {
+
+            private int lineNumber = skipHeader ? 1 : 0;
+
+            @Override
+            public int next(final Batch batch) {
+                batch.checkRowSizes(CsvDataset.this);
+                int size = 0;
+                try {
+                    while (size < batch.getCapacity()) {
+                        final String line = reader.readLine();
+                        if (line == null) {
+                            break;
+                        }
+                        lineNumber++;
+                        if (line.trim().isEmpty()) {
+                            continue;
+                        }
+                        parse(line, lineNumber, batch.getInputs()[size], batch.getExpectedResults()[size]);
+                        size++;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Dataset reading failed", e);
+                }
+                batch.setSize(size);
+                return size;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Dataset closing failed", e);
+                }
+            }
+        };
+    }
+
+    private void parse(final String line, final int lineNumber, final double[] input, final double[] expected) {
+        int start = 0;
+        for (int column = 0; column < inputSize + outputSize; column++) {
+            int end = line.indexOf(delimiter, start);
+            if (end < 0) {
+                end = line.length();
+            }
+            if ((end == line.length()) != (column == inputSize + outputSize - 1)) {
+                throw new RuntimeException("Line " + lineNumber + " should have "
+                        + (inputSize + outputSize) + " values");
+            }
+            final double value;
+            try {
+                value = Double.parseDouble(line.substring(start, end).trim());
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Line " + lineNumber + " has a value that is not a number", e);
+            }
+            if (column < inputSize) {
+                input[column] = value;
+            } else {
+                expected[column - inputSize] = value;
+            }
+            start = end + 1;
+        }
+    }
+
+    public static class Builder {
+
+        private String path;
+
+        private int inputSize;
+
+        private int outputSize;
+
+        private char delimiter = ',';
+
+        private boolean skipHeader;
+
+        public Builder path(final String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Amount of the input values at the beginning of every line.
+         */
+        public Builder inputSize(final int inputSize) {
+            this.inputSize = inputSize;
+            return this;
+        }
+
+        /**
+         * Amount of the expected result values at the end of every line.
+         */
+        public Builder outputSize(final int outputSize) {
+            this.outputSize = outputSize;
+            return this;
+        }
+
+        /**
+         * Separator of the values, comma by default.
+         */
+        public Builder delimiter(final char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * Whether the first line of the file is a header and should be skipped.
+         */
+        public Builder skipHeader(final boolean skipHeader) {
+            this.skipHeader = skipHeader;
+            return this;
+        }
+
+        public CsvDataset build() {
+            if (path == null) {
+                throw new RuntimeException("Path need to be set in order to create a CsvDataset");
+            }
+            if (inputSize < 1 || outputSize < 1) {
+                throw new RuntimeException("Input and output sizes should be positive");
+            }
+            return new CsvDataset(path, inputSize, outputSize, delimiter, skipHeader);
+        }
+    }
+}
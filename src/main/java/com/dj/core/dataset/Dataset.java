@@ -0,0 +1,27 @@
+package com.dj.core.dataset;
+
+/**
+ * Training or test data: a sequence of examples, every example is an input row and the row of the expected results.
+ *
+ * A Dataset does not have to hold the examples in memory: every pass over the data (an epoch) opens a new
+ * {@link BatchSource} that reads the examples in batches, so the memory needed is bounded by the batch size and not by
+ * the size of the data.
+ */
+public interface Dataset {
+
+    /**
+     * @return amount of values in every input row.
+     */
+    int getInputSize();
+
+    /**
+     * @return amount of values in every row of the expected results.
+     */
+    int getOutputSize();
+
+    /**
+     * Starts a new pass over the data from the first example. Several sources of the same Dataset can be open at
+     * once, each of them reads the data on its own.
+     */
+    BatchSource open();
+}
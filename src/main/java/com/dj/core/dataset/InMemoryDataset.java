@@ -0,0 +1,67 @@
+package com.dj.core.dataset;
+
+/**
+ * Dataset of the arrays that are already in memory. The arrays are not copied, changing them changes the Dataset.
+ */
+public final class InMemoryDataset implements Dataset {
+
+    private final double[][] inputs;
+
+    private final double[][] expectedResults;
+
+    /**
+     * @param inputs inputs[i] is the input of the example #i.
+     * @param expectedResults expectedResults[i] is the expected result of the example #i.
+     */
+    public InMemoryDataset(final double[][] inputs, final double[][] expectedResults) {
+        if (inputs.length == 0 || inputs.length != expectedResults.length) {
+            throw new RuntimeException("Inputs and expected results should be non-empty and of the same size");
+        }
+        this.inputs = inputs;
+        this.expectedResults = expectedResults;
+    }
+
+    public int size() {
+        return inputs.length;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputs[0].length;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return expectedResults[0].length;
+    }
+
+    @Override
+    public BatchSource open() {
+        return new BatchSource() {
+
+            private int position;
+
+            @Override
+            public int next(final Batch batch) {
+                final int size = Math.min(batch.getCapacity(), inputs.length - position);
+                for (int i = 0; i < size; i++) {
+                    copy(inputs[position + i], batch.getInputs()[i]);
+                    copy(expectedResults[position + i], batch.getExpectedResults()[i]);
+                }
+                position += size;
+                batch.setSize(size);
+                return size;
+            }
+
+            @Override
+            public void close() { } // no-op
+        };
+    }
+
+    private static void copy(final double[] row, final double[] target) {
+        if (row.length != target.length) {
+            throw new RuntimeException("Row size does not match the batch row size");
+        }
+        System.arraycopy(row, 0, target, 0, row.length);
+    }
+}
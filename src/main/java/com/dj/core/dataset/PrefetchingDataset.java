@@ -0,0 +1,162 @@
+package com.dj.core.dataset;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads another Dataset on a background thread, so reading files, parsing and shuffling the next batches happen
+ * while the current batch trains.
+ *
+ * Every source gets its own thread that fills a ring of batches: a batch goes from the free queue to the background
+ * thread, gets filled, goes to the ready queue and returns to the free queue once the training thread has copied it.
+ * The amount of batches in the ring bounds both the memory used and how far the reading can get ahead of the
+ * training. The examples come in the same order as from the wrapped Dataset.
+ */
+public final class PrefetchingDataset implements Dataset {
+
+    private final Dataset dataset;
+
+    private final int batchSize;
+
+    private final int batches;
+
+    /**
+     * @param batchSize amount of examples the background thread reads at once.
+     * @param batches amount of batches the background thread can read ahead.
+     */
+    public PrefetchingDataset(final Dataset dataset, final int batchSize, final int batches) {
+        if (batchSize < 1 || batches < 1) {
+            throw new RuntimeException("Batch size and amount of batches should be positive");
+        }
+        this.dataset = dataset;
+        this.batchSize = batchSize;
+        this.batches = batches;
+    }
+
+    @Override
+    public int getInputSize() {
+        return dataset.getInputSize();
+    }
+
+    @Override
+    public int getOutputSize() {
+        return dataset.getOutputSize();
+    }
+
+    @Override
+    public BatchSource open() {
+        final Prefetcher prefetcher = new Prefetcher(dataset.open());
+        prefetcher.thread.start();
+        return prefetcher;
+    }
+
+    private final class Prefetcher implements BatchSource {
+
+        private final BatchSource source;
+
+        private final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(batches);
+
+        private final BlockingQueue<Batch> ready = new ArrayBlockingQueue<>(batches);
+
+        private final Thread thread = new Thread(this::prefetch, "dj-prefetch");
+
+        private volatile RuntimeException failure;
+
+        /**
+         * Batch the training thread is copying from and the position of the next example in it.
+         */
+        private Batch current;
+
+        private int position;
+
+        private Prefetcher(final BatchSource source) {
+            this.source = source;
+            for (int i = 0; i < batches; i++) {
+                free.add(new Batch(batchSize, getInputSize(), getOutputSize()));
+            }
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Runs on the background thread until the end of the Dataset, the empty batch marks the end.
+         */
+        private void prefetch() {
+            try {
+                while (true) {
+                    final Batch batch = free.take();
+                    try {
+                        source.next(batch);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                        batch.setSize(0);
+                    }
+                    ready.put(batch);
+                    if (batch.getSize() == 0) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // The source was closed before the end of the Dataset.
+            } finally {
+                source.close();
+            }
+        }
+
+        @Override
+        public int next(final Batch batch) {
+            batch.checkRowSizes(PrefetchingDataset.this);
+            int size = 0;
+            while (size < batch.getCapacity()) {
+                if (current == null || position == current.getSize() && current.getSize() > 0) {
+                    if (current != null) {
+                        free.add(current);
+                    }
+                    current = take();
+                    position = 0;
+                }
+                if (current.getSize() == 0) {
+                    if (failure != null) {
+                        throw new RuntimeException("Dataset reading failed", failure);
+                    }
+                    break;
+                }
+                final int count = Math.min(batch.getCapacity() - size, current.getSize() - position);
+                for (int i = 0; i < count; i++) {
+                    copy(current.getInputs()[position + i], batch.getInputs()[size + i]);
+                    copy(current.getExpectedResults()[position + i], batch.getExpectedResults()[size + i]);
+                }
+                position += count;
+                size += count;
+            }
+            batch.setSize(size);
+            return size;
+        }
+
+        private Batch take() {
+            try {
+                return ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Dataset reading was interrupted", e);
+            }
+        }
+
+        /**
+         * Stops the background thread and waits until it closes the wrapped source.
+         */
+        @Override
+        public void close() {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Dataset closing was interrupted", e);
+            }
+        }
+
+        private void copy(final double[] row, final double[] target) {
+            System.arraycopy(row, 0, target, 0, row.length);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.dj.core.dataset;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Returns the examples of another Dataset in a random order, without reading the whole Dataset into memory.
+ *
+ * The examples go through a buffer: the buffer is filled with the first examples, then every example is taken from a
+ * random position of the buffer and the next example of the Dataset takes its place. The bigger the buffer the closer
+ * the order is to a uniform shuffle, a buffer that fits the whole Dataset shuffles it uniformly.
+ *
+ * The order is defined by the seed and by the amount of times the Dataset was opened: every epoch gets its own order,
+ * but training with the same seed again repeats the orders of all the epochs.
+ */
+public final class ShuffledDataset implements Dataset {
+
+    /**
+     * Amount of examples read from the shuffled Dataset at once.
+     */
+    private static final int READ_BATCH_SIZE = 64;
+
+    private final Dataset dataset;
+
+    private final int bufferSize;
+
+    private final long seed;
+
+    private final AtomicLong opened = new AtomicLong();
+
+    /**
+     * @param bufferSize amount of examples kept in memory to choose from.
+     */
+    public ShuffledDataset(final Dataset dataset, final int bufferSize, final long seed) {
+        if (bufferSize < 1) {
+            throw new RuntimeException("Shuffle buffer size should be positive");
+        }
+        this.dataset = dataset;
+        this.bufferSize = bufferSize;
+        this.seed = seed;
+    }
+
+    @Override
+    public int getInputSize() {
+        return dataset.getInputSize();
+    }
+
+    @Override
+    public int getOutputSize() {
+        return dataset.getOutputSize();
+    }
+
+    @Override
+    public BatchSource open() {
+        final Random random = new Random(seed + opened.getAndIncrement());
+        final BatchSource source = dataset.open();
+        return new BatchSource() {
+
+            private final Batch buffer = new Batch(bufferSize, getInputSize(), getOutputSize());
+
+            private final Batch incoming = new Batch(READ_BATCH_SIZE, getInputSize(), getOutputSize());
+
+            private int incomingPosition;
+
+            /**
+             * Amount of the examples in the buffer, -1 until the buffer is filled for the first time.
+             */
+            private int buffered = -1;
+
+            @Override
+            public int next(final Batch batch) {
+                batch.checkRowSizes(ShuffledDataset.this);
+                if (buffered < 0) {
+                    buffered = 0;
+                    while (buffered < bufferSize && readIncoming(buffered)) {
+                        buffered++;
+                    }
+                }
+                int size = 0;
+                while (size < batch.getCapacity() && buffered > 0) {
+                    final int index = random.nextInt(buffered);
+                    copyRow(buffer, index, batch, size);
+                    size++;
+                    if (!readIncoming(index)) {
+                        // The Dataset is over: the last buffered example takes the free place.
+                        buffered--;
+                        swapRows(buffer, index, buffered);
+                    }
+                }
+                batch.setSize(size);
+                return size;
+            }
+
+            /**
+             * Copies the next example of the shuffled Dataset to the buffer row.
+             *
+             * @return false if there are no examples left.
+             */
+            private boolean readIncoming(final int row) {
+                if (incomingPosition == incoming.getSize()) {
+                    incomingPosition = 0;
+                    if (source.next(incoming) == 0) {
+                        return false;
+                    }
+                }
+                copyRow(incoming, incomingPosition, buffer, row);
+                incomingPosition++;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                source.close();
+            }
+        };
+    }
+
+    private static void copyRow(final Batch from, final int fromRow, final Batch to, final int toRow) {
+        final double[] input = from.getInputs()[fromRow];
+        final double[] expected = from.getExpectedResults()[fromRow];
+        System.arraycopy(input, 0, to.getInputs()[toRow], 0, input.length);
+        System.arraycopy(expected, 0, to.getExpectedResults()[toRow], 0, expected.length);
+    }
+
+    private static void swapRows(final Batch batch, final int first, final int second) {
+        final double[] input = batch.getInputs()[first];
+        batch.getInputs()[first] = batch.getInputs()[second];
+        batch.getInputs()[second] = input;
+        final double[] expected = batch.getExpectedResults()[first];
+        batch.getExpectedResults()[first] = batch.getExpectedResults()[second];
+        batch.getExpectedResults()[second] = expected;
+    }
+}
@@ -0,0 +1,140 @@
+package com.dj.core.helpers;
+
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.Dataset;
+
+import java.util.Arrays;
+
+/**
+ * Per-feature statistics of the input rows: minimum, maximum, mean and variance, collected in one pass.
+ *
+ * Mean and variance are accumulated with the Welford's algorithm, which does not lose precision on big values the way
+ * the sum of squares does. Statistics of different parts of the data can be combined, so the rows can be processed
+ * in parallel or incrementally as they arrive.
+ */
+public final class FeatureStatistics {
+
+    private static final int READ_BATCH_SIZE = 256;
+
+    private long count;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    private final double[] mean;
+
+    /**
+     * Sum of the squared differences from the mean of every feature.
+     */
+    private final double[] squaredDifferences;
+
+    /**
+     * @param size amount of features in every row.
+     */
+    public FeatureStatistics(final int size) {
+        this.min = new double[size];
+        this.max = new double[size];
+        this.mean = new double[size];
+        this.squaredDifferences = new double[size];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Collects the statistics of the rows in parallel.
+     */
+    public static FeatureStatistics of(final double[][] rows) {
+        if (rows.length == 0) {
+            throw new RuntimeException("Rows should not be empty");
+        }
+        final int size = rows[0].length;
+        return Arrays.stream(rows)
+                .parallel()
+                .collect(() -> new FeatureStatistics(size), FeatureStatistics::accept, FeatureStatistics::combine);
+    }
+
+    /**
+     * Collects the statistics of the inputs of the dataset, reading it once in batches.
+     */
+    public static FeatureStatistics of(final Dataset dataset) {
+        final FeatureStatistics statistics = new FeatureStatistics(dataset.getInputSize());
+        final Batch batch = new Batch(READ_BATCH_SIZE, dataset.getInputSize(), dataset.getOutputSize());
+        try (var source = dataset.open()) {
+            while (source.next(batch) > 0) {
+                for (int i = 0; i < batch.getSize(); i++) {
+                    statistics.accept(batch.getInputs()[i]);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    public void accept(final double[] row) {
+        if (row.length != mean.length) {
+            throw new RuntimeException("Row size does not match the amount of features");
+        }
+        count++;
+        for (int i = 0; i < row.length; i++) {
+            final double value = row[i];
+            min[i] = Math.min(min[i], value);
+            max[i] = Math.max(max[i], value);
+            final double difference = value - mean[i];
+            mean[i] += difference / count;
+            squaredDifferences[i] += difference * (value - mean[i]);
+        }
+    }
+
+    /**
+     * Adds the statistics of other rows to these ones, as if the rows were accepted by this object.
+     */
+    public void combine(final FeatureStatistics other) {
+        if (other.mean.length != mean.length) {
+            throw new RuntimeException("Statistics of different amount of features can not be combined");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        final long total = count + other.count;
+        for (int i = 0; i < mean.length; i++) {
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+            final double difference = other.mean[i] - mean[i];
+            mean[i] += difference * other.count / total;
+            squaredDifferences[i] += other.squaredDifferences[i]
+                    + difference * difference * ((double) count * other.count / total);
+        }
+        count = total;
+    }
+
+    public int getSize() {
+        return mean.length;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin(final int feature) {
+        return min[feature];
+    }
+
+    public double getMax(final int feature) {
+        return max[feature];
+    }
+
+    public double getMean(final int feature) {
+        return mean[feature];
+    }
+
+    /**
+     * @return population variance of the feature.
+     */
+    public double getVariance(final int feature) {
+        return count > 0 ? squaredDifferences[feature] / count : 0.;
+    }
+
+    public double getStandardDeviation(final int feature) {
+        return Math.sqrt(getVariance(feature));
+    }
+}
@@ -1,22 +1,32 @@
 package com.dj.core.helpers;
 
-import com.google.common.collect.Streams;
-
 import java.util.Arrays;
-import java.util.stream.IntStream;
 
 public class NormalizationHelper {
 
     private NormalizationHelper() { }
 
+    /**
+     * Maps all the values to [-1, 1] using the minimum and the maximum of the whole input. Use the {@link Scaler} to
+     * normalize every feature separately.
+     */
     public static double[][] normalize(final double[][] input) {
-        final double max = Arrays.stream(input).flatMapToDouble(row -> Arrays.stream(row)).max().getAsDouble();
-        final double min = Arrays.stream(input).flatMapToDouble(row -> Arrays.stream(row)).min().getAsDouble();
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        for (final double[] row : input) {
+            for (final double value : row) {
+                max = Math.max(max, value);
+                min = Math.min(min, value);
+            }
+        }
         final double mid = min + (max - min) / 2.;
+        final double halfRange = (max - min) / 2.;
         final double[][] output = new double[input.length][];
-        IntStream.range(0, input.length).forEach(i ->
-            output[i] = Arrays.stream(input[i]).map(value -> (value - mid) / mid).toArray()
-        );
+        for (int i = 0; i < input.length; i++) {
+            output[i] = halfRange > 0.
+                    ? Arrays.stream(input[i]).map(value -> (value - mid) / halfRange).toArray()
+                    : new double[input[i].length];
+        }
         return output;
     }
 }
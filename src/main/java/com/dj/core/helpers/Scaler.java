@@ -0,0 +1,154 @@
+package com.dj.core.helpers;
+
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.BatchSource;
+import com.dj.core.dataset.Dataset;
+
+import java.io.Serializable;
+
+/**
+ * Per-feature linear transformation of the input rows: output[i] = input[i] * scale[i] + offset[i]. Min-max and
+ * z-score normalizations are both of this form, so a Scaler fitted on the training data can be stored with the model
+ * (see {@link com.dj.core.serializer.ModelWrapper.Builder#inputScaler(Scaler)}) and applied to the inputs at the
+ * inference time without allocating anything.
+ *
+ * Constant features (with zero range or zero variance) are mapped to the middle of the target range.
+ */
+public final class Scaler implements Serializable {
+
+    private final double[] scales;
+
+    private final double[] offsets;
+
+    public Scaler(final double[] scales, final double[] offsets) {
+        if (scales.length != offsets.length) {
+            throw new RuntimeException("Amount of scales and offsets should be the same");
+        }
+        this.scales = scales.clone();
+        this.offsets = offsets.clone();
+    }
+
+    /**
+     * Maps the range of every feature to [0, 1].
+     */
+    public static Scaler minMax(final FeatureStatistics statistics) {
+        return minMax(statistics, 0., 1.);
+    }
+
+    /**
+     * Maps the range of every feature to [low, high].
+     */
+    public static Scaler minMax(final FeatureStatistics statistics, final double low, final double high) {
+        final int size = statistics.getSize();
+        final double[] scales = new double[size];
+        final double[] offsets = new double[size];
+        for (int i = 0; i < size; i++) {
+            final double range = statistics.getMax(i) - statistics.getMin(i);
+            if (range > 0.) {
+                scales[i] = (high - low) / range;
+                offsets[i] = low - statistics.getMin(i) * scales[i];
+            } else {
+                offsets[i] = (low + high) / 2.;
+            }
+        }
+        return new Scaler(scales, offsets);
+    }
+
+    /**
+     * Maps every feature to the zero mean and the unit variance.
+     */
+    public static Scaler zScore(final FeatureStatistics statistics) {
+        final int size = statistics.getSize();
+        final double[] scales = new double[size];
+        final double[] offsets = new double[size];
+        for (int i = 0; i < size; i++) {
+            final double standardDeviation = statistics.getStandardDeviation(i);
+            if (standardDeviation > 0.) {
+                scales[i] = 1. / standardDeviation;
+                offsets[i] = -statistics.getMean(i) * scales[i];
+            }
+        }
+        return new Scaler(scales, offsets);
+    }
+
+    public int getSize() {
+        return scales.length;
+    }
+
+    public double[] getScales() {
+        return scales.clone();
+    }
+
+    public double[] getOffsets() {
+        return offsets.clone();
+    }
+
+    /**
+     * @param output receives the transformed input, can be the input itself.
+     */
+    public void transform(final double[] input, final double[] output) {
+        if (input.length < scales.length || output.length < scales.length) {
+            throw new RuntimeException("Row size does not match the amount of features");
+        }
+        for (int i = 0; i < scales.length; i++) {
+            output[i] = input[i] * scales[i] + offsets[i];
+        }
+    }
+
+    public double[] transform(final double[] input) {
+        final double[] output = new double[scales.length];
+        transform(input, output);
+        return output;
+    }
+
+    public double[][] transform(final double[][] inputs) {
+        final double[][] outputs = new double[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            outputs[i] = transform(inputs[i]);
+        }
+        return outputs;
+    }
+
+    /**
+     * @return Dataset with the inputs of the given one transformed while they are read, the expected results stay
+     * the same.
+     */
+    public Dataset transform(final Dataset dataset) {
+        if (dataset.getInputSize() != scales.length) {
+            throw new RuntimeException("Dataset input size does not match the amount of features");
+        }
+        return new Dataset() {
+
+            @Override
+            public int getInputSize() {
+                return dataset.getInputSize();
+            }
+
+            @Override
+            public int getOutputSize() {
+                return dataset.getOutputSize();
+            }
+
+            @Override
+            public BatchSource open() {
+                final BatchSource source = dataset.open();
+                return new BatchSource() {
+
+                    @Override
+                    public int next(final Batch batch) {
+                        final int size = source.next(batch);
+                        for (int i = 0; i < size; i++) {
+                            transform(batch.getInputs()[i], batch.getInputs()[i]);
+                        }
+                        return size;
+                    }
+
+                    @Override
+                    public void close() {
+                        source.close();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.dj.core.inference;
+
+import com.dj.core.helpers.Scaler;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.serializer.ModelWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates a trained model. Unlike sending signals to the Neurons, which keep the state of the latest forward pass,
+ * predictions do not share any state, so a single Predictor can be used from any amount of threads at once.
+ *
+ * The Predictor takes a snapshot of the model weights when it's built, training the model afterwards does not
+ * change predictions. Every thread that calls the Predictor gets its own buffers for the intermediate layer outputs,
+ * the weights themselves are shared and only read.
+ *
+ * If the model has an input {@link Scaler}, inputs are scaled into the per-thread buffers before the forward pass.
+ */
+public class Predictor {
+
+    private final CompiledNetwork network;
+
+    private final ThreadLocal<CompiledNetwork> replicas;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Scaler inputScaler;
+
+    /**
+     * Scaled inputs of the current batch, used only if the model has an input scaler.
+     */
+    private final ThreadLocal<double[][]> scaledInputs;
+
+    private Predictor(
+            final CompiledNetwork network,
+            final Executor executor,
+            final int batchSize,
+            final Scaler inputScaler) {
+        this.network = network;
+        this.replicas = ThreadLocal.withInitial(network::replica);
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.inputScaler = inputScaler;
+        this.scaledInputs = ThreadLocal.withInitial(() -> new double[batchSize][network.getInputSize()]);
+    }
+
+    public int getInputSize() {
+        return network.getInputSize();
+    }
+
+    public int getOutputSize() {
+        return network.getOutputSize();
+    }
+
+    /**
+     * @param input values for the input neurons in the order of the model's input layer.
+     * @return values of the output neurons in the order of the model's output layer.
+     */
+    public double[] predict(final double[] input) {
+        if (inputScaler == null) {
+            return replicas.get().forward(input).clone();
+        }
+        if (input.length != network.getInputSize()) {
+            throw new RuntimeException("Input size does not match the input layer size");
+        }
+        final double[] scaledInput = scaledInputs.get()[0];
+        inputScaler.transform(input, scaledInput);
+        return replicas.get().forward(scaledInput).clone();
+    }
+
+    /**
+     * Evaluates several inputs. Inputs are split into batches, batches are evaluated in parallel on the executor the
+     * Predictor was built with.
+     *
+     * @return result[i] is the prediction for the inputs[i].
+     */
+    public double[][] predict(final double[][] inputs) {
+        final double[][] result = new double[inputs.length][];
+        final List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < inputs.length; from += batchSize) {
+            final int batchFrom = from;
+            final int size = Math.min(batchSize, inputs.length - from);
+            batches.add(CompletableFuture.runAsync(() -> predictBatch(inputs, result, batchFrom, size), executor));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+        return result;
+    }
+
+    private void predictBatch(final double[][] inputs, final double[][] result, final int from, final int size) {
+        final double[] outputs;
+        if (inputScaler == null) {
+            outputs = replicas.get().forwardBatch(inputs, from, size);
+        } else {
+            final double[][] scaled = scaledInputs.get();
+            for (int example = 0; example < size; example++) {
+                if (inputs[from + example].length != network.getInputSize()) {
+                    throw new RuntimeException("Input size does not match the input layer size");
+                }
+                inputScaler.transform(inputs[from + example], scaled[example]);
+            }
+            outputs = replicas.get().forwardBatch(scaled, 0, size);
+        }
+        final int outputSize = network.getOutputSize();
+        for (int example = 0; example < size; example++) {
+            final double[] output = new double[outputSize];
+            System.arraycopy(outputs, example * outputSize, output, 0, outputSize);
+            result[from + example] = output;
+        }
+    }
+
+    public static class Builder {
+
+        private ModelWrapper model;
+
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private int batchSize = 64;
+
+        public Builder model(final ModelWrapper model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Executor the batches of the {@link Predictor#predict(double[][])} are evaluated on, the common
+         * {@link ForkJoinPool} by default.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Amount of inputs of the {@link Predictor#predict(double[][])} evaluated together by one task.
+         */
+        public Builder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Predictor build() {
+            if (model == null) {
+                throw new RuntimeException("Model need to be set in order to create a Predictor");
+            }
+            if (executor == null) {
+                throw new RuntimeException("Executor need to be set in order to create a Predictor");
+            }
+            if (batchSize < 1) {
+                throw new RuntimeException("Batch size should be positive");
+            }
+            final CompiledNetwork network
+                    = LayerCompiler.compile(model.getInputLayer(), model.getOutputLayer()).copy();
+            return new Predictor(network, executor, batchSize, model.getInputScaler());
+        }
+    }
+}
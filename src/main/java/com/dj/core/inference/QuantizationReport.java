@@ -0,0 +1,87 @@
+package com.dj.core.inference;
+
+/**
+ * Result of the {@link Quantizer#report(com.dj.core.serializer.ModelWrapper, QuantizedModel, double[][], double[][])}.
+ *
+ * Accuracy is the share of the examples classified correctly: a model with a single output classifies an example as
+ * 1 if the output is at least .5, a model with several outputs classifies it by the biggest output.
+ */
+public final class QuantizationReport {
+
+    private final double originalAccuracy;
+
+    private final double quantizedAccuracy;
+
+    private final double meanAbsoluteDifference;
+
+    private final double maxAbsoluteDifference;
+
+    private final long originalParametersSize;
+
+    private final long quantizedParametersSize;
+
+    QuantizationReport(
+            final double originalAccuracy,
+            final double quantizedAccuracy,
+            final double meanAbsoluteDifference,
+            final double maxAbsoluteDifference,
+            final long originalParametersSize,
+            final long quantizedParametersSize) {
+        this.originalAccuracy = originalAccuracy;
+        this.quantizedAccuracy = quantizedAccuracy;
+        this.meanAbsoluteDifference = meanAbsoluteDifference;
+        this.maxAbsoluteDifference = maxAbsoluteDifference;
+        this.originalParametersSize = originalParametersSize;
+        this.quantizedParametersSize = quantizedParametersSize;
+    }
+
+    public double getOriginalAccuracy() {
+        return originalAccuracy;
+    }
+
+    public double getQuantizedAccuracy() {
+        return quantizedAccuracy;
+    }
+
+    /**
+     * @return quantized accuracy minus the original one, negative if the quantization made the model worse.
+     */
+    public double getAccuracyDelta() {
+        return quantizedAccuracy - originalAccuracy;
+    }
+
+    /**
+     * @return mean absolute difference between the outputs of the original and the quantized model.
+     */
+    public double getMeanAbsoluteDifference() {
+        return meanAbsoluteDifference;
+    }
+
+    public double getMaxAbsoluteDifference() {
+        return maxAbsoluteDifference;
+    }
+
+    /**
+     * @return amount of bytes taken by the weights and biases of the original model.
+     */
+    public long getOriginalParametersSize() {
+        return originalParametersSize;
+    }
+
+    public long getQuantizedParametersSize() {
+        return quantizedParametersSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "accuracy: %.4f -> %.4f (%+.4f), output difference: mean %.6f, max %.6f, parameters: %d -> %d bytes",
+                originalAccuracy,
+                quantizedAccuracy,
+                getAccuracyDelta(),
+                meanAbsoluteDifference,
+                maxAbsoluteDifference,
+                originalParametersSize,
+                quantizedParametersSize);
+    }
+}
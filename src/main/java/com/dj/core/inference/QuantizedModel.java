@@ -0,0 +1,244 @@
+package com.dj.core.inference;
+
+import com.dj.core.helpers.Scaler;
+import com.dj.core.model.activation.ActivationFunction;
+
+/**
+ * A model with 8 bit integer weights, created by the {@link Quantizer}.
+ *
+ * Weights are stored as bytes with a scale per neuron: weight = byte * weightScale. The input of every layer is
+ * quantized with the scale and zero point calibrated by the {@link Quantizer}:
+ * input = (byte - zeroPoint) * inputScale, so the weighted sum of a neuron is a dot product of two byte vectors
+ * accumulated in an int. The sum is converted back to a double, the bias is added and the activation function is
+ * applied to the double value.
+ *
+ * Same as the {@link Predictor} the QuantizedModel can be used from several threads at once.
+ */
+public final class QuantizedModel {
+
+    /**
+     * Biggest absolute value of a quantized weight or input. -128 is not used, so zero weight is in the middle of the
+     * range.
+     */
+    static final int MAX_QUANTIZED = 127;
+
+    private final int inputSize;
+
+    private final int[] layerSizes;
+
+    /**
+     * weights[layer][row * layerInputSize + column] is the quantized weight of the connection from the previous
+     * layer neuron #column to the neuron #row.
+     */
+    private final byte[][] weights;
+
+    /**
+     * weightScales[layer][row] is the scale of the weights of the neuron #row.
+     */
+    private final double[][] weightScales;
+
+    /**
+     * weightSums[layer][row] is the sum of the quantized weights of the neuron #row, the weighted sum of the input
+     * zero points.
+     */
+    private final int[][] weightSums;
+
+    private final double[] inputScales;
+
+    private final int[] inputZeroPoints;
+
+    private final double[][] biases;
+
+    private final ActivationFunction[][] activationFunctions;
+
+    /**
+     * Scaler of the original model, null if the model takes the inputs as they are.
+     */
+    private final Scaler inputScaler;
+
+    /**
+     * Two buffers of the size of the biggest layer for the input and output of the current layer and one more for
+     * the quantized input.
+     */
+    private final ThreadLocal<Buffers> buffers;
+
+    QuantizedModel(
+            final int inputSize,
+            final int[] layerSizes,
+            final byte[][] weights,
+            final double[][] weightScales,
+            final double[] inputScales,
+            final int[] inputZeroPoints,
+            final double[][] biases,
+            final ActivationFunction[][] activationFunctions,
+            final Scaler inputScaler) {
+        this.inputSize = inputSize;
+        this.layerSizes = layerSizes;
+        this.weights = weights;
+        this.weightScales = weightScales;
+        this.inputScales = inputScales;
+        this.inputZeroPoints = inputZeroPoints;
+        this.biases = biases;
+        this.activationFunctions = activationFunctions;
+        this.inputScaler = inputScaler;
+        this.weightSums = new int[layerSizes.length][];
+        int layerInputSize = inputSize;
+        for (int layer = 0; layer < layerSizes.length; layer++) {
+            weightSums[layer] = new int[layerSizes[layer]];
+            for (int i = 0; i < weights[layer].length; i++) {
+                weightSums[layer][i / layerInputSize] += weights[layer][i];
+            }
+            layerInputSize = layerSizes[layer];
+        }
+        int maxSize = inputSize;
+        for (final int layerSize : layerSizes) {
+            maxSize = Math.max(maxSize, layerSize);
+        }
+        final int bufferSize = maxSize;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(bufferSize));
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    public int getLayerCount() {
+        return layerSizes.length;
+    }
+
+    /**
+     * @return value of the weight represented by the quantized weight 1 for the neuron of the layer.
+     */
+    public double getWeightScale(final int layer, final int neuron) {
+        return weightScales[layer][neuron];
+    }
+
+    /**
+     * @return difference between the layer inputs represented by two neighbour quantized values, calibrated by the
+     * {@link Quantizer}.
+     */
+    public double getInputScale(final int layer) {
+        return inputScales[layer];
+    }
+
+    /**
+     * @return quantized value that represents the layer input 0. Inputs outside of the range from
+     * (-127 - zeroPoint) * inputScale to (127 - zeroPoint) * inputScale are clipped.
+     */
+    public int getInputZeroPoint(final int layer) {
+        return inputZeroPoints[layer];
+    }
+
+    /**
+     * @return amount of bytes taken by the weights, weight scales and biases of all layers.
+     */
+    public long getParametersSize() {
+        long size = 0;
+        for (int layer = 0; layer < layerSizes.length; layer++) {
+            size += weights[layer].length + 2L * layerSizes[layer] * Double.BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * @param input values for the input neurons in the order of the model's input layer.
+     * @return values of the output neurons in the order of the model's output layer.
+     */
+    public double[] predict(final double[] input) {
+        if (input.length != inputSize) {
+            throw new RuntimeException("Input size does not match the input layer size");
+        }
+        final Buffers layerBuffers = buffers.get();
+        double[] layerInput = layerBuffers.input;
+        double[] layerOutput = layerBuffers.output;
+        final byte[] quantizedInput = layerBuffers.quantizedInput;
+        if (inputScaler != null) {
+            inputScaler.transform(input, layerInput);
+        } else {
+            System.arraycopy(input, 0, layerInput, 0, inputSize);
+        }
+        int layerInputSize = inputSize;
+        for (int layer = 0; layer < layerSizes.length; layer++) {
+            final double inputScale = inputScales[layer];
+            final int zeroPoint = inputZeroPoints[layer];
+            quantize(layerInput, layerInputSize, inputScale, zeroPoint, quantizedInput);
+            final byte[] layerWeights = weights[layer];
+            final double[] layerWeightScales = weightScales[layer];
+            final int[] layerWeightSums = weightSums[layer];
+            final double[] layerBiases = biases[layer];
+            final ActivationFunction[] layerActivationFunctions = activationFunctions[layer];
+            for (int row = 0; row < layerSizes[layer]; row++) {
+                final long sum = dot(layerWeights, row * layerInputSize, quantizedInput, layerInputSize)
+                        - (long) zeroPoint * layerWeightSums[row];
+                layerOutput[row] = layerActivationFunctions[row].forward(
+                        sum * (layerWeightScales[row] * inputScale) + layerBiases[row]);
+            }
+            final double[] swap = layerInput;
+            layerInput = layerOutput;
+            layerOutput = swap;
+            layerInputSize = layerSizes[layer];
+        }
+        final double[] result = new double[getOutputSize()];
+        System.arraycopy(layerInput, 0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * @return result[i] is the prediction for the inputs[i].
+     */
+    public double[][] predict(final double[][] inputs) {
+        final double[][] result = new double[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            result[i] = predict(inputs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * The {@link Quantizer} rejects layers wide enough to overflow the int sum.
+     */
+    private static int dot(final byte[] weights, final int offset, final byte[] input, final int size) {
+        // Unlike the double sum, the order of the int additions does not change the result, so the JIT is free to
+        // vectorize this loop.
+        int sum = 0;
+        for (int column = 0; column < size; column++) {
+            sum += weights[offset + column] * input[column];
+        }
+        return sum;
+    }
+
+    private static void quantize(
+            final double[] values,
+            final int size,
+            final double scale,
+            final int zeroPoint,
+            final byte[] result) {
+        for (int i = 0; i < size; i++) {
+            result[i] = quantize(values[i], scale, zeroPoint);
+        }
+    }
+
+    static byte quantize(final double value, final double scale, final int zeroPoint) {
+        final long quantized = Math.round(value / scale) + zeroPoint;
+        return (byte) Math.max(-MAX_QUANTIZED, Math.min(MAX_QUANTIZED, quantized));
+    }
+
+    private static final class Buffers {
+
+        private final double[] input;
+
+        private final double[] output;
+
+        private final byte[] quantizedInput;
+
+        private Buffers(final int size) {
+            this.input = new double[size];
+            this.output = new double[size];
+            this.quantizedInput = new byte[size];
+        }
+    }
+}
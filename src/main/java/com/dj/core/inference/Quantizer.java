@@ -0,0 +1,207 @@
+package com.dj.core.inference;
+
+import com.dj.core.helpers.Scaler;
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.DenseLayer;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.model.graph.Precision;
+import com.dj.core.serializer.ModelWrapper;
+
+/**
+ * Post-training quantization: converts a trained model into a {@link QuantizedModel} with 8 bit integer weights.
+ *
+ * Weights of every neuron are scaled so its biggest weight by the absolute value becomes 127. Inputs of every layer
+ * are mapped onto the whole byte range: the smallest and the biggest inputs of the layer are found by running the
+ * calibration data through the original model, so the calibration data should look like the data the model is going
+ * to be used on. The range always includes 0, so zero inputs (for example Relu outputs) stay exact. Biases stay
+ * doubles.
+ *
+ * Use {@link #report(ModelWrapper, QuantizedModel, double[][], double[][])} on a held-out data set to see how much
+ * accuracy the quantization costs.
+ */
+public final class Quantizer {
+
+    /**
+     * Widest layer input the int accumulator of the {@link QuantizedModel} can not overflow on.
+     */
+    static final int MAX_LAYER_INPUT_SIZE
+            = Integer.MAX_VALUE / (QuantizedModel.MAX_QUANTIZED * QuantizedModel.MAX_QUANTIZED);
+
+    private Quantizer() { } // no-op
+
+    /**
+     * @param model trained model, it has to be compilable by the {@link LayerCompiler}. The model is not changed.
+     * @param calibrationInputs inputs used to find the range of the values every layer receives.
+     */
+    public static QuantizedModel quantize(final ModelWrapper model, final double[][] calibrationInputs) {
+        if (calibrationInputs.length == 0) {
+            throw new RuntimeException("Calibration data should not be empty");
+        }
+        final CompiledNetwork network = LayerCompiler.compile(model.getInputLayer(), model.getOutputLayer());
+        final int layerCount = network.getLayerCount();
+        final double[] inputScales = new double[layerCount];
+        final int[] inputZeroPoints = new int[layerCount];
+        calibrate(network, model.getInputScaler(), calibrationInputs, inputScales, inputZeroPoints);
+        final int[] layerSizes = new int[layerCount];
+        final byte[][] weights = new byte[layerCount][];
+        final double[][] weightScales = new double[layerCount][];
+        final double[][] biases = new double[layerCount][];
+        final ActivationFunction[][] activationFunctions = new ActivationFunction[layerCount][];
+        for (int i = 0; i < layerCount; i++) {
+            final DenseLayer layer = network.getLayer(i);
+            if (layer.getInputSize() > MAX_LAYER_INPUT_SIZE) {
+                throw new RuntimeException(
+                        "Layers with more than " + MAX_LAYER_INPUT_SIZE + " inputs can not be quantized");
+            }
+            layerSizes[i] = layer.getOutputSize();
+            weightScales[i] = new double[layer.getOutputSize()];
+            weights[i] = new byte[layer.getOutputSize() * layer.getInputSize()];
+            biases[i] = new double[layer.getOutputSize()];
+            activationFunctions[i] = new ActivationFunction[layer.getOutputSize()];
+            for (int row = 0; row < layer.getOutputSize(); row++) {
+                double maxAbsoluteWeight = 0.;
+                for (int column = 0; column < layer.getInputSize(); column++) {
+                    maxAbsoluteWeight = Math.max(maxAbsoluteWeight, Math.abs(layer.getWeight(row, column)));
+                }
+                // All zero weights get the scale 1, any scale represents them exactly.
+                weightScales[i][row]
+                        = maxAbsoluteWeight > 0. ? maxAbsoluteWeight / QuantizedModel.MAX_QUANTIZED : 1.;
+                for (int column = 0; column < layer.getInputSize(); column++) {
+                    weights[i][row * layer.getInputSize() + column]
+                            = QuantizedModel.quantize(layer.getWeight(row, column), weightScales[i][row], 0);
+                }
+                biases[i][row] = layer.getBias(row);
+                activationFunctions[i][row] = layer.getActivationFunction(row);
+            }
+        }
+        return new QuantizedModel(
+                network.getInputSize(),
+                layerSizes,
+                weights,
+                weightScales,
+                inputScales,
+                inputZeroPoints,
+                biases,
+                activationFunctions,
+                model.getInputScaler());
+    }
+
+    /**
+     * Compares the predictions of the original model and of the quantized one.
+     *
+     * @param inputs held-out inputs, the data the model was neither trained nor calibrated on.
+     * @param expectedResults expected outputs for the inputs.
+     */
+    public static QuantizationReport report(
+            final ModelWrapper model,
+            final QuantizedModel quantizedModel,
+            final double[][] inputs,
+            final double[][] expectedResults) {
+        if (inputs.length == 0 || inputs.length != expectedResults.length) {
+            throw new RuntimeException("Inputs and expected results should be non-empty and of the same size");
+        }
+        final double[][] originalPredictions = new Predictor.Builder().model(model).build().predict(inputs);
+        final double[][] quantizedPredictions = quantizedModel.predict(inputs);
+        int originalCorrect = 0;
+        int quantizedCorrect = 0;
+        double differenceSum = 0.;
+        double maxDifference = 0.;
+        int valueCount = 0;
+        for (int example = 0; example < inputs.length; example++) {
+            final int expectedClass = predictedClass(expectedResults[example]);
+            if (predictedClass(originalPredictions[example]) == expectedClass) {
+                originalCorrect++;
+            }
+            if (predictedClass(quantizedPredictions[example]) == expectedClass) {
+                quantizedCorrect++;
+            }
+            for (int i = 0; i < originalPredictions[example].length; i++) {
+                final double difference
+                        = Math.abs(originalPredictions[example][i] - quantizedPredictions[example][i]);
+                differenceSum += difference;
+                maxDifference = Math.max(maxDifference, difference);
+                valueCount++;
+            }
+        }
+        return new QuantizationReport(
+                (double) originalCorrect / inputs.length,
+                (double) quantizedCorrect / inputs.length,
+                differenceSum / valueCount,
+                maxDifference,
+                parametersSize(model),
+                quantizedModel.getParametersSize());
+    }
+
+    /**
+     * Runs the calibration inputs through the network and finds the input scale and zero point of every layer.
+     *
+     * @param inputScaler scaler of the model, null if the model takes the inputs as they are.
+     */
+    private static void calibrate(
+            final CompiledNetwork network,
+            final Scaler inputScaler,
+            final double[][] calibrationInputs,
+            final double[] inputScales,
+            final int[] inputZeroPoints) {
+        final int layerCount = network.getLayerCount();
+        final double[] minInputs = new double[layerCount];
+        final double[] maxInputs = new double[layerCount];
+        for (final double[] input : calibrationInputs) {
+            if (input.length != network.getInputSize()) {
+                throw new RuntimeException("Calibration input size does not match the input layer size");
+            }
+            double[] layerInput = inputScaler != null ? inputScaler.transform(input) : input;
+            for (int i = 0; i < layerCount; i++) {
+                final DenseLayer layer = network.getLayer(i);
+                for (final double value : layerInput) {
+                    minInputs[i] = Math.min(minInputs[i], value);
+                    maxInputs[i] = Math.max(maxInputs[i], value);
+                }
+                final double[] layerOutput = new double[layer.getOutputSize()];
+                for (int row = 0; row < layer.getOutputSize(); row++) {
+                    double sum = 0.;
+                    for (int column = 0; column < layer.getInputSize(); column++) {
+                        sum += layer.getWeight(row, column) * layerInput[column];
+                    }
+                    layerOutput[row] = layer.getActivationFunction(row).forward(sum + layer.getBias(row));
+                }
+                layerInput = layerOutput;
+            }
+        }
+        for (int i = 0; i < layerCount; i++) {
+            final double range = maxInputs[i] - minInputs[i];
+            // The minimum input maps to -127 and the maximum to 127, layers that only received zeros get the scale 1.
+            inputScales[i] = range > 0. ? range / (2 * QuantizedModel.MAX_QUANTIZED) : 1.;
+            inputZeroPoints[i] = (int) Math.round(-QuantizedModel.MAX_QUANTIZED - minInputs[i] / inputScales[i]);
+        }
+    }
+
+    /**
+     * A single output is a binary classification with the .5 threshold, several outputs are classified by the
+     * biggest one.
+     */
+    private static int predictedClass(final double[] values) {
+        if (values.length == 1) {
+            return values[0] >= .5 ? 1 : 0;
+        }
+        int result = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private static long parametersSize(final ModelWrapper model) {
+        final CompiledNetwork network = LayerCompiler.compile(model.getInputLayer(), model.getOutputLayer());
+        long size = 0;
+        for (int i = 0; i < network.getLayerCount(); i++) {
+            final DenseLayer layer = network.getLayer(i);
+            final int valueBytes = layer.getPrecision() == Precision.FLOAT ? Float.BYTES : Double.BYTES;
+            size += (long) (layer.getInputSize() + 1) * layer.getOutputSize() * valueBytes;
+        }
+        return size;
+    }
+}
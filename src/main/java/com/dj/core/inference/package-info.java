@@ -0,0 +1,6 @@
+/**
+ * Evaluation of trained models.
+ *
+ * @since 0.02
+ */
+package com.dj.core.inference;
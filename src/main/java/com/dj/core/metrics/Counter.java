@@ -0,0 +1,23 @@
+package com.dj.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sum of the values added to it, can be updated from several threads at once.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+        // no-op
+    }
+
+    public void add(final long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
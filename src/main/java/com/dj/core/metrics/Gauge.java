@@ -0,0 +1,21 @@
+package com.dj.core.metrics;
+
+/**
+ * The latest value set to it, NaN until it's set for the first time.
+ */
+public final class Gauge {
+
+    private volatile double value = Double.NaN;
+
+    Gauge() {
+        // no-op
+    }
+
+    public void set(final double value) {
+        this.value = value;
+    }
+
+    public double get() {
+        return value;
+    }
+}
@@ -0,0 +1,91 @@
+package com.dj.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Distribution of the recorded values: amount, sum, minimum and maximum are exact, percentiles are approximated with
+ * buckets of the powers of two, so a percentile is at most twice as big as the real one.
+ *
+ * Values up to 2^-64 and values from 2^63 share the lowest and the highest bucket.
+ */
+public final class Histogram {
+
+    private static final int MIN_EXPONENT = -64;
+
+    private static final int MAX_EXPONENT = 63;
+
+    /**
+     * buckets[i] counts the values in [2^(i + MIN_EXPONENT), 2^(i + MIN_EXPONENT + 1)).
+     */
+    private final long[] buckets = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+    private long count;
+
+    private double sum;
+
+    private double min = Double.NaN;
+
+    private double max = Double.NaN;
+
+    Histogram() {
+        // no-op
+    }
+
+    public synchronized void record(final double value) {
+        final int exponent = value > 0. ? Math.getExponent(value) : MIN_EXPONENT;
+        buckets[Math.max(MIN_EXPONENT, Math.min(MAX_EXPONENT, exponent)) - MIN_EXPONENT]++;
+        if (count == 0 || value < min) {
+            min = value;
+        }
+        if (count == 0 || value > max) {
+            max = value;
+        }
+        count++;
+        sum += value;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getMean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    public synchronized double getMin() {
+        return min;
+    }
+
+    public synchronized double getMax() {
+        return max;
+    }
+
+    /**
+     * @param quantile from 0 to 1, e.g. .99 for the 99th percentile.
+     * @return upper bound of the bucket the percentile falls into, but not more than the maximum, NaN if there are
+     * no values.
+     */
+    public synchronized double getPercentile(final double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(Math.scalb(1., i + MIN_EXPONENT + 1), max);
+            }
+        }
+        return max;
+    }
+
+    synchronized void addTo(final String name, final Map<String, Double> snapshot) {
+        snapshot.put(name + ".count", (double) count);
+        snapshot.put(name + ".mean", getMean());
+        snapshot.put(name + ".min", min);
+        snapshot.put(name + ".max", max);
+        snapshot.put(name + ".p50", getPercentile(.5));
+        snapshot.put(name + ".p99", getPercentile(.99));
+    }
+}
@@ -0,0 +1,86 @@
+package com.dj.core.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Appends a line with the {@link MetricsRegistry#snapshot()} to the file after every epoch, each line is a JSON
+ * object:
+ *
+ * {"epoch":3,"nanos":1520334,"timestamp":1536000000000,"metrics":{"training.batches":8.0,...}}
+ *
+ * Values that are not numbers (NaN and infinities) are written as null.
+ */
+public final class JsonLinesMetricsSink implements MetricsListener, AutoCloseable {
+
+    private final BufferedWriter writer;
+
+    public JsonLinesMetricsSink(final String path) {
+        try {
+            this.writer = Files.newBufferedWriter(
+                    Paths.get(path),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Metrics file can not be opened: " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void onEpoch(final int epoch, final long nanos, final MetricsRegistry registry) {
+        final StringBuilder line = new StringBuilder(256);
+        line.append("{\"epoch\":").append(epoch)
+                .append(",\"nanos\":").append(nanos)
+                .append(",\"timestamp\":").append(System.currentTimeMillis())
+                .append(",\"metrics\":{");
+        boolean first = true;
+        for (final Map.Entry<String, Double> metric : registry.snapshot().entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            appendString(line, metric.getKey());
+            line.append(':');
+            final double value = metric.getValue();
+            line.append(Double.isFinite(value) ? Double.toString(value) : "null");
+        }
+        line.append("}}");
+        try {
+            writer.write(line.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Metrics can not be written", e);
+        }
+    }
+
+    private static void appendString(final StringBuilder line, final String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < ' ') {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Metrics file can not be closed", e);
+        }
+    }
+}
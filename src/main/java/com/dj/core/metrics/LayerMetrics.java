@@ -0,0 +1,54 @@
+package com.dj.core.metrics;
+
+/**
+ * Metrics of the layers of a {@link com.dj.core.model.graph.CompiledNetwork}, see
+ * {@link com.dj.core.model.graph.CompiledNetwork#setMetrics(LayerMetrics)}. Shared by the replicas of the network,
+ * so the time of the layers is summed up over all the training threads.
+ */
+public final class LayerMetrics {
+
+    private final Counter[] forwardNanos;
+
+    private final Counter[] backwardNanos;
+
+    private final Histogram gradientNorms;
+
+    private final Histogram updateNorms;
+
+    LayerMetrics(final MetricsRegistry registry, final int layerCount) {
+        this.forwardNanos = new Counter[layerCount];
+        this.backwardNanos = new Counter[layerCount];
+        for (int i = 0; i < layerCount; i++) {
+            forwardNanos[i] = registry.counter(TrainingMetrics.layerForwardNanos(i));
+            backwardNanos[i] = registry.counter(TrainingMetrics.layerBackwardNanos(i));
+        }
+        this.gradientNorms = registry.histogram(TrainingMetrics.GRADIENT_NORM);
+        this.updateNorms = registry.histogram(TrainingMetrics.UPDATE_NORM);
+    }
+
+    public int getLayerCount() {
+        return forwardNanos.length;
+    }
+
+    public void onForward(final int layer, final long nanos) {
+        forwardNanos[layer].add(nanos);
+    }
+
+    public void onBackward(final int layer, final long nanos) {
+        backwardNanos[layer].add(nanos);
+    }
+
+    /**
+     * @param norm L2 norm of the average gradient of the batch, all the weights and biases of the network together.
+     */
+    public void onGradients(final double norm) {
+        gradientNorms.record(norm);
+    }
+
+    /**
+     * @param norm L2 norm of the change of all the weights and biases of the network.
+     */
+    public void onUpdate(final double norm) {
+        updateNorms.record(norm);
+    }
+}
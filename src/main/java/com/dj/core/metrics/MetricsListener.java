@@ -0,0 +1,27 @@
+package com.dj.core.metrics;
+
+/**
+ * Receives the progress of the training from the {@link MetricsRegistry} it's added to, see
+ * {@link MetricsRegistry#addListener(MetricsListener)}. Called on the training thread, so it should be quick.
+ */
+public interface MetricsListener {
+
+    /**
+     * Called after every epoch, when all the metrics of the epoch are recorded.
+     *
+     * @param nanos duration of the epoch.
+     */
+    void onEpoch(int epoch, long nanos, MetricsRegistry registry);
+
+    /**
+     * Called after every weight update, except in the Hogwild training.
+     *
+     * @param batch number of the update in the epoch, starting from 0.
+     * @param examples amount of examples in the batch, 1 if the Neurons are trained directly.
+     * @param nanos duration of the forward pass, the backward pass and the update.
+     * @param loss average loss of the examples of the batch.
+     */
+    default void onBatch(final int epoch, final long batch, final int examples, final long nanos, final double loss) {
+        // no-op
+    }
+}
@@ -0,0 +1,84 @@
+package com.dj.core.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Named {@link Counter}s, {@link Gauge}s and {@link Histogram}s. The training records its metrics into the registry
+ * passed to the {@link com.dj.core.optimizer.SGDOptimizer.Builder#metrics(MetricsRegistry)}, see
+ * {@link TrainingMetrics} for their names. The metrics can be read at any moment with the {@link #snapshot()}, or
+ * pushed after every epoch to the {@link MetricsListener}s, e.g. the {@link JsonLinesMetricsSink}.
+ *
+ * Without a registry nothing is measured at all, the training only checks that there is no registry.
+ */
+public final class MetricsRegistry {
+
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return the counter with the name, created on the first call.
+     */
+    public Counter counter(final String name) {
+        return metric(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * @return the gauge with the name, created on the first call.
+     */
+    public Gauge gauge(final String name) {
+        return metric(name, Gauge.class, Gauge::new);
+    }
+
+    /**
+     * @return the histogram with the name, created on the first call.
+     */
+    public Histogram histogram(final String name) {
+        return metric(name, Histogram.class, Histogram::new);
+    }
+
+    public void addListener(final MetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final MetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    List<MetricsListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * @return current values of all the metrics sorted by the name. Every histogram gives several values: name.count,
+     * name.mean, name.min, name.max, name.p50 and name.p99.
+     */
+    public Map<String, Double> snapshot() {
+        final Map<String, Double> snapshot = new TreeMap<>();
+        metrics.forEach((name, metric) -> {
+            if (metric instanceof Counter) {
+                snapshot.put(name, (double) ((Counter) metric).get());
+            } else if (metric instanceof Gauge) {
+                snapshot.put(name, ((Gauge) metric).get());
+            } else {
+                ((Histogram) metric).addTo(name, snapshot);
+            }
+        });
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private <T> T metric(final String name, final Class<T> type, final Supplier<T> factory) {
+        final Object metric = metrics.computeIfAbsent(name, key -> factory.get());
+        if (!type.isInstance(metric)) {
+            throw new RuntimeException("Metric " + name + " is not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,179 @@
+package com.dj.core.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records the metrics of the training into a {@link MetricsRegistry}. The {@link com.dj.core.optimizer.SGDOptimizer}
+ * creates one when it's built with a registry and calls it around every epoch and every batch.
+ *
+ * The metrics are:
+ * - {@value #EXAMPLES} and {@value #BATCHES}: counters of the trained examples and weight updates;
+ * - {@value #SAMPLES_PER_SECOND}, {@value #TRAINING_LOSS}: gauges of the latest epoch;
+ * - {@value #ALLOCATED_BYTES_PER_SECOND}: gauge of the bytes allocated by all the live threads during the latest
+ *   epoch per second, NaN if the JVM does not count the allocations or the runtime has no jdk.management module;
+ * - {@value #EPOCH_NANOS}, {@value #BATCH_NANOS}: histograms of the duration of the epochs and of the batches;
+ * - layer.N.forwardNanos, layer.N.backwardNanos: counters of the time spent in the layer N, only when the graph is
+ *   trained in the compiled form, see {@link LayerMetrics};
+ * - {@value #GRADIENT_NORM}, {@value #UPDATE_NORM}: histograms of the L2 norms of the gradients and of the weight
+ *   changes of every batch, also only in the compiled form.
+ *
+ * In the Hogwild training the threads update the weights on their own, there are no batches the optimizer sees, so
+ * the metrics are created without them: {@value #BATCHES} and {@value #BATCH_NANOS} stay empty, the listeners get
+ * no {@link MetricsListener#onBatch} calls and {@value #EXAMPLES} is counted once per epoch.
+ */
+public final class TrainingMetrics {
+
+    public static final String EXAMPLES = "training.examples";
+
+    public static final String BATCHES = "training.batches";
+
+    public static final String SAMPLES_PER_SECOND = "training.samplesPerSecond";
+
+    public static final String TRAINING_LOSS = "training.loss";
+
+    public static final String ALLOCATED_BYTES_PER_SECOND = "training.allocatedBytesPerSecond";
+
+    public static final String EPOCH_NANOS = "training.epochNanos";
+
+    public static final String BATCH_NANOS = "training.batchNanos";
+
+    public static final String GRADIENT_NORM = "training.gradientNorm";
+
+    public static final String UPDATE_NORM = "training.updateNorm";
+
+    /**
+     * Whether the optional jdk.management module, which counts the allocations, is in the runtime.
+     */
+    private static final boolean JDK_MANAGEMENT = ModuleLayer.boot().findModule("jdk.management").isPresent();
+
+    private final MetricsRegistry registry;
+
+    private final Counter examples;
+
+    private final Counter batches;
+
+    private final Gauge samplesPerSecond;
+
+    private final Gauge trainingLoss;
+
+    private final Gauge allocatedBytesPerSecond;
+
+    private final Histogram epochNanos;
+
+    private final Histogram batchNanos;
+
+    /**
+     * Whether {@link #onBatch} is called for every batch.
+     */
+    private final boolean batched;
+
+    private long epochStartNanos;
+
+    private long epochStartAllocatedBytes;
+
+    public TrainingMetrics(final MetricsRegistry registry) {
+        this(registry, true);
+    }
+
+    /**
+     * @param batched whether {@link #onBatch} is called for every batch, false in the Hogwild training: the examples
+     *                are counted by {@link #onEpochEnd} then.
+     */
+    public TrainingMetrics(final MetricsRegistry registry, final boolean batched) {
+        this.registry = registry;
+        this.batched = batched;
+        this.examples = registry.counter(EXAMPLES);
+        this.batches = registry.counter(BATCHES);
+        this.samplesPerSecond = registry.gauge(SAMPLES_PER_SECOND);
+        this.trainingLoss = registry.gauge(TRAINING_LOSS);
+        this.allocatedBytesPerSecond = registry.gauge(ALLOCATED_BYTES_PER_SECOND);
+        this.epochNanos = registry.histogram(EPOCH_NANOS);
+        this.batchNanos = registry.histogram(BATCH_NANOS);
+    }
+
+    public static String layerForwardNanos(final int layer) {
+        return "layer." + layer + ".forwardNanos";
+    }
+
+    public static String layerBackwardNanos(final int layer) {
+        return "layer." + layer + ".backwardNanos";
+    }
+
+    /**
+     * @return metrics for the layers of a compiled network with the given amount of layers.
+     */
+    public LayerMetrics layerMetrics(final int layerCount) {
+        return new LayerMetrics(registry, layerCount);
+    }
+
+    public void onEpochStart() {
+        epochStartAllocatedBytes = allocatedBytes();
+        epochStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} before the batch.
+     * @param lossSum sum of the losses of the examples of the batch.
+     */
+    public void onBatch(
+            final int epoch,
+            final long batch,
+            final int batchExamples,
+            final long startNanos,
+            final double lossSum) {
+        final long nanos = System.nanoTime() - startNanos;
+        examples.add(batchExamples);
+        batches.add(1);
+        batchNanos.record(nanos);
+        for (final MetricsListener listener : registry.getListeners()) {
+            listener.onBatch(epoch, batch, batchExamples, nanos, lossSum / batchExamples);
+        }
+    }
+
+    /**
+     * @param epochExamples amount of examples trained in the epoch.
+     * @param loss average loss of the training examples of the epoch.
+     */
+    public void onEpochEnd(final int epoch, final long epochExamples, final double loss) {
+        final long nanos = System.nanoTime() - epochStartNanos;
+        final long allocated = allocatedBytes();
+        if (!batched) {
+            examples.add(epochExamples);
+        }
+        epochNanos.record(nanos);
+        trainingLoss.set(loss);
+        samplesPerSecond.set(nanos > 0 ? epochExamples * 1e9 / nanos : Double.NaN);
+        allocatedBytesPerSecond.set(allocated >= 0 && epochStartAllocatedBytes >= 0 && nanos > 0
+                ? Math.max(0L, allocated - epochStartAllocatedBytes) * 1e9 / nanos
+                : Double.NaN);
+        for (final MetricsListener listener : registry.getListeners()) {
+            listener.onEpoch(epoch, nanos, registry);
+        }
+    }
+
+    /**
+     * @return bytes allocated by all the live threads so far, -1 if the JVM does not count them or the runtime has no
+     * jdk.management module. Threads that have finished are not counted, so the difference of two calls is only an
+     * estimate.
+     */
+    private static long allocatedBytes() {
+        if (!JDK_MANAGEMENT) {
+            return -1;
+        }
+        final var threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final var allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long sum = 0;
+        for (final long bytes : allocations.getThreadAllocatedBytes(allocations.getAllThreadIds())) {
+            if (bytes > 0) {
+                sum += bytes;
+            }
+        }
+        return sum;
+    }
+}
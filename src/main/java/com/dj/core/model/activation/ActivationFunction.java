@@ -8,4 +8,49 @@ public interface ActivationFunction extends Serializable {
     Double forward(final Double x);
 
     Double backward(final Double error);
+
+    /**
+     * Primitive version of the {@link #forward(Double)}. Default implementation boxes the value, built-in activation
+     * functions override it, so a forward pass through them does not allocate.
+     */
+    default double forward(final double x) {
+        return forward(Double.valueOf(x));
+    }
+
+    /**
+     * Primitive version of the {@link #backward(Double)}. Default implementation boxes the value, built-in activation
+     * functions override it, so a backward pass through them does not allocate.
+     */
+    default double backward(final double error) {
+        return backward(Double.valueOf(error));
+    }
+
+    /**
+     * Applies the activation function to the whole array: out[i] = forward(in[i]) for i in [0, len). Default
+     * implementation calls {@link #forward(double)} for every value, built-in activation functions override it with
+     * plain loops the JIT can unroll and vectorize.
+     */
+    default void forward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = forward(in[i]);
+        }
+    }
+
+    /**
+     * Calculates the derivative for the whole array: out[i] = backward(in[i]) for i in [0, len).
+     */
+    default void backward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = backward(in[i]);
+        }
+    }
+
+    /**
+     * Same as the {@link #backward(double[], double[], int)}, but the result of the forward pass for the same
+     * inputs is known: forwardOut[i] = forward(in[i]). Functions whose derivative is expressed through their own
+     * value (like sigmoid and tanh) use it instead of calculating the function again.
+     */
+    default void backward(final double[] in, final double[] forwardOut, final double[] out, final int len) {
+        backward(in, out, len);
+    }
 }
@@ -3,12 +3,58 @@ package com.dj.core.model.activation;
 public class HyperbolicTangent implements ActivationFunction {
     @Override
     public Double forward(final Double x) {
-        return Math.sinh(x) / Math.cosh(x);
+        return forward(x.doubleValue());
     }
 
     @Override
     public Double backward(final Double error) {
-        final double tanhError = error;
+        return backward(error.doubleValue());
+    }
+
+    @Override
+    public double forward(final double x) {
+        return Math.tanh(x);
+    }
+
+    /**
+     * tanh'(x) = 1 - tanh(x)^2, where x is the same input the {@link #forward(double)} received.
+     */
+    @Override
+    public double backward(final double error) {
+        final double tanhError = Math.tanh(error);
         return 1. - tanhError * tanhError;
     }
+
+    @Override
+    public void forward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = Math.tanh(in[i]);
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            final double y = Math.tanh(in[i]);
+            out[i] = 1. - y * y;
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] forwardOut, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            final double y = forwardOut[i];
+            out[i] = 1. - y * y;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof HyperbolicTangent;
+    }
+
+    @Override
+    public int hashCode() {
+        return HyperbolicTangent.class.hashCode();
+    }
 }
@@ -0,0 +1,51 @@
+package com.dj.core.model.activation;
+
+
+/**
+ * f(x) = x. Used by the output layers whose outputs are turned into the result by the loss, for example the logits
+ * of the {@link com.dj.core.model.loss.SoftmaxCrossEntropy}.
+ */
+public class Identity implements ActivationFunction {
+
+    @Override
+    public Double forward(final Double x) {
+        return x;
+    }
+
+    @Override
+    public Double backward(final Double error) {
+        return 1.;
+    }
+
+    @Override
+    public double forward(final double x) {
+        return x;
+    }
+
+    @Override
+    public double backward(final double error) {
+        return 1.;
+    }
+
+    @Override
+    public void forward(final double[] in, final double[] out, final int len) {
+        System.arraycopy(in, 0, out, 0, len);
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = 1.;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof Identity;
+    }
+
+    @Override
+    public int hashCode() {
+        return Identity.class.hashCode();
+    }
+}
@@ -13,13 +13,51 @@ public class LeakyRelu implements ActivationFunction {
         this(0.0001);
     }
 
+    public double getM() {
+        return m;
+    }
+
     @Override
     public Double forward(final Double x) {
-        return x > 0 ? x : m * x;
+        return forward(x.doubleValue());
     }
 
     @Override
     public Double backward(final Double error) {
+        return backward(error.doubleValue());
+    }
+
+    @Override
+    public double forward(final double x) {
+        return x > 0 ? x : m * x;
+    }
+
+    @Override
+    public double backward(final double error) {
         return error > 0. ? 1. : m;
     }
+
+    @Override
+    public void forward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = in[i] > 0 ? in[i] : m * in[i];
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = in[i] > 0. ? 1. : m;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof LeakyRelu && Double.compare(((LeakyRelu) o).m, m) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(m);
+    }
 }
@@ -5,11 +5,45 @@ public class Relu implements ActivationFunction {
 
     @Override
     public Double forward(final Double x) {
-        return x > 0 ? x : 0;
+        return forward(x.doubleValue());
     }
 
     @Override
     public Double backward(final Double error) {
+        return backward(error.doubleValue());
+    }
+
+    @Override
+    public double forward(final double x) {
+        return x > 0 ? x : 0;
+    }
+
+    @Override
+    public double backward(final double error) {
         return error > 0. ? 1. : 0.;
     }
+
+    @Override
+    public void forward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = in[i] > 0 ? in[i] : 0;
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = in[i] > 0. ? 1. : 0.;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof Relu;
+    }
+
+    @Override
+    public int hashCode() {
+        return Relu.class.hashCode();
+    }
 }
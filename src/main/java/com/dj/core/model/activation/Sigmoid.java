@@ -13,17 +13,83 @@ public class Sigmoid implements ActivationFunction {
         this(false);
     }
 
-    public Double forward(Double x) {
-        return 1. / (1. + Math.exp(- x));
+    public boolean isEnforceLimit() {
+        return enforceLimit;
+    }
+
+    @Override
+    public Double forward(final Double x) {
+        return forward(x.doubleValue());
     }
 
     @Override
     public Double backward(final Double error) {
+        return backward(error.doubleValue());
+    }
+
+    @Override
+    public double forward(final double x) {
+        return 1. / (1. + Math.exp(- x));
+    }
+
+    @Override
+    public double backward(final double error) {
         if (enforceLimit && error > 1.) {
-            return forward(1.) * (1 - forward(1.));
+            return derivative(forward(1.));
         } else if (enforceLimit && error < -1.) {
-            return forward(-1.) * (1 - forward(-1.));
+            return derivative(forward(-1.));
+        }
+        return derivative(forward(error));
+    }
+
+    @Override
+    public void forward(final double[] in, final double[] out, final int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = 1. / (1. + Math.exp(- in[i]));
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] out, final int len) {
+        if (enforceLimit) {
+            ActivationFunction.super.backward(in, out, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            final double y = 1. / (1. + Math.exp(- in[i]));
+            out[i] = y * (1 - y);
+        }
+    }
+
+    @Override
+    public void backward(final double[] in, final double[] forwardOut, final double[] out, final int len) {
+        if (enforceLimit) {
+            final double upperLimit = derivative(forward(1.));
+            final double lowerLimit = derivative(forward(-1.));
+            for (int i = 0; i < len; i++) {
+                final double x = in[i];
+                out[i] = x > 1. ? upperLimit : x < -1. ? lowerLimit : derivative(forwardOut[i]);
+            }
+        } else {
+            // sigmoid'(x) = sigmoid(x) * (1 - sigmoid(x)), so the derivative does not need the exponent.
+            for (int i = 0; i < len; i++) {
+                final double y = forwardOut[i];
+                out[i] = y * (1 - y);
+            }
         }
-        return forward(error) * (1 - forward(error));
+    }
+
+    private static double derivative(final double y) {
+        return y * (1 - y);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof Sigmoid && ((Sigmoid) o).enforceLimit == enforceLimit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(enforceLimit);
     }
 }
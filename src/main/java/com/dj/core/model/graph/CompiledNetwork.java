@@ -0,0 +1,431 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.metrics.LayerMetrics;
+import com.dj.core.model.update.GradientDescent;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.model.update.UpdateState;
+
+import java.util.Arrays;
+
+/**
+ * Dense version of a graph of {@link ConnectedNeuron}s produced by the {@link LayerCompiler}. Instead of sending
+ * signals from one Neuron to another, every layer is calculated at once as a matrix-vector multiplication.
+ *
+ * The shape of the network (amount of layers and their sizes) never changes, only weights and biases are updated
+ * during the training. Trained weights are not visible to the original Neurons until {@link #writeBack()} is called.
+ *
+ * Same as Neurons the CompiledNetwork keeps the state of the latest forward pass, so it should not be used from
+ * several threads at once.
+ */
+public final class CompiledNetwork {
+
+    private final Context context;
+
+    private final DenseLayer[] layers;
+
+    /**
+     * Neurons the layers were compiled from, neurons[layer][row] corresponds to the row of the layer's weights.
+     */
+    private final ConnectedNeuron[][] neurons;
+
+    /**
+     * columns[layer][row][index] is the column of the layer's weights that stores the weight the neuron
+     * neurons[layer][row] keeps at the index.
+     */
+    private final int[][][] columns;
+
+    /**
+     * activations[0] is the input of the network, activations[i + 1] is the output of the layer i.
+     */
+    private final double[][] activations;
+
+    /**
+     * preActivations[i] is W * X + b of the layer i calculated during the latest forward pass.
+     */
+    private final double[][] preActivations;
+
+    /**
+     * errors[i] is the error of the layer i neurons calculated during the latest backward pass.
+     */
+    private final double[][] errors;
+
+    /**
+     * derivatives[i] is f'(z) of the layer i neurons calculated during the latest backward pass.
+     */
+    private final double[][] derivatives;
+
+    /**
+     * Same as {@link #activations}, {@link #preActivations}, {@link #errors} and {@link #derivatives} but for the
+     * whole batch, one example after another. Allocated on the first batch call and grown when a bigger batch is
+     * received.
+     */
+    private double[][] batchActivations;
+
+    private double[][] batchPreActivations;
+
+    private double[][] batchErrors;
+
+    private double[][] batchDerivatives;
+
+    private int batchCapacity;
+
+    /**
+     * Gradients accumulated during the latest {@link #backwardBatch(double[], int)}, same layout as the layer's
+     * weights and biases.
+     */
+    private final double[][] weightGradients;
+
+    private final double[][] biasGradients;
+
+    /**
+     * Null unless the training is measured, see {@link #setMetrics(LayerMetrics)}.
+     */
+    private LayerMetrics metrics;
+
+    CompiledNetwork(
+            final Context context,
+            final DenseLayer[] layers,
+            final ConnectedNeuron[][] neurons,
+            final int[][][] columns) {
+        this.context = context;
+        this.layers = layers;
+        this.neurons = neurons;
+        this.columns = columns;
+        this.activations = new double[layers.length + 1][];
+        this.preActivations = new double[layers.length][];
+        this.errors = new double[layers.length][];
+        this.derivatives = new double[layers.length][];
+        this.weightGradients = new double[layers.length][];
+        this.biasGradients = new double[layers.length][];
+        activations[0] = new double[layers[0].getInputSize()];
+        for (int i = 0; i < layers.length; i++) {
+            activations[i + 1] = new double[layers[i].getOutputSize()];
+            preActivations[i] = new double[layers[i].getOutputSize()];
+            errors[i] = new double[layers[i].getOutputSize()];
+            derivatives[i] = new double[layers[i].getOutputSize()];
+            weightGradients[i] = new double[layers[i].getInputSize() * layers[i].getOutputSize()];
+            biasGradients[i] = new double[layers[i].getOutputSize()];
+        }
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    public DenseLayer getLayer(final int index) {
+        return layers[index];
+    }
+
+    public int getInputSize() {
+        return layers[0].getInputSize();
+    }
+
+    /**
+     * Starts measuring the time of every layer of the batch passes and the norms of the gradients and of the
+     * updates. Replicas created after the call share the metrics, copies do not. Null stops measuring.
+     */
+    public void setMetrics(final LayerMetrics metrics) {
+        if (metrics != null && metrics.getLayerCount() != layers.length) {
+            throw new RuntimeException("Layer metrics do not match the amount of layers");
+        }
+        this.metrics = metrics;
+    }
+
+    public int getOutputSize() {
+        return layers[layers.length - 1].getOutputSize();
+    }
+
+    /**
+     * Sends the input signal through all the layers.
+     *
+     * @param input values for the input neurons in the order of the input layer the network was compiled with.
+     * @return output of the network in the order of the output layer the network was compiled with. The returned
+     * array is reused by the next call of the method.
+     */
+    public double[] forward(final double[] input) {
+        if (input.length != getInputSize()) {
+            throw new RuntimeException("Input size does not match the input layer size");
+        }
+        System.arraycopy(input, 0, activations[0], 0, input.length);
+        for (int i = 0; i < layers.length; i++) {
+            layers[i].forward(activations[i], preActivations[i], activations[i + 1]);
+        }
+        return activations[layers.length];
+    }
+
+    /**
+     * Sends the error back through all the layers and updates weights and biases. Should be called after the
+     * {@link #forward(double[])}, error is the same value the output Neuron would receive in the
+     * {@link Neuron#backwardSignalReceived(double)}.
+     *
+     * Unlike the Neurons graph, where a Neuron connected to several Neurons receives and processes a separate
+     * backward signal from each of them, here the errors from all the next layer neurons are summed up and processed
+     * once.
+     */
+    public void backward(final double[] error) {
+        if (error.length != getOutputSize()) {
+            throw new RuntimeException("Error size does not match the output layer size");
+        }
+        System.arraycopy(error, 0, errors[layers.length - 1], 0, error.length);
+        if (!(context.getUpdateRule() instanceof GradientDescent)) {
+            // Other rules need all the gradients at once: the example is processed as a batch of one, single example
+            // buffers have the same layout as the batch ones.
+            for (int i = layers.length - 1; i >= 0; i--) {
+                Arrays.fill(weightGradients[i], 0.);
+                Arrays.fill(biasGradients[i], 0.);
+                layers[i].backwardBatch(
+                        activations[i],
+                        preActivations[i],
+                        activations[i + 1],
+                        errors[i],
+                        derivatives[i],
+                        i == 0 ? null : errors[i - 1],
+                        weightGradients[i],
+                        biasGradients[i],
+                        1);
+            }
+            applyGradients(1);
+            return;
+        }
+        final double learningRate = context.getLearningRate();
+        for (int i = layers.length - 1; i >= 0; i--) {
+            layers[i].backward(
+                    activations[i],
+                    preActivations[i],
+                    activations[i + 1],
+                    errors[i],
+                    derivatives[i],
+                    i == 0 ? null : errors[i - 1],
+                    learningRate);
+        }
+    }
+
+    /**
+     * Sends a batch of examples through all the layers at once.
+     *
+     * @param inputs examples, the batch is inputs[from] ... inputs[from + batchSize - 1].
+     * @return outputs of the network for every example of the batch, one after another: the output #i of the example
+     * #j is stored at the position j * {@link #getOutputSize()} + i. The returned array is reused by the next call
+     * of the method.
+     */
+    public double[] forwardBatch(final double[][] inputs, final int from, final int batchSize) {
+        ensureBatchCapacity(batchSize);
+        final int inputSize = getInputSize();
+        for (int example = 0; example < batchSize; example++) {
+            if (inputs[from + example].length != inputSize) {
+                throw new RuntimeException("Input size does not match the input layer size");
+            }
+            System.arraycopy(inputs[from + example], 0, batchActivations[0], example * inputSize, inputSize);
+        }
+        for (int i = 0; i < layers.length; i++) {
+            final long start = metrics != null ? System.nanoTime() : 0L;
+            layers[i].forwardBatch(
+                    batchActivations[i],
+                    batchPreActivations[i],
+                    batchActivations[i + 1],
+                    batchSize);
+            if (metrics != null) {
+                metrics.onForward(i, System.nanoTime() - start);
+            }
+        }
+        return batchActivations[layers.length];
+    }
+
+    /**
+     * Sends the errors of the batch back through all the layers, sums up the gradients of all the examples and
+     * updates weights and biases once, using the average gradient. Should be called after the
+     * {@link #forwardBatch(double[][], int, int)}.
+     *
+     * @param errors errors of the output neurons for every example, same layout as the
+     *               {@link #forwardBatch(double[][], int, int)} result.
+     */
+    public void backwardBatch(final double[] errors, final int batchSize) {
+        computeGradients(errors, batchSize);
+        applyGradients(batchSize);
+    }
+
+    /**
+     * Same as the {@link #backwardBatch(double[], int)}, but only calculates the sum of the gradients of the batch,
+     * weights and biases are not changed.
+     */
+    public void computeGradients(final double[] errors, final int batchSize) {
+        if (batchSize > batchCapacity || errors.length < batchSize * getOutputSize()) {
+            throw new RuntimeException("Errors do not match the latest forward batch");
+        }
+        System.arraycopy(errors, 0, batchErrors[layers.length - 1], 0, batchSize * getOutputSize());
+        for (int i = layers.length - 1; i >= 0; i--) {
+            final long start = metrics != null ? System.nanoTime() : 0L;
+            Arrays.fill(weightGradients[i], 0.);
+            Arrays.fill(biasGradients[i], 0.);
+            layers[i].backwardBatch(
+                    batchActivations[i],
+                    batchPreActivations[i],
+                    batchActivations[i + 1],
+                    batchErrors[i],
+                    batchDerivatives[i],
+                    i == 0 ? null : batchErrors[i - 1],
+                    weightGradients[i],
+                    biasGradients[i],
+                    batchSize);
+            if (metrics != null) {
+                metrics.onBackward(i, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Adds the gradients calculated by the other network (usually a {@link #replica()}) to the gradients of this
+     * one.
+     */
+    public void addGradients(final CompiledNetwork other) {
+        for (int i = 0; i < layers.length; i++) {
+            final double[] weightGradient = weightGradients[i];
+            final double[] otherWeightGradient = other.weightGradients[i];
+            for (int j = 0; j < weightGradient.length; j++) {
+                weightGradient[j] += otherWeightGradient[j];
+            }
+            final double[] biasGradient = biasGradients[i];
+            final double[] otherBiasGradient = other.biasGradients[i];
+            for (int j = 0; j < biasGradient.length; j++) {
+                biasGradient[j] += otherBiasGradient[j];
+            }
+        }
+    }
+
+    /**
+     * Updates weights and biases with the average of the latest calculated gradients, using the learning rate and
+     * the {@link com.dj.core.model.update.UpdateRule} of the Context.
+     *
+     * @param batchSize amount of examples the gradients were summed up for.
+     */
+    public void applyGradients(final int batchSize) {
+        final double learningRate = context.getLearningRate();
+        final UpdateRule updateRule = context.getUpdateRule();
+        final double gradientNorm = metrics != null ? Math.sqrt(gradientsSquaredNorm()) / batchSize : 0.;
+        for (int i = 0; i < layers.length; i++) {
+            layers[i].applyGradients(weightGradients[i], biasGradients[i], batchSize, learningRate, updateRule);
+        }
+        if (metrics != null) {
+            metrics.onGradients(gradientNorm);
+            // The rules other than the gradient descent leave the changes in place of the gradients.
+            metrics.onUpdate(updateRule instanceof GradientDescent
+                    ? learningRate * gradientNorm
+                    : Math.sqrt(gradientsSquaredNorm()));
+        }
+    }
+
+    /**
+     * Allocates the moments of the {@link com.dj.core.model.update.UpdateRule} of the Context for every layer that
+     * does not have them yet. Otherwise they are allocated by the first update, which is racy when several replicas
+     * update the weights at once.
+     */
+    public void ensureUpdateStates() {
+        final UpdateRule updateRule = context.getUpdateRule();
+        if (updateRule instanceof GradientDescent) {
+            return;
+        }
+        for (final DenseLayer layer : layers) {
+            layer.ensureUpdateStates(updateRule);
+        }
+    }
+
+    private double gradientsSquaredNorm() {
+        double sum = 0.;
+        for (int i = 0; i < layers.length; i++) {
+            for (final double gradient : weightGradients[i]) {
+                sum += gradient * gradient;
+            }
+            for (final double gradient : biasGradients[i]) {
+                sum += gradient * gradient;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Creates an independent copy of the network: it has its own weights and biases, so training one of them does
+     * not affect the other. {@link #writeBack()} of the copy still writes to the Neurons the network was compiled
+     * from.
+     */
+    public CompiledNetwork copy() {
+        final DenseLayer[] copiedLayers = new DenseLayer[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            copiedLayers[i] = layers[i].copy();
+        }
+        return new CompiledNetwork(context, copiedLayers, neurons, columns);
+    }
+
+    /**
+     * Creates a network that shares weights and biases with this one, but has its own buffers for the forward and
+     * backward passes and for the gradients. Each thread can do forward passes and calculate gradients with its own
+     * replica while no one updates the weights. Writing the weights from several replicas at once is racy.
+     */
+    public CompiledNetwork replica() {
+        final CompiledNetwork replica = new CompiledNetwork(context, layers, neurons, columns);
+        replica.metrics = metrics;
+        return replica;
+    }
+
+    private void ensureBatchCapacity(final int batchSize) {
+        if (batchSize <= batchCapacity) {
+            return;
+        }
+        batchActivations = new double[layers.length + 1][];
+        batchPreActivations = new double[layers.length][];
+        batchErrors = new double[layers.length][];
+        batchDerivatives = new double[layers.length][];
+        batchActivations[0] = new double[batchSize * getInputSize()];
+        for (int i = 0; i < layers.length; i++) {
+            final int size = batchSize * layers[i].getOutputSize();
+            batchActivations[i + 1] = new double[size];
+            batchPreActivations[i] = new double[size];
+            batchErrors[i] = new double[size];
+            batchDerivatives[i] = new double[size];
+        }
+        batchCapacity = batchSize;
+    }
+
+    /**
+     * Copies weights, biases and their moments back to the Neurons the network was compiled from.
+     */
+    public void writeBack() {
+        for (int i = 0; i < layers.length; i++) {
+            final DenseLayer layer = layers[i];
+            for (int row = 0; row < neurons[i].length; row++) {
+                final ConnectedNeuron neuron = neurons[i][row];
+                final int[] neuronColumns = columns[i][row];
+                neuron.setBias(layer.getBias(row));
+                for (int index = 0; index < neuronColumns.length; index++) {
+                    neuron.setWeight(index, layer.getWeight(row, neuronColumns[index]));
+                }
+                if (layer.getWeightState() != null) {
+                    neuron.setUpdateState(neuronState(layer, row, neuronColumns));
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the moments of the neuron #row of the layer in the {@link ConnectedNeuron} order: the bias first,
+     * then the weights in the order of the slots.
+     */
+    private static UpdateState neuronState(final DenseLayer layer, final int row, final int[] neuronColumns) {
+        final UpdateState weightState = layer.getWeightState();
+        final UpdateState biasState = layer.getBiasState();
+        final UpdateState state = new UpdateState(weightState.getMomentCount(), neuronColumns.length + 1);
+        state.setStep(weightState.getStep());
+        for (int moment = 0; moment < state.getMomentCount(); moment++) {
+            final double[] values = state.getMoment(moment);
+            final double[] weightMoments = weightState.getMoment(moment);
+            values[0] = biasState.getMoment(moment)[row];
+            for (int index = 0; index < neuronColumns.length; index++) {
+                values[index + 1] = weightMoments[row * layer.getInputSize() + neuronColumns[index]];
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,81 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+
+/**
+ * Implementation of the math the layers and the Neurons are calculated with: dot products, vector updates,
+ * matrix-vector and matrix-matrix multiplications and the activation functions applied to whole arrays.
+ *
+ * {@link ScalarBackend} is the reference implementation that works everywhere. Other implementations (for example
+ * the SIMD one from the dj-vector module) are found with the {@link java.util.ServiceLoader}, the backend that is
+ * used is chosen once at startup by the {@link ComputeBackends#get()}. All the implementations should produce the
+ * same results as the {@link ScalarBackend} up to the rounding errors of the different order of the operations.
+ *
+ * Matrices are stored row-major, same as the weights of the {@link DenseLayer}.
+ *
+ * Operations on float arrays are used by the models with the {@link Precision#FLOAT} parameters: floats are read
+ * and written, but the calculations are done in doubles.
+ */
+public interface ComputeBackend {
+
+    /**
+     * Name the backend can be selected by, see {@link ComputeBackends#BACKEND_PROPERTY}.
+     */
+    String getName();
+
+    /**
+     * @return sum of x[xOffset + i] * y[yOffset + i] for i in [0, length).
+     */
+    double dot(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * y[yOffset + i] += alpha * x[xOffset + i] for i in [0, length).
+     */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * y = A * x + b: y[row] = dot(A[row], x) + bias[row], where A is a rows x columns matrix.
+     */
+    void gemv(double[] matrix, int rows, int columns, double[] x, double[] bias, double[] y);
+
+    /**
+     * Same as the {@link #gemv(double[], int, int, double[], double[], double[])} for count vectors stored one after
+     * another: y[example * rows + row] = dot(A[row], x[example * columns ...]) + bias[row].
+     */
+    void gemm(double[] matrix, int rows, int columns, double[] x, int count, double[] bias, double[] y);
+
+    /**
+     * Same as {@link ActivationFunction#forward(double[], double[], int)}.
+     */
+    void forward(ActivationFunction activationFunction, double[] in, double[] out, int len);
+
+    /**
+     * Same as {@link ActivationFunction#backward(double[], double[], double[], int)}.
+     */
+    void backward(ActivationFunction activationFunction, double[] in, double[] forwardOut, double[] out, int len);
+
+    /**
+     * Same as the {@link #dot(double[], int, double[], int, int)} for float x, the sum is accumulated in a double.
+     */
+    double dot(float[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * y[yOffset + i] = (float) (y[yOffset + i] + alpha * x[xOffset + i]) for i in [0, length).
+     */
+    void axpy(double alpha, double[] x, int xOffset, float[] y, int yOffset, int length);
+
+    /**
+     * Same as the {@link #axpy(double, double[], int, double[], int, int)} for float x.
+     */
+    void axpy(double alpha, float[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * Same as the {@link #gemv(double[], int, int, double[], double[], double[])} for a float matrix and bias.
+     */
+    void gemv(float[] matrix, int rows, int columns, double[] x, float[] bias, double[] y);
+
+    /**
+     * Same as the {@link #gemm(double[], int, int, double[], int, double[], double[])} for a float matrix and bias.
+     */
+    void gemm(float[] matrix, int rows, int columns, double[] x, int count, float[] bias, double[] y);
+}
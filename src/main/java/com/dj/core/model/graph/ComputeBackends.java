@@ -0,0 +1,73 @@
+package com.dj.core.model.graph;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Chooses the {@link ComputeBackend} once, when it's requested for the first time.
+ *
+ * Backends are looked up with the {@link ServiceLoader}, the first one that can be loaded is used, the
+ * {@link ScalarBackend} is used when there are no other backends or none of them can be loaded (for example the
+ * vector backend needs the jdk.incubator.vector module, which is only there when the JVM is started with
+ * --add-modules jdk.incubator.vector). The choice can be overridden with the {@value #BACKEND_PROPERTY} system
+ * property, e.g. -Ddj.compute.backend=scalar.
+ */
+public final class ComputeBackends {
+
+    public static final String BACKEND_PROPERTY = "dj.compute.backend";
+
+    private static final ComputeBackend SCALAR = new ScalarBackend();
+
+    private ComputeBackends() { } // no-op
+
+    /**
+     * @return the backend chosen for this JVM.
+     */
+    public static ComputeBackend get() {
+        return Holder.BACKEND;
+    }
+
+    /**
+     * @return the reference backend.
+     */
+    public static ComputeBackend scalar() {
+        return SCALAR;
+    }
+
+    static ComputeBackend choose(final String requestedName) {
+        if (ScalarBackend.NAME.equals(requestedName)) {
+            return SCALAR;
+        }
+        final Iterator<ComputeBackend> backends = ServiceLoader.load(ComputeBackend.class).iterator();
+        while (hasNext(backends)) {
+            final ComputeBackend backend;
+            try {
+                backend = backends.next();
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // The backend is there but can not run on this JVM, try the next one.
+                continue;
+            }
+            if (requestedName == null || requestedName.equals(backend.getName())) {
+                return backend;
+            }
+        }
+        if (requestedName != null) {
+            throw new RuntimeException("Compute backend " + requestedName + " is not available");
+        }
+        return SCALAR;
+    }
+
+    private static boolean hasNext(final Iterator<ComputeBackend> backends) {
+        try {
+            return backends.hasNext();
+        } catch (ServiceConfigurationError e) {
+            return false;
+        }
+    }
+
+    private static class Holder {
+
+        private static final ComputeBackend BACKEND = choose(System.getProperty(BACKEND_PROPERTY));
+    }
+}
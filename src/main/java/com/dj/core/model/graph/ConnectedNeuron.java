@@ -1,27 +1,28 @@
 package com.dj.core.model.graph;
 
 import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.update.GradientDescent;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.model.update.UpdateState;
 import com.google.common.util.concurrent.AtomicDouble;
-import org.apache.commons.math3.linear.*;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class ConnectedNeuron implements Neuron {
 
-    private final static int VECTOR_ROWS_COUNT = 1;
-
-    private final static int VECTOR_ROW_INDEX = 0;
+    private static final ComputeBackend BACKEND = ComputeBackends.get();
 
     private final Context context;
 
     private final ActivationFunction activationFunction;
 
     /**
-     * Represents a relation between a neuron and a neuron index (it's position). It's necessary to store pairs
-     * (Neuron, Index) to have a relation between neurons and their weights (in the {@link #backwardConnections}) and
-     * their input signals (in the {@link #inputSignals}).
+     * Represents a relation between a neuron and a neuron index (it's slot). The neuron that sends signals through
+     * the slot i is stored at the position i. It's necessary to have a relation between neurons and their weights
+     * (in the {@link #backwardConnections}) and their input signals (in the {@link #inputSignals}).
      */
-    private final Map<Neuron, Integer> neuronIndexes = new HashMap<>();
+    private Neuron[] backwardNeurons = new Neuron[0];
 
     /**
      * Represents the connections (their weights) from the neuron to the neurons that it receives signals from.
@@ -36,24 +37,33 @@ public class ConnectedNeuron implements Neuron {
      *            /  weight3 = 0.8
      * NeuronC ---
      *
-     * backwardConnections tensor will looks like this: [ -0.1, 0.1, 0.8 ]
+     * backwardConnections array will looks like this: [ -0.1, 0.1, 0.8 ]
+     *
+     * Null when the weights are stored as floats, see {@link #floatBackwardConnections}.
+     */
+    private double[] backwardConnections;
+
+    /**
+     * Same as the {@link #backwardConnections}, used instead of it when the {@link Context} has the
+     * {@link Precision#FLOAT} precision.
      */
-    private RealMatrix backwardConnections = new Array2DRowRealMatrix();
+    private float[] floatBackwardConnections;
 
     /**
-     * Represents set of the Neurons to which current neuron sends signals to. There is no need in weights here.
+     * Represents the Neurons to which current neuron sends signals to, together with the slots the Neurons have
+     * assigned to the connections. There is no need in weights here.
      */
-    private final Set<Neuron> forwardConnections = new HashSet<>();
+    private final ForwardConnections forwardConnections = new ForwardConnections();
 
     private final String name;
 
     /**
      * inputSignals is used to store the signals from other Neurons. Values in this tensor should be stored according to
-     * {@link #neuronIndexes}. If the neuron NeuronX was added to the {@link #neuronIndexes} with the index 0, the
-     * {@link #inputSignals} will store the NeuronX's input signal at the position (rowIndex, 0).
+     * {@link #backwardNeurons}. If the neuron NeuronX was added to the {@link #backwardNeurons} with the slot 0, the
+     * {@link #inputSignals} will store the NeuronX's input signal at the position 0.
      * As soon as all the signals received Neuron can start processing them.
      */
-    private RealMatrix inputSignals = new Array2DRowRealMatrix();
+    private double[] inputSignals = new double[0];
 
     private final AtomicDouble bias;
 
@@ -76,6 +86,18 @@ public class ConnectedNeuron implements Neuron {
 
     private volatile double forwardInputToActivationFunction;
 
+    /**
+     * Moments of the {@link UpdateRule} of the Context: the bias first, then the weights in the order of the slots.
+     * Null until the Neuron is trained with a rule that has moments.
+     */
+    private UpdateState updateState;
+
+    /**
+     * Gradients of the bias and the weights, in the same order as the {@link #updateState}, turned into their
+     * changes by the {@link UpdateRule}.
+     */
+    private transient double[] changes;
+
     private ConnectedNeuron(
             final ActivationFunction activationFunction,
             final String name,
@@ -84,7 +106,13 @@ public class ConnectedNeuron implements Neuron {
         this.activationFunction = activationFunction;
         this.context = context;
         this.name = name;
-        this.bias = new AtomicDouble(bias);
+        if (context.getPrecision() == Precision.FLOAT) {
+            this.floatBackwardConnections = new float[0];
+            this.bias = new AtomicDouble((float) bias);
+        } else {
+            this.backwardConnections = new double[0];
+            this.bias = new AtomicDouble(bias);
+        }
     }
 
     @Override
@@ -93,13 +121,18 @@ public class ConnectedNeuron implements Neuron {
     }
 
     @Override
-    public void forwardSignalReceived(final Neuron from, final Double value) {
+    public void forwardSignalReceived(final Neuron from, final double value) {
+        forwardSignalReceived(slotOf(from), value);
+    }
+
+    @Override
+    public void forwardSignalReceived(final int slot, final double value) {
         signalReceived++;
-        inputSignals.setEntry(VECTOR_ROW_INDEX, neuronIndex(from), value);
+        inputSignals[slot] = value;
         inputSignalsSum += value;
         // The following if is the check weather current signal was the last remaining signal to receive. And if so and
         // all incoming signals have been received the Neuron can start processing them and issue new signal himself.
-        if (backwardConnections.getColumnDimension() == signalReceived) {
+        if (backwardNeurons.length == signalReceived) {
             // 4 steps need to happen when Neuron processes the input signals:
             // 1. Calculate input = W * X + b
             // 2. Calculate output = f(input), where f is activation function
@@ -108,9 +141,12 @@ public class ConnectedNeuron implements Neuron {
 
             // Step #1
             // Calculating W * X + b - sum of all input signals, each signal multiplied on the corresponding weight.
-            // Bias is added at the end.
-            forwardInputToActivationFunction
-                    = backwardConnections.multiply(inputSignals.transpose()).getEntry(0, 0) + bias.get();
+            // Bias is added at the end. The sum is calculated in place, so no temporary tensors are allocated for
+            // every received signal.
+            final double weightedSum = floatBackwardConnections != null
+                    ? BACKEND.dot(floatBackwardConnections, 0, inputSignals, 0, backwardNeurons.length)
+                    : BACKEND.dot(backwardConnections, 0, inputSignals, 0, backwardNeurons.length);
+            forwardInputToActivationFunction = weightedSum + bias.get();
 
             if (context.isDebugMode()) {
                 if (brokenValue(forwardInputToActivationFunction)) {
@@ -125,14 +161,7 @@ public class ConnectedNeuron implements Neuron {
             forwardResult = signalToSend;
 
             // Step #3 Since signal is calculated now we can send it to other neurons.
-            forwardConnections
-                    .stream()
-                    .forEach(connection ->
-                            connection
-                                    .forwardSignalReceived(
-                                            ConnectedNeuron.this,
-                                            signalToSend)
-                    );
+            forwardConnections.send(signalToSend);
 
             // Step #4
             inputSignalsAverage
@@ -143,7 +172,7 @@ public class ConnectedNeuron implements Neuron {
     }
 
     @Override
-    public void backwardSignalReceived(final Double error) {
+    public void backwardSignalReceived(final double error) {
         if (!forwardCalculated()) {
             throw new RuntimeException("Forward calculation is not yet completed");
         }
@@ -168,38 +197,105 @@ public class ConnectedNeuron implements Neuron {
             return;
         }
 
-        final var dzLearningRate = dz * context.getLearningRate();
-        backwardConnections = backwardConnections.add(inputSignals.scalarMultiply(dzLearningRate));
-
-        bias.addAndGet(inputSignalsAverage * dz * context.getLearningRate());
-        neuronIndexes
-                .entrySet()
-                .stream()
-                .forEach(neuronIndex ->
-                        neuronIndex.getKey().backwardSignalReceived(
-                                backwardConnections
-                                        .getEntry(VECTOR_ROW_INDEX, neuronIndex.getValue()) * dz));
+        final UpdateRule updateRule = context.getUpdateRule();
+        if (!(updateRule instanceof GradientDescent)) {
+            update(updateRule, dz);
+        } else if (floatBackwardConnections != null) {
+            final var dzLearningRate = dz * context.getLearningRate();
+            BACKEND.axpy(dzLearningRate, inputSignals, 0, floatBackwardConnections, 0, backwardNeurons.length);
+            bias.set((float) (bias.get() + inputSignalsAverage * dz * context.getLearningRate()));
+        } else {
+            final var dzLearningRate = dz * context.getLearningRate();
+            BACKEND.axpy(dzLearningRate, inputSignals, 0, backwardConnections, 0, backwardNeurons.length);
+            bias.addAndGet(inputSignalsAverage * dz * context.getLearningRate());
+        }
+        for (int slot = 0; slot < backwardNeurons.length; slot++) {
+            backwardNeurons[slot].backwardSignalReceived(getWeight(slot) * dz);
+        }
+    }
+
+    /**
+     * Updates the weights and the bias with the rule, the gradients are calculated the same way as for the plain
+     * gradient descent.
+     */
+    private void update(final UpdateRule updateRule, final double dz) {
+        final int size = backwardNeurons.length;
+        if (changes == null || changes.length != size + 1) {
+            changes = new double[size + 1];
+        }
+        if (updateState == null || !updateState.fits(updateRule, size + 1)) {
+            updateState = new UpdateState(updateRule.getMomentCount(), size + 1);
+        }
+        changes[0] = inputSignalsAverage * dz;
+        for (int slot = 0; slot < size; slot++) {
+            changes[slot + 1] = inputSignals[slot] * dz;
+        }
+        updateRule.computeChanges(changes, size + 1, context.getLearningRate(), updateState);
+        if (floatBackwardConnections != null) {
+            BACKEND.axpy(1., changes, 1, floatBackwardConnections, 0, size);
+            bias.set((float) (bias.get() + changes[0]));
+        } else {
+            BACKEND.axpy(1., changes, 1, backwardConnections, 0, size);
+            bias.addAndGet(changes[0]);
+        }
     }
 
     @Override
-    public void addForwardConnection(final Neuron neuron) {
-        forwardConnections.add(neuron);
+    public void addForwardConnection(final Neuron neuron, final int slot) {
+        forwardConnections.add(neuron, slot);
     }
 
     @Override
-    public void addBackwardConnection(final Neuron neuron, final Double weight) {
-        int nextIndex = neuronIndexes.size();
-        neuronIndexes.put(neuron, nextIndex);
+    public int addBackwardConnection(final Neuron neuron, final Double weight) {
+        final int slot = backwardNeurons.length;
+        backwardNeurons = Arrays.copyOf(backwardNeurons, slot + 1);
+        backwardNeurons[slot] = neuron;
+
+        if (floatBackwardConnections != null) {
+            floatBackwardConnections = Arrays.copyOf(floatBackwardConnections, slot + 1);
+            floatBackwardConnections[slot] = weight.floatValue();
+        } else {
+            backwardConnections = addToTensor(backwardConnections, slot, weight);
+        }
+        inputSignals = addToTensor(inputSignals, slot, Double.NaN);
+        if (updateState != null) {
+            updateState = updateState.resize(slot + 2);
+        }
+        return slot;
+    }
 
-        backwardConnections = addToTensor(backwardConnections, nextIndex, weight);
-        inputSignals = addToTensor(inputSignals, nextIndex, Double.NaN);
+    /**
+     * Connects the Neuron with all the neurons at once, the neuron at the position i gets the slot i and the weight
+     * weights[offset + i]. Unlike calling the {@link #addBackwardConnection(Neuron, Double)} for every neuron, which
+     * copies the connections every time, the connections are allocated once. Only works for a Neuron without any
+     * connections yet, the neurons array is kept as is, so it can be shared by the whole layer.
+     *
+     * The neurons are not told about the connections, the caller should call their
+     * {@link Neuron#addForwardConnection(Neuron, int)}.
+     */
+    void setBackwardConnections(final Neuron[] neurons, final double[] weights, final int offset) {
+        if (backwardNeurons.length != 0) {
+            throw new RuntimeException("Neuron " + this + " is already connected");
+        }
+        backwardNeurons = neurons;
+        if (floatBackwardConnections != null) {
+            floatBackwardConnections = new float[neurons.length];
+            for (int slot = 0; slot < neurons.length; slot++) {
+                floatBackwardConnections[slot] = (float) weights[offset + slot];
+            }
+        } else {
+            backwardConnections = Arrays.copyOfRange(weights, offset, offset + neurons.length);
+        }
+        inputSignals = new double[neurons.length];
+        Arrays.fill(inputSignals, Double.NaN);
+        if (updateState != null) {
+            updateState = updateState.resize(neurons.length + 1);
+        }
     }
 
-    private RealMatrix addToTensor(final RealMatrix oldTensor, final int newColumnIndex, final double value) {
-        RealMatrix newTensor = new Array2DRowRealMatrix(VECTOR_ROWS_COUNT, newColumnIndex + 1);
-        if (oldTensor.getColumnDimension() != 0)
-            newTensor.setSubMatrix(oldTensor.getData(), 0, 0);
-        newTensor.setEntry(VECTOR_ROW_INDEX, newColumnIndex, value);
+    private double[] addToTensor(final double[] oldTensor, final int newIndex, final double value) {
+        final double[] newTensor = Arrays.copyOf(oldTensor, newIndex + 1);
+        newTensor[newIndex] = value;
         return newTensor;
     }
 
@@ -234,13 +330,73 @@ public class ConnectedNeuron implements Neuron {
         return signalReceived == 0;
     }
 
-    private int neuronIndex(final Neuron n) {
-        return neuronIndexes.get(n);
+    /**
+     * Finds the slot of the connection from the neuron. Only needed when a signal is sent without the slot, Neurons
+     * connected with the {@link Neuron#connect(Neuron, Double)} always send signals with the slot.
+     */
+    private int slotOf(final Neuron n) {
+        for (int slot = 0; slot < backwardNeurons.length; slot++) {
+            if (backwardNeurons[slot] == n) {
+                return slot;
+            }
+        }
+        throw new RuntimeException("Neuron " + n + " is not connected to " + this);
+    }
+
+    Context getContext() {
+        return context;
+    }
+
+    ActivationFunction getActivationFunction() {
+        return activationFunction;
+    }
+
+    double getBias() {
+        return bias.get();
+    }
+
+    void setBias(final double bias) {
+        this.bias.set(floatBackwardConnections != null ? (float) bias : bias);
+    }
+
+    /**
+     * Returns the Neurons this Neuron receives signals from, ordered by their slots, so the neuron at the position i
+     * is connected with the weight {@link #getWeight(int)} for the same i.
+     */
+    Neuron[] getBackwardNeurons() {
+        return backwardNeurons.clone();
+    }
+
+    double getWeight(final int index) {
+        return floatBackwardConnections != null ? floatBackwardConnections[index] : backwardConnections[index];
+    }
+
+    void setWeight(final int index, final double weight) {
+        if (floatBackwardConnections != null) {
+            floatBackwardConnections[index] = (float) weight;
+        } else {
+            backwardConnections[index] = weight;
+        }
+    }
+
+    /**
+     * @return moments of the bias and the weights, see {@link #updateState}, null if there are none.
+     */
+    UpdateState getUpdateState() {
+        return updateState;
+    }
+
+    void setUpdateState(final UpdateState updateState) {
+        this.updateState = updateState;
     }
 
     public static class Builder {
 
-        private double bias = new Random().nextDouble();
+        /**
+         * Random between 0 and 1 if not set. It's not reproducible, use a seeded
+         * {@link com.dj.core.model.init.WeightInitializer} with the {@link Layers} for that.
+         */
+        private Double bias;
 
         private String name;
 
@@ -280,7 +436,7 @@ public class ConnectedNeuron implements Neuron {
             return new ConnectedNeuron(
                     activationFunction,
                     name,
-                    bias,
+                    bias != null ? bias : ThreadLocalRandom.current().nextDouble(),
                     context);
         }
     }
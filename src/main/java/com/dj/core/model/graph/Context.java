@@ -1,5 +1,8 @@
 package com.dj.core.model.graph;
 
+import com.dj.core.model.update.GradientDescent;
+import com.dj.core.model.update.UpdateRule;
+
 import java.io.Serializable;
 
 public class Context implements Serializable {
@@ -8,9 +11,24 @@ public class Context implements Serializable {
 
     private boolean debugMode;
 
-    public Context(final double learningRate, final boolean debugMode) {
+    private final Precision precision;
+
+    private UpdateRule updateRule = new GradientDescent();
+
+    /**
+     * @param precision how the Neurons created with the Context store their weights and biases.
+     */
+    public Context(final double learningRate, final boolean debugMode, final Precision precision) {
+        if (precision == null) {
+            throw new RuntimeException("Precision need to be set in order to create a Context");
+        }
         this.learningRate = learningRate;
         this.debugMode = debugMode;
+        this.precision = precision;
+    }
+
+    public Context(final double learningRate, final boolean debugMode) {
+        this(learningRate, debugMode, Precision.DOUBLE);
     }
 
     public Context() {
@@ -33,4 +51,23 @@ public class Context implements Serializable {
     public void setDebugMode(final boolean debugMode) {
         this.debugMode = debugMode;
     }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public UpdateRule getUpdateRule() {
+        return updateRule;
+    }
+
+    /**
+     * @param updateRule how the Neurons and the compiled layers turn the gradients into the changes of their weights
+     *                   and biases, {@link GradientDescent} by default.
+     */
+    public void setUpdateRule(final UpdateRule updateRule) {
+        if (updateRule == null) {
+            throw new RuntimeException("Update rule should not be null");
+        }
+        this.updateRule = updateRule;
+    }
 }
@@ -0,0 +1,464 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.update.GradientDescent;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.model.update.UpdateState;
+
+import java.util.Arrays;
+
+/**
+ * Dense representation of one layer of {@link ConnectedNeuron}s: every neuron of the layer is connected with every
+ * neuron of the previous layer.
+ *
+ * Weights are stored row-major in a single array, one row per neuron of the layer:
+ * weights[row * inputSize + column] is the weight of the connection from the previous layer neuron #column to the
+ * neuron #row of this layer. For the layer with 2 neurons and 3 inputs the array looks like this:
+ * [ w00, w01, w02, w10, w11, w12 ]
+ *
+ * Layers with the {@link Precision#FLOAT} precision keep weights and biases in float arrays with the same layout,
+ * all the sums and gradients are still calculated in doubles.
+ *
+ * The math is done by the {@link ComputeBackend} chosen for the JVM, see {@link ComputeBackends#get()}.
+ */
+public final class DenseLayer {
+
+    private static final ComputeBackend BACKEND = ComputeBackends.get();
+
+    private final int inputSize;
+
+    private final int outputSize;
+
+    /**
+     * Weights and biases of the {@link Precision#DOUBLE} layer, null for the {@link Precision#FLOAT} one.
+     */
+    private final double[] weights;
+
+    private final double[] biases;
+
+    /**
+     * Weights and biases of the {@link Precision#FLOAT} layer, null for the {@link Precision#DOUBLE} one.
+     */
+    private final float[] floatWeights;
+
+    private final float[] floatBiases;
+
+    private final ActivationFunction[] activationFunctions;
+
+    /**
+     * The activation function of every neuron of the layer if they all use the same one (which is the usual case),
+     * null otherwise. With a single function the whole layer is activated by one bulk call.
+     */
+    private final ActivationFunction layerActivationFunction;
+
+    /**
+     * Moments of the {@link UpdateRule} for the weights and for the biases, same layout as the weights and the
+     * biases. Null until the layer is trained with a rule that has moments.
+     */
+    private UpdateState weightState;
+
+    private UpdateState biasState;
+
+    DenseLayer(
+            final int inputSize,
+            final int outputSize,
+            final double[] weights,
+            final double[] biases,
+            final ActivationFunction[] activationFunctions) {
+        this(inputSize, outputSize, weights, biases, null, null, activationFunctions);
+    }
+
+    DenseLayer(
+            final int inputSize,
+            final int outputSize,
+            final float[] weights,
+            final float[] biases,
+            final ActivationFunction[] activationFunctions) {
+        this(inputSize, outputSize, null, null, weights, biases, activationFunctions);
+    }
+
+    private DenseLayer(
+            final int inputSize,
+            final int outputSize,
+            final double[] weights,
+            final double[] biases,
+            final float[] floatWeights,
+            final float[] floatBiases,
+            final ActivationFunction[] activationFunctions) {
+        final int weightsCount = weights != null ? weights.length : floatWeights.length;
+        final int biasesCount = biases != null ? biases.length : floatBiases.length;
+        if (weightsCount != inputSize * outputSize) {
+            throw new RuntimeException("Weights size does not match the layer shape");
+        }
+        if (biasesCount != outputSize || activationFunctions.length != outputSize) {
+            throw new RuntimeException("Biases and activation functions should be provided for every neuron");
+        }
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.weights = weights;
+        this.biases = biases;
+        this.floatWeights = floatWeights;
+        this.floatBiases = floatBiases;
+        this.activationFunctions = activationFunctions;
+        this.layerActivationFunction = commonActivationFunction(activationFunctions);
+    }
+
+    private static ActivationFunction commonActivationFunction(final ActivationFunction[] activationFunctions) {
+        for (final ActivationFunction activationFunction : activationFunctions) {
+            if (!activationFunction.equals(activationFunctions[0])) {
+                return null;
+            }
+        }
+        return activationFunctions.length == 0 ? null : activationFunctions[0];
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public Precision getPrecision() {
+        return floatWeights != null ? Precision.FLOAT : Precision.DOUBLE;
+    }
+
+    /**
+     * @return the backing weights array (not a copy) of the {@link Precision#DOUBLE} layer, see the class
+     * description for the layout.
+     */
+    public double[] getWeights() {
+        if (weights == null) {
+            throw new RuntimeException("Weights of the layer are stored as floats, use getFloatWeights");
+        }
+        return weights;
+    }
+
+    /**
+     * @return the backing biases array (not a copy) of the {@link Precision#DOUBLE} layer.
+     */
+    public double[] getBiases() {
+        if (biases == null) {
+            throw new RuntimeException("Biases of the layer are stored as floats, use getFloatBiases");
+        }
+        return biases;
+    }
+
+    /**
+     * @return the backing weights array (not a copy) of the {@link Precision#FLOAT} layer.
+     */
+    public float[] getFloatWeights() {
+        if (floatWeights == null) {
+            throw new RuntimeException("Weights of the layer are stored as doubles, use getWeights");
+        }
+        return floatWeights;
+    }
+
+    /**
+     * @return the backing biases array (not a copy) of the {@link Precision#FLOAT} layer.
+     */
+    public float[] getFloatBiases() {
+        if (floatBiases == null) {
+            throw new RuntimeException("Biases of the layer are stored as doubles, use getBiases");
+        }
+        return floatBiases;
+    }
+
+    /**
+     * @return weight of the connection from the previous layer neuron #column to the neuron #row, for both
+     * precisions.
+     */
+    public double getWeight(final int row, final int column) {
+        final int index = row * inputSize + column;
+        return weights != null ? weights[index] : floatWeights[index];
+    }
+
+    public double getBias(final int row) {
+        return biases != null ? biases[row] : floatBiases[row];
+    }
+
+    public ActivationFunction getActivationFunction(final int neuron) {
+        return activationFunctions[neuron];
+    }
+
+    /**
+     * @return moments of the weights, same layout as the weights, null if there are none.
+     */
+    public UpdateState getWeightState() {
+        return weightState;
+    }
+
+    /**
+     * @return moments of the biases, null if there are none.
+     */
+    public UpdateState getBiasState() {
+        return biasState;
+    }
+
+    /**
+     * Replaces the moments of the weights and of the biases, for example with the ones restored from a checkpoint.
+     * Both are null, or both match the layer shape.
+     */
+    public void setUpdateStates(final UpdateState weightState, final UpdateState biasState) {
+        if ((weightState == null) != (biasState == null)
+                || weightState != null && (weightState.getParameterCount() != inputSize * outputSize
+                        || biasState.getParameterCount() != outputSize)) {
+            throw new RuntimeException("Update states do not match the layer shape");
+        }
+        this.weightState = weightState;
+        this.biasState = biasState;
+    }
+
+    DenseLayer copy() {
+        final DenseLayer copy = new DenseLayer(
+                inputSize,
+                outputSize,
+                weights != null ? weights.clone() : null,
+                biases != null ? biases.clone() : null,
+                floatWeights != null ? floatWeights.clone() : null,
+                floatBiases != null ? floatBiases.clone() : null,
+                activationFunctions.clone());
+        if (weightState != null) {
+            copy.setUpdateStates(weightState.copy(), biasState.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Calculates output = f(W * X + b) for the whole layer.
+     *
+     * @param input signals from the previous layer, inputSize values.
+     * @param preActivation receives W * X + b, outputSize values. It's needed later by the
+     *                      {@link #backward(double[], double[], double[], double[], double[], double[], double)}.
+     * @param output receives the result of the activation function, outputSize values.
+     */
+    void forward(final double[] input, final double[] preActivation, final double[] output) {
+        if (floatWeights != null) {
+            BACKEND.gemv(floatWeights, outputSize, inputSize, input, floatBiases, preActivation);
+        } else {
+            BACKEND.gemv(weights, outputSize, inputSize, input, biases, preActivation);
+        }
+        activate(preActivation, output, outputSize);
+    }
+
+    /**
+     * output[i] = f(preActivation[i]) for the first count values, where f is the activation function of the neuron
+     * i % outputSize, so it works for both single examples and batches.
+     */
+    private void activate(final double[] preActivation, final double[] output, final int count) {
+        if (layerActivationFunction != null) {
+            BACKEND.forward(layerActivationFunction, preActivation, output, count);
+            return;
+        }
+        for (int index = 0; index < count; index++) {
+            output[index] = activationFunctions[index % outputSize].forward(preActivation[index]);
+        }
+    }
+
+    /**
+     * derivative[i] = f'(preActivation[i]) for the first count values, output is the result of the
+     * {@link #activate(double[], double[], int)} for the same values.
+     */
+    private void derivatives(
+            final double[] preActivation,
+            final double[] output,
+            final double[] derivative,
+            final int count) {
+        if (layerActivationFunction != null) {
+            BACKEND.backward(layerActivationFunction, preActivation, output, derivative, count);
+            return;
+        }
+        for (int index = 0; index < count; index++) {
+            derivative[index] = activationFunctions[index % outputSize].backward(preActivation[index]);
+        }
+    }
+
+    /**
+     * Applies the same update as {@link ConnectedNeuron#backwardSignalReceived(double)} does with the
+     * {@link GradientDescent}, but for all the neurons of the layer at once.
+     *
+     * @param input signals the layer received during the latest forward pass.
+     * @param preActivation W * X + b calculated during the latest forward pass.
+     * @param output result of the latest forward pass.
+     * @param error error of every neuron of the layer.
+     * @param derivative receives the derivative of the activation function of every neuron of the layer.
+     * @param inputError receives the error that should be sent to the previous layer, may be null if the previous
+     *                   layer is the input layer and the error is not needed.
+     * @param learningRate learning rate to use.
+     */
+    void backward(
+            final double[] input,
+            final double[] preActivation,
+            final double[] output,
+            final double[] error,
+            final double[] derivative,
+            final double[] inputError,
+            final double learningRate) {
+        if (inputError != null) {
+            Arrays.fill(inputError, 0, inputSize, 0.);
+        }
+        double inputSum = 0.;
+        for (int column = 0; column < inputSize; column++) {
+            inputSum += input[column];
+        }
+        final double inputAverage = inputSum / (double) inputSize;
+        derivatives(preActivation, output, derivative, outputSize);
+        for (int row = 0; row < outputSize; row++) {
+            if (error[row] == 0. || derivative[row] == 0.) {
+                continue;
+            }
+            final double dz = derivative[row] * error[row];
+            final double dzLearningRate = dz * learningRate;
+            final int rowOffset = row * inputSize;
+            if (floatWeights != null) {
+                BACKEND.axpy(dzLearningRate, input, 0, floatWeights, rowOffset, inputSize);
+                floatBiases[row] = (float) (floatBiases[row] + inputAverage * dz * learningRate);
+            } else {
+                BACKEND.axpy(dzLearningRate, input, 0, weights, rowOffset, inputSize);
+                biases[row] += inputAverage * dz * learningRate;
+            }
+            if (inputError != null) {
+                // Same as the ConnectedNeuron the error is sent back using the already updated weights.
+                addWeightedRow(dz, row, inputError, 0);
+            }
+        }
+    }
+
+    /**
+     * Batch version of the {@link #forward(double[], double[], double[])}. Instead of one matrix-vector multiplication
+     * per example the whole batch is calculated as one matrix-matrix multiplication, so every row of the weights is
+     * loaded once per batch and not once per example.
+     *
+     * All the arrays store one example after another: input[example * inputSize + column],
+     * output[example * outputSize + row].
+     */
+    void forwardBatch(
+            final double[] input,
+            final double[] preActivation,
+            final double[] output,
+            final int batchSize) {
+        if (floatWeights != null) {
+            BACKEND.gemm(floatWeights, outputSize, inputSize, input, batchSize, floatBiases, preActivation);
+        } else {
+            BACKEND.gemm(weights, outputSize, inputSize, input, batchSize, biases, preActivation);
+        }
+        activate(preActivation, output, batchSize * outputSize);
+    }
+
+    /**
+     * Calculates the gradients for the whole batch and adds them to the weightGradients and biasGradients. Weights
+     * are not changed, use {@link #applyGradients(double[], double[], int, double, UpdateRule)} to update them.
+     *
+     * Gradients follow the same rule as the {@link ConnectedNeuron#backwardSignalReceived(double)}: the weight
+     * gradient is dz * input and the bias gradient is dz * average input. The error sent to the previous layer is
+     * calculated with the weights the forward pass was done with.
+     *
+     * @param output result of the latest forward batch.
+     * @param error error of every neuron for every example of the batch, replaced with dz = f'(z) * error.
+     * @param derivative receives f'(z) of every neuron for every example of the batch.
+     * @param inputError receives the error of the previous layer for every example, may be null.
+     */
+    void backwardBatch(
+            final double[] input,
+            final double[] preActivation,
+            final double[] output,
+            final double[] error,
+            final double[] derivative,
+            final double[] inputError,
+            final double[] weightGradients,
+            final double[] biasGradients,
+            final int batchSize) {
+        derivatives(preActivation, output, derivative, batchSize * outputSize);
+        for (int index = 0; index < batchSize * outputSize; index++) {
+            if (error[index] != 0.) {
+                error[index] *= derivative[index];
+            }
+        }
+        if (inputError != null) {
+            Arrays.fill(inputError, 0, batchSize * inputSize, 0.);
+        }
+        for (int example = 0; example < batchSize; example++) {
+            final int inputOffset = example * inputSize;
+            double inputSum = 0.;
+            for (int column = 0; column < inputSize; column++) {
+                inputSum += input[inputOffset + column];
+            }
+            final double inputAverage = inputSum / (double) inputSize;
+            for (int row = 0; row < outputSize; row++) {
+                final double dz = error[example * outputSize + row];
+                if (dz == 0.) {
+                    continue;
+                }
+                final int rowOffset = row * inputSize;
+                if (inputError != null) {
+                    addWeightedRow(dz, row, inputError, inputOffset);
+                }
+                BACKEND.axpy(dz, input, inputOffset, weightGradients, rowOffset, inputSize);
+                biasGradients[row] += inputAverage * dz;
+            }
+        }
+    }
+
+    /**
+     * Updates weights and biases with the average gradients of the batch. With the {@link GradientDescent}
+     * weights += learningRate / batchSize * weightGradients (and the same for the biases), other rules replace the
+     * gradients with the changes first.
+     *
+     * @param weightGradients sum of the gradients of the batch, changed by the rules other than the
+     *                        {@link GradientDescent}.
+     */
+    void applyGradients(
+            final double[] weightGradients,
+            final double[] biasGradients,
+            final int batchSize,
+            final double learningRate,
+            final UpdateRule updateRule) {
+        double scale = learningRate / (double) batchSize;
+        if (!(updateRule instanceof GradientDescent)) {
+            ensureUpdateStates(updateRule);
+            average(weightGradients, batchSize);
+            average(biasGradients, batchSize);
+            updateRule.computeChanges(weightGradients, weightGradients.length, learningRate, weightState);
+            updateRule.computeChanges(biasGradients, biasGradients.length, learningRate, biasState);
+            scale = 1.;
+        }
+        if (floatWeights != null) {
+            BACKEND.axpy(scale, weightGradients, 0, floatWeights, 0, floatWeights.length);
+            BACKEND.axpy(scale, biasGradients, 0, floatBiases, 0, floatBiases.length);
+        } else {
+            BACKEND.axpy(scale, weightGradients, 0, weights, 0, weights.length);
+            BACKEND.axpy(scale, biasGradients, 0, biases, 0, biases.length);
+        }
+    }
+
+    /**
+     * Allocates the moments of the rule, unless the layer has the ones that fit it already.
+     */
+    void ensureUpdateStates(final UpdateRule updateRule) {
+        if (weightState == null || !weightState.fits(updateRule, inputSize * outputSize)) {
+            weightState = new UpdateState(updateRule.getMomentCount(), inputSize * outputSize);
+            biasState = new UpdateState(updateRule.getMomentCount(), outputSize);
+        }
+    }
+
+    private static void average(final double[] gradients, final int batchSize) {
+        if (batchSize == 1) {
+            return;
+        }
+        for (int i = 0; i < gradients.length; i++) {
+            gradients[i] /= batchSize;
+        }
+    }
+
+    /**
+     * target[offset + column] += alpha * weights[row][column] for every column.
+     */
+    private void addWeightedRow(final double alpha, final int row, final double[] target, final int offset) {
+        if (floatWeights != null) {
+            BACKEND.axpy(alpha, floatWeights, row * inputSize, target, offset, inputSize);
+        } else {
+            BACKEND.axpy(alpha, weights, row * inputSize, target, offset, inputSize);
+        }
+    }
+}
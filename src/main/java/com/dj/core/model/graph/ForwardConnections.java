@@ -0,0 +1,42 @@
+package com.dj.core.model.graph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Connections from a Neuron to the Neurons it sends signals to. Every connection is a pair (target, slot), where slot
+ * is the index the target Neuron has assigned to the connection in the
+ * {@link Neuron#addBackwardConnection(Neuron, Double)}. Knowing the slot the signal can be written straight into the
+ * target's input, without looking up the sender on every signal.
+ *
+ * Connections are kept in the order they were added, so signals are always sent in the same order.
+ */
+final class ForwardConnections implements Serializable {
+
+    private Neuron[] targets = new Neuron[0];
+
+    private int[] slots = new int[0];
+
+    private int size;
+
+    void add(final Neuron target, final int slot) {
+        if (size == targets.length) {
+            final int newCapacity = Math.max(4, size * 2);
+            targets = Arrays.copyOf(targets, newCapacity);
+            slots = Arrays.copyOf(slots, newCapacity);
+        }
+        targets[size] = target;
+        slots[size] = slot;
+        size++;
+    }
+
+    void send(final double value) {
+        for (int i = 0; i < size; i++) {
+            targets[i].forwardSignalReceived(slots[i], value);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
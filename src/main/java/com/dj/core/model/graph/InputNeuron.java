@@ -1,11 +1,8 @@
 package com.dj.core.model.graph;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class InputNeuron implements Neuron {
 
-    private Set<Neuron> connections = new HashSet<>();
+    private final ForwardConnections connections = new ForwardConnections();
 
     private final String name;
 
@@ -18,22 +15,27 @@ public class InputNeuron implements Neuron {
     }
 
     @Override
-    public void forwardSignalReceived(final Neuron from, final Double value) {
-        connections.forEach(n -> n.forwardSignalReceived(this, value));
+    public void forwardSignalReceived(final Neuron from, final double value) {
+        connections.send(value);
+    }
+
+    @Override
+    public void forwardSignalReceived(final int slot, final double value) {
+        connections.send(value);
     }
 
     @Override
-    public void backwardSignalReceived(final Double value) {
+    public void backwardSignalReceived(final double value) {
         // No-op
     }
 
     @Override
-    public void addForwardConnection(final Neuron neuron) {
-        connections.add(neuron);
+    public void addForwardConnection(final Neuron neuron, final int slot) {
+        connections.add(neuron, slot);
     }
 
     @Override
-    public void addBackwardConnection(final Neuron neuron, final Double weight) {
+    public int addBackwardConnection(final Neuron neuron, final Double weight) {
         throw new RuntimeException("addBackwardConnection should be never called on an InputNeuron");
     }
 
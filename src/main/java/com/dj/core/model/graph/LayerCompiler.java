@@ -0,0 +1,180 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.update.UpdateState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts a graph of Neurons into a {@link CompiledNetwork}.
+ *
+ * The graph is walked from the output layer back to the input layer. Neurons that the output layer receives signals
+ * from form the previous layer, Neurons that the previous layer receives signals from form the layer before it and
+ * so on until the input layer is reached. Only graphs where every neuron of a layer is connected with every neuron of
+ * the previous layer (and only with them) can be compiled, for example:
+ *
+ * InputA --- Hidden1
+ *        \ /        \
+ *         X          Output
+ *        / \        /
+ * InputB --- Hidden2
+ */
+public final class LayerCompiler {
+
+    private LayerCompiler() { } // no-op
+
+    /**
+     * @param inputLayer input Neurons, the order defines the order of the values in the
+     *                   {@link CompiledNetwork#forward(double[])} input.
+     * @param outputLayer output Neurons, should be {@link ConnectedNeuron}s. The order defines the order of the
+     *                    {@link CompiledNetwork#forward(double[])} result.
+     */
+    public static CompiledNetwork compile(final List<Neuron> inputLayer, final List<Neuron> outputLayer) {
+        if (inputLayer.isEmpty() || outputLayer.isEmpty()) {
+            throw new RuntimeException("Input and output layers should not be empty");
+        }
+        final List<ConnectedNeuron[]> layers = new ArrayList<>();
+        final Set<Neuron> visited = new HashSet<>();
+        Neuron[] currentLayer = outputLayer.toArray(new Neuron[0]);
+        while (true) {
+            final ConnectedNeuron[] layer = asConnectedNeurons(currentLayer);
+            for (final ConnectedNeuron neuron : layer) {
+                if (!visited.add(neuron)) {
+                    throw new RuntimeException("Neuron " + neuron + " belongs to several layers");
+                }
+            }
+            layers.add(layer);
+            final Neuron[] previousLayer = layer[0].getBackwardNeurons();
+            if (previousLayer.length == 0) {
+                throw new RuntimeException("Neuron " + layer[0] + " does not receive signals from any neuron");
+            }
+            if (Arrays.stream(previousLayer).allMatch(neuron -> neuron instanceof InputNeuron)) {
+                break;
+            }
+            currentLayer = previousLayer;
+        }
+        Collections.reverse(layers);
+
+        final Context context = layers.get(0)[0].getContext();
+        final DenseLayer[] denseLayers = new DenseLayer[layers.size()];
+        final int[][][] columns = new int[layers.size()][][];
+        Neuron[] previousLayer = inputLayer.toArray(new Neuron[0]);
+        for (int i = 0; i < layers.size(); i++) {
+            final ConnectedNeuron[] layer = layers.get(i);
+            final Map<Neuron, Integer> previousLayerColumns = new HashMap<>();
+            for (int column = 0; column < previousLayer.length; column++) {
+                previousLayerColumns.put(previousLayer[column], column);
+            }
+            if (previousLayerColumns.size() != previousLayer.length) {
+                throw new RuntimeException("Layer contains the same neuron several times");
+            }
+            final int inputSize = previousLayer.length;
+            final double[] weights = new double[layer.length * inputSize];
+            final double[] biases = new double[layer.length];
+            final ActivationFunction[] activationFunctions = new ActivationFunction[layer.length];
+            columns[i] = new int[layer.length][];
+            for (int row = 0; row < layer.length; row++) {
+                final ConnectedNeuron neuron = layer[row];
+                columns[i][row] = columnsOf(neuron, previousLayerColumns);
+                for (int index = 0; index < columns[i][row].length; index++) {
+                    weights[row * inputSize + columns[i][row][index]] = neuron.getWeight(index);
+                }
+                biases[row] = neuron.getBias();
+                activationFunctions[row] = neuron.getActivationFunction();
+            }
+            denseLayers[i] = context.getPrecision() == Precision.FLOAT
+                    ? new DenseLayer(inputSize, layer.length, toFloats(weights), toFloats(biases), activationFunctions)
+                    : new DenseLayer(inputSize, layer.length, weights, biases, activationFunctions);
+            copyUpdateStates(layer, columns[i], denseLayers[i]);
+            previousLayer = layer;
+        }
+        return new CompiledNetwork(context, denseLayers, layers.toArray(new ConnectedNeuron[0][]), columns);
+    }
+
+    /**
+     * Copies the moments of the neurons into the layer, the neurons without moments (or with the moments of another
+     * rule) get zero moments.
+     */
+    private static void copyUpdateStates(
+            final ConnectedNeuron[] layer,
+            final int[][] columns,
+            final DenseLayer denseLayer) {
+        final UpdateState firstState = layer[0].getUpdateState();
+        if (firstState == null) {
+            return;
+        }
+        final int inputSize = denseLayer.getInputSize();
+        final UpdateState weightState = new UpdateState(firstState.getMomentCount(), layer.length * inputSize);
+        final UpdateState biasState = new UpdateState(firstState.getMomentCount(), layer.length);
+        weightState.setStep(firstState.getStep());
+        biasState.setStep(firstState.getStep());
+        for (int row = 0; row < layer.length; row++) {
+            final UpdateState state = layer[row].getUpdateState();
+            if (state == null
+                    || state.getMomentCount() != firstState.getMomentCount()
+                    || state.getParameterCount() != columns[row].length + 1) {
+                continue;
+            }
+            for (int moment = 0; moment < state.getMomentCount(); moment++) {
+                final double[] values = state.getMoment(moment);
+                biasState.getMoment(moment)[row] = values[0];
+                final double[] weightMoments = weightState.getMoment(moment);
+                for (int index = 0; index < columns[row].length; index++) {
+                    weightMoments[row * inputSize + columns[row][index]] = values[index + 1];
+                }
+            }
+        }
+        denseLayer.setUpdateStates(weightState, biasState);
+    }
+
+    /**
+     * Values of the {@link Precision#FLOAT} neurons are floats already, so the conversion is exact.
+     */
+    private static float[] toFloats(final double[] values) {
+        final float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    private static ConnectedNeuron[] asConnectedNeurons(final Neuron[] layer) {
+        final ConnectedNeuron[] result = new ConnectedNeuron[layer.length];
+        for (int i = 0; i < layer.length; i++) {
+            if (!(layer[i] instanceof ConnectedNeuron)) {
+                throw new RuntimeException("Neuron " + layer[i] + " is not a ConnectedNeuron and it is not a part"
+                        + " of the input layer");
+            }
+            result[i] = (ConnectedNeuron) layer[i];
+        }
+        return result;
+    }
+
+    /**
+     * Maps every backward connection of the neuron to the column of the previous layer.
+     */
+    private static int[] columnsOf(final ConnectedNeuron neuron, final Map<Neuron, Integer> previousLayerColumns) {
+        final Neuron[] backwardNeurons = neuron.getBackwardNeurons();
+        if (backwardNeurons.length != previousLayerColumns.size()) {
+            throw new RuntimeException("Neuron " + neuron + " is not connected with every neuron of the previous"
+                    + " layer");
+        }
+        final int[] result = new int[backwardNeurons.length];
+        for (int index = 0; index < backwardNeurons.length; index++) {
+            final Integer column = previousLayerColumns.get(backwardNeurons[index]);
+            if (column == null) {
+                throw new RuntimeException("Neuron " + neuron + " receives signals from " + backwardNeurons[index]
+                        + " that is not a part of the previous layer");
+            }
+            result[index] = column;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.init.WeightInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the graph layer by layer instead of neuron by neuron. For example the network with 784 inputs, a hidden
+ * layer of 128 neurons and 10 outputs:
+ *
+ * List<Neuron> inputLayer = Layers.inputLayer(784);
+ * List<Neuron> hiddenLayer = Layers.denseLayer(inputLayer, 128, new Relu(), initializer, context);
+ * List<Neuron> outputLayer = Layers.denseLayer(hiddenLayer, 10, new Sigmoid(), initializer, context);
+ *
+ * The lists can be passed to the {@link com.dj.core.serializer.ModelWrapper.Builder} and the
+ * {@link LayerCompiler#compile(List, List)} as they are.
+ *
+ * Connecting every pair of neurons with the {@link Neuron#connect(Neuron, Double)} copies the connections of the
+ * receiving neuron on every call, which takes time quadratic in the amount of the inputs. Here the weights of a layer
+ * are allocated once and every neuron gets all its connections at once, so a layer is built in time linear in the
+ * amount of its weights. The result is the same as connecting the neurons one by one: the input i gets the slot i in
+ * every neuron of the layer.
+ */
+public final class Layers {
+
+    private Layers() { } // no-op
+
+    /**
+     * @return size new {@link InputNeuron}s.
+     */
+    public static List<Neuron> inputLayer(final int size) {
+        if (size <= 0) {
+            throw new RuntimeException("Layer size should be positive, got " + size);
+        }
+        final List<Neuron> layer = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            layer.add(new InputNeuron());
+        }
+        return Collections.unmodifiableList(layer);
+    }
+
+    /**
+     * Creates width {@link ConnectedNeuron}s, each of them connected with every neuron of the inputs.
+     *
+     * @param inputs neurons the layer receives signals from, usually the result of the previous call.
+     * @param initializer sets the weights and the biases of the layer.
+     * @return the neurons of the layer, in the order of the rows of the weights the initializer has set.
+     */
+    public static List<Neuron> denseLayer(
+            final List<? extends Neuron> inputs,
+            final int width,
+            final ActivationFunction activationFunction,
+            final WeightInitializer initializer,
+            final Context context) {
+        if (inputs.isEmpty()) {
+            throw new RuntimeException("Inputs of a layer should not be empty");
+        }
+        if (width <= 0) {
+            throw new RuntimeException("Layer width should be positive, got " + width);
+        }
+        if (initializer == null) {
+            throw new RuntimeException("WeightInitializer need to be set in order to create a layer");
+        }
+        final int fanIn = inputs.size();
+        final double[] weights = new double[width * fanIn];
+        final double[] biases = new double[width];
+        initializer.initializeWeights(weights, fanIn, width);
+        initializer.initializeBiases(biases, fanIn, width);
+        final ActivationFunction[] activationFunctions = new ActivationFunction[width];
+        Arrays.fill(activationFunctions, activationFunction);
+        return denseLayer(inputs, weights, biases, activationFunctions, context);
+    }
+
+    /**
+     * Creates the layer with the given weights, for example the one read from a file. One neuron is created for
+     * every bias, each of them connected with every neuron of the inputs.
+     *
+     * @param weights weights of the layer, row-major: the weight of the connection from the input i to the neuron j
+     *                is at the position j * inputs.size() + i.
+     * @param activationFunctions activation function of every neuron of the layer.
+     */
+    public static List<Neuron> denseLayer(
+            final List<? extends Neuron> inputs,
+            final double[] weights,
+            final double[] biases,
+            final ActivationFunction[] activationFunctions,
+            final Context context) {
+        if (inputs.isEmpty()) {
+            throw new RuntimeException("Inputs of a layer should not be empty");
+        }
+        final int fanIn = inputs.size();
+        final int width = biases.length;
+        if (width == 0 || weights.length != width * fanIn || activationFunctions.length != width) {
+            throw new RuntimeException("Layer of " + width + " neurons with " + fanIn + " inputs should have "
+                    + width * fanIn + " weights and " + width + " activation functions, got " + weights.length
+                    + " and " + activationFunctions.length);
+        }
+        // The neurons never change the array of their backward neurons, it's replaced when a connection is added,
+        // so one array is enough for the whole layer.
+        final Neuron[] backwardNeurons = inputs.toArray(new Neuron[0]);
+        final List<Neuron> layer = new ArrayList<>(width);
+        for (int row = 0; row < width; row++) {
+            final ConnectedNeuron neuron = new ConnectedNeuron.Builder()
+                    .bias(biases[row])
+                    .activationFunction(activationFunctions[row])
+                    .context(context)
+                    .build();
+            neuron.setBackwardConnections(backwardNeurons, weights, row * fanIn);
+            for (int slot = 0; slot < fanIn; slot++) {
+                backwardNeurons[slot].addForwardConnection(neuron, slot);
+            }
+            layer.add(neuron);
+        }
+        return Collections.unmodifiableList(layer);
+    }
+}
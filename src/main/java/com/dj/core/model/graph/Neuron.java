@@ -23,18 +23,48 @@ public interface Neuron extends Serializable {
      *
      * @param from , Neuron that sends the signal.
      */
-    void forwardSignalReceived(Neuron from, Double value);
+    void forwardSignalReceived(Neuron from, double value);
 
-    void backwardSignalReceived(Double value);
+    /**
+     * Boxed version of the {@link #forwardSignalReceived(Neuron, double)}, kept for the existing callers.
+     */
+    default void forwardSignalReceived(Neuron from, Double value) {
+        forwardSignalReceived(from, value.doubleValue());
+    }
+
+    /**
+     * Same as the {@link #forwardSignalReceived(Neuron, double)}, but the sender is identified by the slot the
+     * receiving Neuron has returned from the {@link #addBackwardConnection(Neuron, Double)} when the sender was
+     * connected. This is the way Neurons send signals to each other, so no lookup of the sender is needed.
+     *
+     * @param slot , index of the connection the signal is sent through.
+     */
+    void forwardSignalReceived(int slot, double value);
+
+    void backwardSignalReceived(double value);
+
+    /**
+     * Boxed version of the {@link #backwardSignalReceived(double)}, kept for the existing callers.
+     */
+    default void backwardSignalReceived(Double value) {
+        backwardSignalReceived(value.doubleValue());
+    }
 
     default void connect(Neuron neuron, Double weight) {
-        this.addForwardConnection(neuron);
-        neuron.addBackwardConnection(this, weight);
+        final int slot = neuron.addBackwardConnection(this, weight);
+        this.addForwardConnection(neuron, slot);
     }
 
-    void addForwardConnection(Neuron neuron);
+    /**
+     * @param slot , index of the connection returned by the neuron's {@link #addBackwardConnection(Neuron, Double)}.
+     */
+    void addForwardConnection(Neuron neuron, int slot);
 
-    void addBackwardConnection(Neuron neuron, Double weight);
+    /**
+     * @return index (slot) of the new connection. Signals sent through the connection should be sent to the
+     * {@link #forwardSignalReceived(int, double)} with this slot.
+     */
+    int addBackwardConnection(Neuron neuron, Double weight);
 
     double getForwardResult();
 }
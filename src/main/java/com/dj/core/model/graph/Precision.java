@@ -0,0 +1,20 @@
+package com.dj.core.model.graph;
+
+/**
+ * How the parameters of the model (weights and biases) are stored. Chosen when the model is built, with the
+ * {@link Context}.
+ */
+public enum Precision {
+
+    /**
+     * Parameters are stored as 64-bit doubles.
+     */
+    DOUBLE,
+
+    /**
+     * Parameters are stored as 32-bit floats, which halves the memory the model takes and the amount of memory read
+     * by every forward pass. Everything that is accumulated (weighted sums, gradients, updates) is still calculated
+     * in doubles and only the result is rounded to a float when it's stored.
+     */
+    FLOAT
+}
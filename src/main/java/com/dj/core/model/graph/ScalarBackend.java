@@ -0,0 +1,154 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+
+/**
+ * Reference {@link ComputeBackend}: plain loops, one value at a time. Operations are done in the order of the
+ * indexes, so results do not depend on the hardware.
+ */
+public final class ScalarBackend implements ComputeBackend {
+
+    public static final String NAME = "scalar";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double dot(final double[] x, final int xOffset, final double[] y, final int yOffset, final int length) {
+        double sum = 0.;
+        for (int i = 0; i < length; i++) {
+            sum += x[xOffset + i] * y[yOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(
+            final double alpha,
+            final double[] x,
+            final int xOffset,
+            final double[] y,
+            final int yOffset,
+            final int length) {
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void gemv(
+            final double[] matrix,
+            final int rows,
+            final int columns,
+            final double[] x,
+            final double[] bias,
+            final double[] y) {
+        for (int row = 0; row < rows; row++) {
+            y[row] = dot(matrix, row * columns, x, 0, columns) + bias[row];
+        }
+    }
+
+    @Override
+    public void gemm(
+            final double[] matrix,
+            final int rows,
+            final int columns,
+            final double[] x,
+            final int count,
+            final double[] bias,
+            final double[] y) {
+        // Row by row, so every row of the matrix is loaded once for all the vectors.
+        for (int row = 0; row < rows; row++) {
+            final int rowOffset = row * columns;
+            for (int example = 0; example < count; example++) {
+                y[example * rows + row] = dot(matrix, rowOffset, x, example * columns, columns) + bias[row];
+            }
+        }
+    }
+
+    @Override
+    public void forward(
+            final ActivationFunction activationFunction,
+            final double[] in,
+            final double[] out,
+            final int len) {
+        activationFunction.forward(in, out, len);
+    }
+
+    @Override
+    public void backward(
+            final ActivationFunction activationFunction,
+            final double[] in,
+            final double[] forwardOut,
+            final double[] out,
+            final int len) {
+        activationFunction.backward(in, forwardOut, out, len);
+    }
+
+    @Override
+    public double dot(final float[] x, final int xOffset, final double[] y, final int yOffset, final int length) {
+        double sum = 0.;
+        for (int i = 0; i < length; i++) {
+            sum += x[xOffset + i] * y[yOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(
+            final double alpha,
+            final double[] x,
+            final int xOffset,
+            final float[] y,
+            final int yOffset,
+            final int length) {
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] = (float) (y[yOffset + i] + alpha * x[xOffset + i]);
+        }
+    }
+
+    @Override
+    public void axpy(
+            final double alpha,
+            final float[] x,
+            final int xOffset,
+            final double[] y,
+            final int yOffset,
+            final int length) {
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void gemv(
+            final float[] matrix,
+            final int rows,
+            final int columns,
+            final double[] x,
+            final float[] bias,
+            final double[] y) {
+        for (int row = 0; row < rows; row++) {
+            y[row] = dot(matrix, row * columns, x, 0, columns) + bias[row];
+        }
+    }
+
+    @Override
+    public void gemm(
+            final float[] matrix,
+            final int rows,
+            final int columns,
+            final double[] x,
+            final int count,
+            final float[] bias,
+            final double[] y) {
+        for (int row = 0; row < rows; row++) {
+            final int rowOffset = row * columns;
+            for (int example = 0; example < count; example++) {
+                y[example * rows + row] = dot(matrix, rowOffset, x, example * columns, columns) + bias[row];
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dj.core.model.init;
+
+import java.util.SplittableRandom;
+
+/**
+ * He initialization: normally distributed weights with the mean 0 and the standard deviation sqrt(2 / fanIn), biases
+ * are zeros. Same as the {@link Xavier}, but for the relu activation functions, which zero out half of the signals.
+ */
+public class He extends RandomInitializer {
+
+    public He(final long seed) {
+        super(seed);
+    }
+
+    @Override
+    protected void fill(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final int fanIn,
+            final int fanOut) {
+        fillNormal(weights, from, to, random, 0., Math.sqrt(2. / fanIn));
+    }
+}
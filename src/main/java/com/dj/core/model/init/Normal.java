@@ -0,0 +1,33 @@
+package com.dj.core.model.init;
+
+import java.util.SplittableRandom;
+
+/**
+ * Normally distributed weights, biases are zeros.
+ */
+public class Normal extends RandomInitializer {
+
+    private final double mean;
+
+    private final double standardDeviation;
+
+    public Normal(final double mean, final double standardDeviation, final long seed) {
+        super(seed);
+        if (!(standardDeviation > 0.)) {
+            throw new RuntimeException("Standard deviation should be positive, got " + standardDeviation);
+        }
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+    }
+
+    @Override
+    protected void fill(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final int fanIn,
+            final int fanOut) {
+        fillNormal(weights, from, to, random, mean, standardDeviation);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dj.core.model.init;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Base of the initializers that draw the weights from a random distribution.
+ *
+ * Weights are filled in parallel, by chunks of {@link #CHUNK_SIZE} weights. Every layer gets its own generator split
+ * from the generator of the seed, and every chunk of the layer gets its own generator split from the generator of the
+ * layer. Generators are split one after another, before any chunk is filled, so the same seed gives the same weights
+ * no matter how many threads fill them. Layers should be initialized in the same order for that, which is the case
+ * when the graph is built by the same code.
+ */
+public abstract class RandomInitializer implements WeightInitializer {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final SplittableRandom random;
+
+    protected RandomInitializer(final long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void initializeWeights(final double[] weights, final int fanIn, final int fanOut) {
+        final SplittableRandom layerRandom;
+        synchronized (this) {
+            layerRandom = random.split();
+        }
+        final int chunks = (weights.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            chunkRandoms[chunk] = layerRandom.split();
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            final int from = chunk * CHUNK_SIZE;
+            fill(weights, from, Math.min(from + CHUNK_SIZE, weights.length), chunkRandoms[chunk], fanIn, fanOut);
+        });
+    }
+
+    /**
+     * Fills the weights from the position from (inclusive) to the position to (exclusive).
+     */
+    protected abstract void fill(
+            double[] weights,
+            int from,
+            int to,
+            SplittableRandom random,
+            int fanIn,
+            int fanOut);
+
+    /**
+     * Fills the weights with the values uniformly distributed between the min (inclusive) and the max (exclusive).
+     */
+    protected static void fillUniform(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final double min,
+            final double max) {
+        for (int i = from; i < to; i++) {
+            weights[i] = random.nextDouble(min, max);
+        }
+    }
+
+    /**
+     * Fills the weights with the normally distributed values, two values at a time with the polar method.
+     */
+    protected static void fillNormal(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final double mean,
+            final double standardDeviation) {
+        for (int i = from; i < to; i += 2) {
+            double x;
+            double y;
+            double s;
+            do {
+                x = 2. * random.nextDouble() - 1.;
+                y = 2. * random.nextDouble() - 1.;
+                s = x * x + y * y;
+            } while (s >= 1. || s == 0.);
+            final double multiplier = standardDeviation * Math.sqrt(-2. * Math.log(s) / s);
+            weights[i] = mean + x * multiplier;
+            if (i + 1 < to) {
+                weights[i + 1] = mean + y * multiplier;
+            }
+        }
+    }
+}
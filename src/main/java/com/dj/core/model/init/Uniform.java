@@ -0,0 +1,33 @@
+package com.dj.core.model.init;
+
+import java.util.SplittableRandom;
+
+/**
+ * Weights uniformly distributed between the min (inclusive) and the max (exclusive), biases are zeros.
+ */
+public class Uniform extends RandomInitializer {
+
+    private final double min;
+
+    private final double max;
+
+    public Uniform(final double min, final double max, final long seed) {
+        super(seed);
+        if (!(min < max)) {
+            throw new RuntimeException("Min should be less than max, got " + min + " and " + max);
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    protected void fill(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final int fanIn,
+            final int fanOut) {
+        fillUniform(weights, from, to, random, min, max);
+    }
+}
@@ -0,0 +1,27 @@
+package com.dj.core.model.init;
+
+/**
+ * Sets the initial weights and biases of a layer, see {@link com.dj.core.model.graph.Layers}.
+ *
+ * Weights of a layer are stored row by row: the weight of the connection from the input i to the neuron j is stored
+ * at the position j * fanIn + i.
+ */
+@FunctionalInterface
+public interface WeightInitializer {
+
+    /**
+     * @param weights fanIn * fanOut weights of the layer, all zeros, to be filled in.
+     * @param fanIn amount of the inputs of the layer.
+     * @param fanOut amount of the neurons of the layer.
+     */
+    void initializeWeights(double[] weights, int fanIn, int fanOut);
+
+    /**
+     * Biases are zeros by default.
+     *
+     * @param biases fanOut biases of the layer, all zeros, to be filled in.
+     */
+    default void initializeBiases(final double[] biases, final int fanIn, final int fanOut) {
+        // no-op
+    }
+}
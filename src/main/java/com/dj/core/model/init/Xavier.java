@@ -0,0 +1,27 @@
+package com.dj.core.model.init;
+
+import java.util.SplittableRandom;
+
+/**
+ * Xavier (Glorot) initialization: weights uniformly distributed between -sqrt(6 / (fanIn + fanOut)) and
+ * sqrt(6 / (fanIn + fanOut)), biases are zeros. Keeps the variance of the signals the same from layer to layer, suits
+ * the sigmoid and the hyperbolic tangent activation functions.
+ */
+public class Xavier extends RandomInitializer {
+
+    public Xavier(final long seed) {
+        super(seed);
+    }
+
+    @Override
+    protected void fill(
+            final double[] weights,
+            final int from,
+            final int to,
+            final SplittableRandom random,
+            final int fanIn,
+            final int fanOut) {
+        final double limit = Math.sqrt(6. / (fanIn + fanOut));
+        fillUniform(weights, from, to, random, -limit, limit);
+    }
+}
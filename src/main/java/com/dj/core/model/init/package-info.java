@@ -0,0 +1 @@
+package com.dj.core.model.init;
@@ -0,0 +1,44 @@
+package com.dj.core.model.loss;
+
+
+/**
+ * Absolute error |expected - actual|, the mean absolute error (MAE) when averaged over the examples. Unlike the
+ * {@link QuadraticLoss} the outliers do not dominate the loss, the derivative is the sign of the difference.
+ */
+public class AbsoluteLoss implements Loss {
+
+    @Override
+    public double error(final double actual, final double expected) {
+        return Math.abs(expected - actual);
+    }
+
+    @Override
+    public double derivative(final double actual, final double expected) {
+        return Math.signum(expected - actual);
+    }
+
+    @Override
+    public double error(final double[] actual, final int offset, final double[] expected, final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            sum += Math.abs(expected[i] - actual[offset + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            final double difference = expected[i] - actual[offset + i];
+            derivatives[offset + i] = Math.signum(difference);
+            sum += Math.abs(difference);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dj.core.model.loss;
+
+
+/**
+ * Cross-entropy of the independent yes/no outputs: -(y * log(p) + (1 - y) * log(1 - p)), where p is the actual output,
+ * a probability (usually the output of the {@link com.dj.core.model.activation.Sigmoid}), and y is the expected one.
+ *
+ * The derivative is (y - p) / (p * (1 - p)), which becomes y - p after the derivative of the sigmoid, so the training
+ * does not slow down when the sigmoid saturates on a wrong answer, as it does with the {@link QuadraticLoss}. The
+ * actual outputs are clamped to [{@link #EPSILON}, 1 - {@link #EPSILON}], so the loss stays finite.
+ */
+public class BinaryCrossEntropy implements Loss {
+
+    public static final double EPSILON = 1e-7;
+
+    @Override
+    public double error(final double actual, final double expected) {
+        final double p = clamp(actual);
+        return -(expected * Math.log(p) + (1. - expected) * Math.log(1. - p));
+    }
+
+    @Override
+    public double derivative(final double actual, final double expected) {
+        final double p = clamp(actual);
+        return (expected - p) / (p * (1. - p));
+    }
+
+    @Override
+    public double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            final double p = clamp(actual[offset + i]);
+            final double y = expected[i];
+            derivatives[offset + i] = (y - p) / (p * (1. - p));
+            sum -= y * Math.log(p) + (1. - y) * Math.log(1. - p);
+        }
+        return sum;
+    }
+
+    private static double clamp(final double p) {
+        return Math.max(EPSILON, Math.min(1. - EPSILON, p));
+    }
+}
@@ -0,0 +1,73 @@
+package com.dj.core.model.loss;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Sum of many values with the compensated (Kahan-Babuska) summation: the low-order bits lost by every addition are
+ * kept in a separate compensation and added back at the end, so the error of the sum does not grow with the amount
+ * of values, which it does for the plain sum of a large evaluation set.
+ */
+public final class CompensatedSum {
+
+    /**
+     * Amount of terms {@link #sum(int, IntToDoubleFunction)} sums up on one thread.
+     */
+    static final int CHUNK_SIZE = 1 << 12;
+
+    private double sum;
+
+    private double compensation;
+
+    public void add(final double value) {
+        final double total = sum + value;
+        // Whichever of the two is bigger in magnitude keeps its bits, the lost bits of the other one are recovered.
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    public void add(final CompensatedSum other) {
+        add(other.sum);
+        add(other.compensation);
+    }
+
+    public double get() {
+        return sum + compensation;
+    }
+
+    /**
+     * Sums up the terms 0 ... count - 1. Terms are summed up by chunks of {@link #CHUNK_SIZE} in parallel, and the
+     * sums of the chunks are added up in the order of the chunks, so the result does not depend on the amount of
+     * threads.
+     *
+     * @param term calculates the term by its index, called from several threads at once.
+     */
+    public static double sum(final int count, final IntToDoubleFunction term) {
+        final int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            return sumOfChunk(0, count, term).get();
+        }
+        final CompensatedSum[] sums = new CompensatedSum[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> sums[chunk] = sumOfChunk(
+                chunk * CHUNK_SIZE,
+                Math.min(count, (chunk + 1) * CHUNK_SIZE),
+                term));
+        final CompensatedSum total = new CompensatedSum();
+        for (final CompensatedSum chunkSum : sums) {
+            total.add(chunkSum);
+        }
+        return total.get();
+    }
+
+    private static CompensatedSum sumOfChunk(final int from, final int to, final IntToDoubleFunction term) {
+        final CompensatedSum sum = new CompensatedSum();
+        for (int i = from; i < to; i++) {
+            sum.add(term.applyAsDouble(i));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dj.core.model.loss;
+
+
+/**
+ * Quadratic for the small errors and linear for the large ones: with d = expected - actual the loss is d^2 / 2 when
+ * |d| <= delta and delta * (|d| - delta / 2) otherwise. Trains like the {@link QuadraticLoss} near the target, but the
+ * outliers pull the weights no stronger than delta, same as with the {@link AbsoluteLoss}.
+ */
+public class HuberLoss implements Loss {
+
+    private final double delta;
+
+    public HuberLoss(final double delta) {
+        if (!(delta > 0.)) {
+            throw new RuntimeException("Delta should be positive, got " + delta);
+        }
+        this.delta = delta;
+    }
+
+    public HuberLoss() {
+        this(1.);
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    @Override
+    public double error(final double actual, final double expected) {
+        final double difference = Math.abs(expected - actual);
+        return difference <= delta ? .5 * difference * difference : delta * (difference - .5 * delta);
+    }
+
+    @Override
+    public double derivative(final double actual, final double expected) {
+        final double difference = expected - actual;
+        return Math.max(-delta, Math.min(delta, difference));
+    }
+
+    @Override
+    public double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            final double difference = expected[i] - actual[offset + i];
+            final double absoluteDifference = Math.abs(difference);
+            if (absoluteDifference <= delta) {
+                derivatives[offset + i] = difference;
+                sum += .5 * difference * difference;
+            } else {
+                derivatives[offset + i] = difference > 0. ? delta : -delta;
+                sum += delta * (absoluteDifference - .5 * delta);
+            }
+        }
+        return sum;
+    }
+}
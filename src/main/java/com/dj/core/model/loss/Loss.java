@@ -1,9 +1,81 @@
 package com.dj.core.model.loss;
 
+import java.util.function.IntToDoubleFunction;
 
 public interface Loss {
 
     double error(final double actual, final double expected);
 
     double derivative(final double actual, final double expected);
+
+    /**
+     * Loss of a whole example. Default implementation sums up the {@link #error(double, double)} of every output,
+     * losses that couple the outputs of an example, like the {@link SoftmaxCrossEntropy}, override it.
+     *
+     * @param actual contains the outputs of the example at the positions [offset, offset + size).
+     * @param expected expected outputs of the example, starting from the position 0.
+     */
+    default double error(final double[] actual, final int offset, final double[] expected, final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            sum += error(actual[offset + i], expected[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Same as the {@link #error(double[], int, double[], int)}, also writes the {@link #derivative(double, double)}
+     * of every output to the derivatives, at the same positions as the outputs are in the actual.
+     */
+    default double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            derivatives[offset + i] = derivative(actual[offset + i], expected[i]);
+            sum += error(actual[offset + i], expected[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Loss of a batch: sum of the {@link #error(double[], int, double[], int)} of its examples, summed up with the
+     * {@link CompensatedSum#sum(int, IntToDoubleFunction)}, in parallel for the large batches.
+     *
+     * @param actual outputs of the examples one after another, the output #i of the example #j is at the position
+     *               j * outputSize + i, same as the {@link com.dj.core.model.graph.CompiledNetwork#forwardBatch}
+     *               returns them.
+     * @param expected expected outputs, the example #j expects the expected[from + j].
+     */
+    default double error(
+            final double[] actual,
+            final double[][] expected,
+            final int from,
+            final int size,
+            final int outputSize) {
+        return CompensatedSum.sum(
+                size,
+                example -> error(actual, example * outputSize, expected[from + example], outputSize));
+    }
+
+    /**
+     * Same as the {@link #error(double[], double[][], int, int, int)}, also writes the derivatives of all the outputs
+     * of the batch, at the same positions as the outputs are in the actual. The loss and the derivatives are
+     * calculated in one pass over the outputs.
+     */
+    default double errorAndDerivatives(
+            final double[] actual,
+            final double[][] expected,
+            final int from,
+            final int size,
+            final int outputSize,
+            final double[] derivatives) {
+        return CompensatedSum.sum(
+                size,
+                example -> errorAndDerivatives(
+                        actual, example * outputSize, expected[from + example], derivatives, outputSize));
+    }
 }
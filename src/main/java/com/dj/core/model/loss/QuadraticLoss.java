@@ -12,4 +12,30 @@ public class QuadraticLoss implements Loss {
     public double derivative(final double actual, final double expected) {
         return 2 * (expected - actual);
     }
+
+    @Override
+    public double error(final double[] actual, final int offset, final double[] expected, final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            final double difference = expected[i] - actual[offset + i];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    @Override
+    public double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        double sum = 0.;
+        for (int i = 0; i < size; i++) {
+            final double difference = expected[i] - actual[offset + i];
+            derivatives[offset + i] = 2 * difference;
+            sum += difference * difference;
+        }
+        return sum;
+    }
 }
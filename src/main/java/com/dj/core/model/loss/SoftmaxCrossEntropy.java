@@ -0,0 +1,106 @@
+package com.dj.core.model.loss;
+
+
+/**
+ * Softmax of the outputs fused with the cross-entropy loss, for the classification: the outputs of the network are
+ * the logits z (usually of an output layer with the {@link com.dj.core.model.activation.Identity} activation
+ * function), the probabilities of the classes are p = softmax(z) and the loss is -sum(y * log(p)), where y are the
+ * expected probabilities, for example 1 for the right class and 0 for the others.
+ *
+ * Since log(p[i]) = z[i] - log(sum(exp(z))), the loss is calculated straight from the logits with the log-sum-exp
+ * computed once per example, shifted by the max logit so the exponents never overflow. The derivative is y - p
+ * (minus the gradient, the same direction as the {@link QuadraticLoss#derivative(double, double)}), with no
+ * derivative of the softmax itself to go through.
+ *
+ * The loss couples all the outputs of an example, so it can only be calculated for whole examples.
+ */
+public class SoftmaxCrossEntropy implements Loss {
+
+    @Override
+    public double error(final double actual, final double expected) {
+        throw new RuntimeException("SoftmaxCrossEntropy is calculated for the whole examples only");
+    }
+
+    @Override
+    public double derivative(final double actual, final double expected) {
+        throw new RuntimeException("SoftmaxCrossEntropy is calculated for the whole examples only");
+    }
+
+    @Override
+    public double error(final double[] actual, final int offset, final double[] expected, final int size) {
+        final double max = max(actual, offset, size);
+        double sumExp = 0.;
+        for (int i = 0; i < size; i++) {
+            sumExp += Math.exp(actual[offset + i] - max);
+        }
+        return crossEntropy(actual, offset, expected, size, max + Math.log(sumExp));
+    }
+
+    @Override
+    public double errorAndDerivatives(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final double[] derivatives,
+            final int size) {
+        final double max = max(actual, offset, size);
+        // The exponents are kept in the derivatives, so they are calculated once.
+        double sumExp = 0.;
+        for (int i = 0; i < size; i++) {
+            final double exp = Math.exp(actual[offset + i] - max);
+            derivatives[offset + i] = exp;
+            sumExp += exp;
+        }
+        double expectedSum = 0.;
+        for (int i = 0; i < size; i++) {
+            expectedSum += expected[i];
+        }
+        // d(loss)/dz[i] = p[i] * sum(y) - y[i], which is p[i] - y[i] for the probabilities that sum up to 1.
+        final double scale = expectedSum / sumExp;
+        for (int i = 0; i < size; i++) {
+            derivatives[offset + i] = expected[i] - derivatives[offset + i] * scale;
+        }
+        return crossEntropy(actual, offset, expected, size, max + Math.log(sumExp));
+    }
+
+    /**
+     * @return probabilities of the classes for the logits, the outputs of a network trained with the loss.
+     */
+    public static double[] softmax(final double[] logits) {
+        final double max = max(logits, 0, logits.length);
+        final double[] probabilities = new double[logits.length];
+        double sumExp = 0.;
+        for (int i = 0; i < logits.length; i++) {
+            probabilities[i] = Math.exp(logits[i] - max);
+            sumExp += probabilities[i];
+        }
+        for (int i = 0; i < logits.length; i++) {
+            probabilities[i] /= sumExp;
+        }
+        return probabilities;
+    }
+
+    private static double crossEntropy(
+            final double[] actual,
+            final int offset,
+            final double[] expected,
+            final int size,
+            final double logSumExp) {
+        double loss = 0.;
+        for (int i = 0; i < size; i++) {
+            // -y * log(p) with log(p) = z - logSumExp, classes with y = 0 do not count even if p = 0.
+            if (expected[i] != 0.) {
+                loss += expected[i] * (logSumExp - actual[offset + i]);
+            }
+        }
+        return loss;
+    }
+
+    private static double max(final double[] values, final int offset, final int size) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, values[offset + i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dj.core.model.update;
+
+/**
+ * Adam: keeps running averages of the gradients (the first moment) and of the squared gradients (the second
+ * moment). Both start from 0, so they are divided by 1 - beta^step to correct the bias towards 0 during the first
+ * updates:
+ * change = learningRate * m / (1 - beta1^step) / (sqrt(v / (1 - beta2^step)) + epsilon).
+ */
+public class Adam implements UpdateRule {
+
+    private final double beta1;
+
+    private final double beta2;
+
+    private final double epsilon;
+
+    public Adam(final double beta1, final double beta2, final double epsilon) {
+        if (beta1 < 0. || beta1 >= 1. || beta2 < 0. || beta2 >= 1.) {
+            throw new RuntimeException("Betas should be in [0, 1)");
+        }
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+    }
+
+    public Adam() {
+        this(.9, .999, 1e-8);
+    }
+
+    public double getBeta1() {
+        return beta1;
+    }
+
+    public double getBeta2() {
+        return beta2;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    @Override
+    public int getMomentCount() {
+        return 2;
+    }
+
+    @Override
+    public void computeChanges(
+            final double[] gradients,
+            final int size,
+            final double learningRate,
+            final UpdateState state) {
+        final long step = state.nextStep();
+        final double firstCorrection = 1. - Math.pow(beta1, step);
+        final double secondCorrection = 1. - Math.pow(beta2, step);
+        final double[] first = state.getMoment(0);
+        final double[] second = state.getMoment(1);
+        for (int i = 0; i < size; i++) {
+            final double gradient = gradients[i];
+            first[i] = beta1 * first[i] + (1. - beta1) * gradient;
+            second[i] = beta2 * second[i] + (1. - beta2) * gradient * gradient;
+            gradients[i] = learningRate * (first[i] / firstCorrection)
+                    / (Math.sqrt(second[i] / secondCorrection) + epsilon);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.dj.core.model.update;
+
+/**
+ * Plain gradient descent: change = learningRate * gradient. It's the default rule, Neurons and layers apply it
+ * without the intermediate changes array.
+ */
+public class GradientDescent implements UpdateRule {
+
+    @Override
+    public int getMomentCount() {
+        return 0;
+    }
+
+    @Override
+    public void computeChanges(
+            final double[] gradients,
+            final int size,
+            final double learningRate,
+            final UpdateState state) {
+        for (int i = 0; i < size; i++) {
+            gradients[i] *= learningRate;
+        }
+    }
+}
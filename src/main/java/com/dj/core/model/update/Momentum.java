@@ -0,0 +1,42 @@
+package com.dj.core.model.update;
+
+/**
+ * Gradient descent with momentum: velocity = momentum * velocity + gradient, change = learningRate * velocity.
+ */
+public class Momentum implements UpdateRule {
+
+    private final double momentum;
+
+    public Momentum(final double momentum) {
+        if (momentum < 0. || momentum >= 1.) {
+            throw new RuntimeException("Momentum should be in [0, 1)");
+        }
+        this.momentum = momentum;
+    }
+
+    public Momentum() {
+        this(.9);
+    }
+
+    public double getMomentum() {
+        return momentum;
+    }
+
+    @Override
+    public int getMomentCount() {
+        return 1;
+    }
+
+    @Override
+    public void computeChanges(
+            final double[] gradients,
+            final int size,
+            final double learningRate,
+            final UpdateState state) {
+        final double[] velocity = state.getMoment(0);
+        for (int i = 0; i < size; i++) {
+            velocity[i] = momentum * velocity[i] + gradients[i];
+            gradients[i] = learningRate * velocity[i];
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.dj.core.model.update;
+
+/**
+ * RMSProp: every parameter gets its own learning rate, divided by the running root mean square of its gradients.
+ * meanSquare = decay * meanSquare + (1 - decay) * gradient^2,
+ * change = learningRate * gradient / (sqrt(meanSquare) + epsilon).
+ */
+public class RmsProp implements UpdateRule {
+
+    private final double decay;
+
+    private final double epsilon;
+
+    public RmsProp(final double decay, final double epsilon) {
+        if (decay < 0. || decay >= 1.) {
+            throw new RuntimeException("Decay should be in [0, 1)");
+        }
+        this.decay = decay;
+        this.epsilon = epsilon;
+    }
+
+    public RmsProp() {
+        this(.9, 1e-8);
+    }
+
+    public double getDecay() {
+        return decay;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    @Override
+    public int getMomentCount() {
+        return 1;
+    }
+
+    @Override
+    public void computeChanges(
+            final double[] gradients,
+            final int size,
+            final double learningRate,
+            final UpdateState state) {
+        final double[] meanSquare = state.getMoment(0);
+        for (int i = 0; i < size; i++) {
+            final double gradient = gradients[i];
+            meanSquare[i] = decay * meanSquare[i] + (1. - decay) * gradient * gradient;
+            gradients[i] = learningRate * gradient / (Math.sqrt(meanSquare[i]) + epsilon);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dj.core.model.update;
+
+import java.io.Serializable;
+
+/**
+ * Turns the gradients of the parameters (weights and biases) into the changes of the parameters.
+ *
+ * Gradients here are the directions the parameters should move in, the negative gradients of the loss, the way the
+ * Neurons calculate them: the change is added to the parameter. The rule keeps whatever it needs between the
+ * updates (moments) in the {@link UpdateState} of the parameters.
+ */
+public interface UpdateRule extends Serializable {
+
+    /**
+     * @return amount of values the rule keeps for every parameter, for example 2 for the first and second moments.
+     */
+    int getMomentCount();
+
+    /**
+     * @param gradients gradients of the first size parameters, replaced with the values to add to the parameters.
+     * @param learningRate learning rate of the current update.
+     * @param state moments of the same parameters, with {@link #getMomentCount()} moments.
+     */
+    void computeChanges(double[] gradients, int size, double learningRate, UpdateState state);
+}
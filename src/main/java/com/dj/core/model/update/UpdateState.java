@@ -0,0 +1,88 @@
+package com.dj.core.model.update;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Moments the {@link UpdateRule} keeps for a group of parameters: moments[moment][parameter], every moment is one
+ * contiguous array with a value per parameter. Also counts the updates of the group, for the rules that correct the
+ * bias of the moments, see {@link Adam}. The count is thread-safe, so the threads that share the state in the
+ * Hogwild training do not lose the updates.
+ */
+public final class UpdateState implements Serializable {
+
+    private final double[][] moments;
+
+    private final int parameterCount;
+
+    private long step;
+
+    public UpdateState(final int momentCount, final int parameterCount) {
+        this.moments = new double[momentCount][parameterCount];
+        this.parameterCount = parameterCount;
+    }
+
+    private UpdateState(final double[][] moments, final int parameterCount, final long step) {
+        this.moments = moments;
+        this.parameterCount = parameterCount;
+        this.step = step;
+    }
+
+    public int getMomentCount() {
+        return moments.length;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @return the backing array (not a copy) of the moment, a value per parameter.
+     */
+    public double[] getMoment(final int moment) {
+        return moments[moment];
+    }
+
+    /**
+     * @return amount of the updates done with the state.
+     */
+    public synchronized long getStep() {
+        return step;
+    }
+
+    public synchronized void setStep(final long step) {
+        this.step = step;
+    }
+
+    /**
+     * Counts one more update.
+     *
+     * @return amount of the updates including the current one.
+     */
+    public synchronized long nextStep() {
+        return ++step;
+    }
+
+    public UpdateState copy() {
+        return resize(parameterCount);
+    }
+
+    /**
+     * @return copy of the state for the given amount of parameters: moments of the new parameters are 0, moments of
+     * the parameters that do not fit are dropped.
+     */
+    public UpdateState resize(final int parameterCount) {
+        final double[][] resized = new double[moments.length][];
+        for (int i = 0; i < moments.length; i++) {
+            resized[i] = Arrays.copyOf(moments[i], parameterCount);
+        }
+        return new UpdateState(resized, parameterCount, getStep());
+    }
+
+    /**
+     * @return whether the state fits the rule and the amount of parameters.
+     */
+    public boolean fits(final UpdateRule rule, final int parameterCount) {
+        return moments.length == rule.getMomentCount() && this.parameterCount == parameterCount;
+    }
+}
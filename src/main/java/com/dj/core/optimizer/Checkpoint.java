@@ -0,0 +1,427 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.DenseLayer;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.graph.Precision;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.model.update.UpdateState;
+import com.dj.core.optimizer.schedule.LearningRateSchedule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * State of the {@link SGDOptimizer} training in the middle of an epoch, enough to resume it exactly, see
+ * {@link SGDOptimizer#resume(Checkpoint, Context, List, List, com.dj.core.dataset.Dataset,
+ * com.dj.core.dataset.Dataset)}.
+ *
+ * Weights, biases and the moments of the {@link UpdateRule} are stored layer by layer as plain arrays, the same way
+ * the {@link CompiledNetwork} keeps them, so the graph itself is not serialized: the checkpoint is restored into the
+ * graph the training was started with. Only the small state of the optimizer (the Context, the learning rate
+ * schedule and the losses) goes through the Java serialization. The file layout (big-endian):
+ *
+ * int       magic, "DJCP"
+ * int       format version
+ * int       epoch
+ * long      amount of weight updates done in the epoch
+ * double    sum of the training losses of the epoch so far
+ * long      amount of the training examples of the epoch so far
+ * long      seed of the training
+ * int       size of the optimizer state, S
+ * byte[S]   optimizer state, Java serialization
+ * weights   see below
+ * int       1 if the weights of the best loss of the early stopping follow, 0 otherwise
+ * weights   weights of the best loss, only if they are present
+ *
+ * where the weights are:
+ * int       amount of layers
+ * for every layer:
+ *   int      input size
+ *   int      output size
+ *   double[] weights, row-major, see {@link DenseLayer}
+ *   double[] biases
+ *   int      amount of moments, M
+ *   long     update step, only if M is positive
+ *   for every moment: double[] moments of the weights, double[] moments of the biases
+ */
+public final class Checkpoint {
+
+    static final int MAGIC = 0x50434A44;
+
+    static final int VERSION = 1;
+
+    private final int epoch;
+
+    private final long updates;
+
+    private final double epochLossSum;
+
+    private final long epochExamples;
+
+    private final long seed;
+
+    private final byte[] state;
+
+    private final Weights weights;
+
+    private final Weights bestWeights;
+
+    Checkpoint(
+            final int epoch,
+            final long updates,
+            final double epochLossSum,
+            final long epochExamples,
+            final long seed,
+            final State state,
+            final Weights weights,
+            final Weights bestWeights) {
+        this(epoch, updates, epochLossSum, epochExamples, seed, serialize(state), weights, bestWeights);
+    }
+
+    private Checkpoint(
+            final int epoch,
+            final long updates,
+            final double epochLossSum,
+            final long epochExamples,
+            final long seed,
+            final byte[] state,
+            final Weights weights,
+            final Weights bestWeights) {
+        this.epoch = epoch;
+        this.updates = updates;
+        this.epochLossSum = epochLossSum;
+        this.epochExamples = epochExamples;
+        this.seed = seed;
+        this.state = state;
+        this.weights = weights;
+        this.bestWeights = bestWeights;
+    }
+
+    /**
+     * @return the epoch the checkpoint was taken in, starting from 0.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return amount of the weight updates done in the epoch before the checkpoint: batches, or examples if the
+     * Neurons were trained directly.
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    double getEpochLossSum() {
+        return epochLossSum;
+    }
+
+    long getEpochExamples() {
+        return epochExamples;
+    }
+
+    State getState() {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (State) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Checkpoint state can not be read", e);
+        }
+    }
+
+    /**
+     * Writes the weights of the checkpoint to the Neurons and the learning rate, the update rule and the debug mode
+     * to the Context.
+     */
+    void restore(final Context context, final List<Neuron> inputNeurons, final List<Neuron> outputNeurons) {
+        final Context savedContext = getState().context;
+        if (savedContext.getPrecision() != context.getPrecision()) {
+            throw new RuntimeException("Checkpoint precision does not match the Context precision");
+        }
+        context.setLearningRate(savedContext.getLearningRate());
+        context.setUpdateRule(savedContext.getUpdateRule());
+        context.setDebugMode(savedContext.isDebugMode());
+        final CompiledNetwork network = LayerCompiler.compile(inputNeurons, outputNeurons);
+        weights.applyTo(network);
+        network.writeBack();
+    }
+
+    /**
+     * @return the weights of the best loss of the early stopping in the compiled form, null if there are none.
+     */
+    CompiledNetwork restoreBestWeights(final List<Neuron> inputNeurons, final List<Neuron> outputNeurons) {
+        if (bestWeights == null) {
+            return null;
+        }
+        final CompiledNetwork network = LayerCompiler.compile(inputNeurons, outputNeurons);
+        bestWeights.applyTo(network);
+        return network;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file next to the path and moves it to the path, so the path always has
+     * either the previous checkpoint or the new one, never a partially written one.
+     */
+    void write(final String path) {
+        final Path target = Paths.get(path);
+        final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(epoch);
+                out.writeLong(updates);
+                out.writeDouble(epochLossSum);
+                out.writeLong(epochExamples);
+                out.writeLong(seed);
+                out.writeInt(state.length);
+                out.write(state);
+                weights.write(out);
+                out.writeInt(bestWeights != null ? 1 : 0);
+                if (bestWeights != null) {
+                    bestWeights.write(out);
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Checkpoint can not be written to " + path, e);
+        }
+    }
+
+    public static Checkpoint read(final String path) {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(path))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file: " + path);
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint file version: " + version);
+            }
+            final int epoch = in.readInt();
+            final long updates = in.readLong();
+            final double epochLossSum = in.readDouble();
+            final long epochExamples = in.readLong();
+            final long seed = in.readLong();
+            final byte[] state = new byte[in.readInt()];
+            in.readFully(state);
+            final Weights weights = Weights.read(in);
+            final Weights bestWeights = in.readInt() != 0 ? Weights.read(in) : null;
+            return new Checkpoint(epoch, updates, epochLossSum, epochExamples, seed, state, weights, bestWeights);
+        } catch (IOException e) {
+            throw new RuntimeException("Checkpoint can not be read from " + path, e);
+        }
+    }
+
+    private static byte[] serialize(final State state) {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        } catch (IOException e) {
+            throw new RuntimeException("Checkpoint state can not be serialized", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Small state of the optimizer, serialized when the checkpoint is taken, so the later changes of the Context and
+     * of the schedule do not leak into it.
+     */
+    static final class State implements Serializable {
+
+        final Context context;
+
+        final double initialLearningRate;
+
+        final LearningRateSchedule learningRateSchedule;
+
+        final double currentLoss;
+
+        final double bestLoss;
+
+        final int lossesWithoutImprovement;
+
+        State(
+                final Context context,
+                final double initialLearningRate,
+                final LearningRateSchedule learningRateSchedule,
+                final double currentLoss,
+                final double bestLoss,
+                final int lossesWithoutImprovement) {
+            this.context = context;
+            this.initialLearningRate = initialLearningRate;
+            this.learningRateSchedule = learningRateSchedule;
+            this.currentLoss = currentLoss;
+            this.bestLoss = bestLoss;
+            this.lossesWithoutImprovement = lossesWithoutImprovement;
+        }
+    }
+
+    /**
+     * Copy of the weights, biases and moments of every layer of a {@link CompiledNetwork}. The weights of the
+     * {@link Precision#FLOAT} layers are kept as doubles, which is exact.
+     */
+    static final class Weights {
+
+        private final int[] inputSizes;
+
+        private final int[] outputSizes;
+
+        private final double[][] weights;
+
+        private final double[][] biases;
+
+        private final UpdateState[] weightStates;
+
+        private final UpdateState[] biasStates;
+
+        private Weights(final int layerCount) {
+            this.inputSizes = new int[layerCount];
+            this.outputSizes = new int[layerCount];
+            this.weights = new double[layerCount][];
+            this.biases = new double[layerCount][];
+            this.weightStates = new UpdateState[layerCount];
+            this.biasStates = new UpdateState[layerCount];
+        }
+
+        static Weights of(final CompiledNetwork network) {
+            final Weights result = new Weights(network.getLayerCount());
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                final DenseLayer layer = network.getLayer(i);
+                result.inputSizes[i] = layer.getInputSize();
+                result.outputSizes[i] = layer.getOutputSize();
+                if (layer.getPrecision() == Precision.FLOAT) {
+                    result.weights[i] = widen(layer.getFloatWeights());
+                    result.biases[i] = widen(layer.getFloatBiases());
+                } else {
+                    result.weights[i] = layer.getWeights().clone();
+                    result.biases[i] = layer.getBiases().clone();
+                }
+                if (layer.getWeightState() != null) {
+                    result.weightStates[i] = layer.getWeightState().copy();
+                    result.biasStates[i] = layer.getBiasState().copy();
+                }
+            }
+            return result;
+        }
+
+        void applyTo(final CompiledNetwork network) {
+            if (network.getLayerCount() != weights.length) {
+                throw new RuntimeException("Checkpoint does not match the graph: different amount of layers");
+            }
+            for (int i = 0; i < weights.length; i++) {
+                final DenseLayer layer = network.getLayer(i);
+                if (layer.getInputSize() != inputSizes[i] || layer.getOutputSize() != outputSizes[i]) {
+                    throw new RuntimeException("Checkpoint does not match the graph: different shape of layer #" + i);
+                }
+                if (layer.getPrecision() == Precision.FLOAT) {
+                    narrow(weights[i], layer.getFloatWeights());
+                    narrow(biases[i], layer.getFloatBiases());
+                } else {
+                    System.arraycopy(weights[i], 0, layer.getWeights(), 0, weights[i].length);
+                    System.arraycopy(biases[i], 0, layer.getBiases(), 0, biases[i].length);
+                }
+                layer.setUpdateStates(
+                        weightStates[i] != null ? weightStates[i].copy() : null,
+                        biasStates[i] != null ? biasStates[i].copy() : null);
+            }
+        }
+
+        void write(final DataOutputStream out) throws IOException {
+            out.writeInt(weights.length);
+            for (int i = 0; i < weights.length; i++) {
+                out.writeInt(inputSizes[i]);
+                out.writeInt(outputSizes[i]);
+                writeDoubles(out, weights[i]);
+                writeDoubles(out, biases[i]);
+                final int momentCount = weightStates[i] != null ? weightStates[i].getMomentCount() : 0;
+                out.writeInt(momentCount);
+                if (momentCount > 0) {
+                    out.writeLong(weightStates[i].getStep());
+                }
+                for (int moment = 0; moment < momentCount; moment++) {
+                    writeDoubles(out, weightStates[i].getMoment(moment));
+                    writeDoubles(out, biasStates[i].getMoment(moment));
+                }
+            }
+        }
+
+        static Weights read(final DataInputStream in) throws IOException {
+            final Weights result = new Weights(in.readInt());
+            for (int i = 0; i < result.weights.length; i++) {
+                final int inputSize = in.readInt();
+                final int outputSize = in.readInt();
+                result.inputSizes[i] = inputSize;
+                result.outputSizes[i] = outputSize;
+                result.weights[i] = readDoubles(in, inputSize * outputSize);
+                result.biases[i] = readDoubles(in, outputSize);
+                final int momentCount = in.readInt();
+                if (momentCount == 0) {
+                    continue;
+                }
+                final UpdateState weightState = new UpdateState(momentCount, inputSize * outputSize);
+                final UpdateState biasState = new UpdateState(momentCount, outputSize);
+                final long step = in.readLong();
+                weightState.setStep(step);
+                biasState.setStep(step);
+                for (int moment = 0; moment < momentCount; moment++) {
+                    readDoubles(in, weightState.getMoment(moment));
+                    readDoubles(in, biasState.getMoment(moment));
+                }
+                result.weightStates[i] = weightState;
+                result.biasStates[i] = biasState;
+            }
+            return result;
+        }
+
+        private static double[] widen(final float[] values) {
+            final double[] result = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[i];
+            }
+            return result;
+        }
+
+        private static void narrow(final double[] values, final float[] target) {
+            for (int i = 0; i < values.length; i++) {
+                target[i] = (float) values[i];
+            }
+        }
+
+        private static void writeDoubles(final DataOutputStream out, final double[] values) throws IOException {
+            for (final double value : values) {
+                out.writeDouble(value);
+            }
+        }
+
+        private static double[] readDoubles(final DataInputStream in, final int size) throws IOException {
+            final double[] result = new double[size];
+            readDoubles(in, result);
+            return result;
+        }
+
+        private static void readDoubles(final DataInputStream in, final double[] target) throws IOException {
+            for (int i = 0; i < target.length; i++) {
+                target[i] = in.readDouble();
+            }
+        }
+    }
+}
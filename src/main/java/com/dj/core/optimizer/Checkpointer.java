@@ -0,0 +1,96 @@
+package com.dj.core.optimizer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Writes the {@link Checkpoint}s of the {@link SGDOptimizer} every given amount of weight updates or every given
+ * amount of time, whichever comes first.
+ *
+ * The checkpoint is taken on the training thread, which only copies the weights, and is written to the file on a
+ * background thread while the training goes on. If the previous checkpoint is still being written when the next one
+ * is due, the next one is postponed to the following update instead of waiting for the write.
+ */
+final class Checkpointer implements AutoCloseable {
+
+    private final String path;
+
+    private final int interval;
+
+    private final long intervalNanos;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "dj-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> pending;
+
+    private long updatesSinceCheckpoint;
+
+    private long lastCheckpointNanos = System.nanoTime();
+
+    /**
+     * @param interval amount of weight updates between the checkpoints, 0 to only use the time.
+     * @param intervalMillis time between the checkpoints, 0 to only count the updates.
+     */
+    Checkpointer(final String path, final int interval, final long intervalMillis) {
+        this.path = path;
+        this.interval = interval;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Called after every weight update, writes the checkpoint if it's time to.
+     *
+     * @param checkpoint takes the checkpoint, only called if it's going to be written.
+     */
+    void onUpdate(final Supplier<Checkpoint> checkpoint) {
+        updatesSinceCheckpoint++;
+        final boolean due = interval > 0 && updatesSinceCheckpoint >= interval
+                || intervalNanos > 0 && System.nanoTime() - lastCheckpointNanos >= intervalNanos;
+        if (!due || pending != null && !pending.isDone()) {
+            return;
+        }
+        await();
+        final Checkpoint taken = checkpoint.get();
+        pending = executor.submit(() -> taken.write(path));
+        updatesSinceCheckpoint = 0;
+        lastCheckpointNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any.
+     */
+    private void await() {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Checkpoint writing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Checkpoint writing failed", e.getCause());
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Waits for the last checkpoint to be written.
+     */
+    @Override
+    public void close() {
+        try {
+            await();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.BatchSource;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.loss.Loss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Trains a {@link CompiledNetwork} on several threads. Every thread gets its own
+ * {@link CompiledNetwork#replica()} and processes its own shard of the data.
+ *
+ * There are two modes:
+ * - synchronous (default): every batch is split between the threads, each thread calculates the gradients of its
+ *   part, gradients are summed up (all-reduce) and weights are updated once per batch. Result is the same as the
+ *   single thread training with the same batch size, up to the order the gradients are summed in;
+ * - Hogwild: every thread takes the next batch of the epoch as soon as it's done with the previous one and updates
+ *   the shared weights right away, without any locking. Updates from different threads may overwrite each other,
+ *   which is fine for the sparse gradients, and in exchange there is no waiting between the threads. The moments of
+ *   the {@link com.dj.core.model.update.UpdateRule} are shared the same way. Results are not reproducible.
+ */
+final class DataParallelTrainer implements AutoCloseable {
+
+    private final CompiledNetwork[] replicas;
+
+    private final double[][] errors;
+
+    /**
+     * Batch every thread reads into in the Hogwild mode, empty in the synchronous mode.
+     */
+    private final Batch[] batches;
+
+    private final Loss loss;
+
+    private final int batchSize;
+
+    private final boolean hogwild;
+
+    private final ExecutorService executor;
+
+    private long epochExamples;
+
+    DataParallelTrainer(
+            final CompiledNetwork network,
+            final Loss loss,
+            final int threads,
+            final int batchSize,
+            final boolean hogwild) {
+        this.loss = loss;
+        this.batchSize = batchSize;
+        this.hogwild = hogwild;
+        this.replicas = new CompiledNetwork[threads];
+        this.errors = new double[threads][];
+        this.batches = new Batch[hogwild ? threads : 0];
+        // In the synchronous mode a thread gets only a part of each batch.
+        final int shardBatchSize = hogwild ? batchSize : (batchSize + threads - 1) / threads;
+        if (hogwild) {
+            // Replicas share the layers, the threads should update the same moments.
+            network.ensureUpdateStates();
+        }
+        for (int i = 0; i < threads; i++) {
+            replicas[i] = i == 0 ? network : network.replica();
+            errors[i] = new double[shardBatchSize * network.getOutputSize()];
+        }
+        for (int i = 0; i < batches.length; i++) {
+            batches[i] = new Batch(batchSize, network.getInputSize(), network.getOutputSize());
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "dj-trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Trains the batch in the synchronous mode: every thread calculates the gradients of its part of the batch and
+     * weights are updated once.
+     *
+     * @return sum of the errors of all the outputs of all the examples of the batch.
+     */
+    double trainBatch(final Batch batch) {
+        if (hogwild) {
+            throw new RuntimeException("Batches are trained one by one only in the synchronous mode");
+        }
+        final double[][] inputData = batch.getInputs();
+        final double[][] expectedResult = batch.getExpectedResults();
+        final int size = batch.getSize();
+        final int shardSize = (size + replicas.length - 1) / replicas.length;
+        final List<Callable<Double>> tasks = new ArrayList<>();
+        for (int i = 0; i < replicas.length && i * shardSize < size; i++) {
+            final int worker = i;
+            final int shardFrom = i * shardSize;
+            final int shardLength = Math.min(shardSize, size - shardFrom);
+            tasks.add(() -> computeGradients(worker, inputData, expectedResult, shardFrom, shardLength));
+        }
+        final double lossSum = runAll(tasks);
+        // All-reduce: the first replica shares weights with all the others, so applying the sum of the gradients to
+        // it updates the weights of every replica.
+        for (int i = 1; i < tasks.size(); i++) {
+            replicas[0].addGradients(replicas[i]);
+        }
+        replicas[0].applyGradients(size);
+        return lossSum;
+    }
+
+    /**
+     * Trains the whole epoch in the Hogwild mode.
+     *
+     * @return average loss of the examples of the epoch, calculated during the training forward passes.
+     */
+    double trainEpoch(final BatchSource source) {
+        if (!hogwild) {
+            throw new RuntimeException("Whole epochs are trained at once only in the Hogwild mode");
+        }
+        final List<Callable<Double>> tasks = new ArrayList<>();
+        final long[] counts = new long[replicas.length];
+        for (int i = 0; i < replicas.length; i++) {
+            final int worker = i;
+            tasks.add(() -> {
+                final CompiledNetwork replica = replicas[worker];
+                final Batch batch = batches[worker];
+                double lossSum = 0.;
+                while (true) {
+                    // The source is the only thing the threads share besides the weights.
+                    final int size;
+                    synchronized (source) {
+                        size = source.next(batch);
+                    }
+                    if (size == 0) {
+                        return lossSum;
+                    }
+                    lossSum += computeGradients(worker, batch.getInputs(), batch.getExpectedResults(), 0, size);
+                    counts[worker] += size;
+                    replica.applyGradients(size);
+                }
+            });
+        }
+        final double lossSum = runAll(tasks);
+        long count = 0;
+        for (final long workerCount : counts) {
+            count += workerCount;
+        }
+        epochExamples = count;
+        return count > 0 ? lossSum / count : 0.;
+    }
+
+    /**
+     * @return amount of examples of the latest {@link #trainEpoch(BatchSource)}.
+     */
+    long getEpochExamples() {
+        return epochExamples;
+    }
+
+    /**
+     * @return sum of the errors of all the outputs of all the examples of the shard.
+     */
+    private double computeGradients(
+            final int worker,
+            final double[][] inputData,
+            final double[][] expectedResult,
+            final int from,
+            final int size) {
+        final CompiledNetwork replica = replicas[worker];
+        final double[] actualValues = replica.forwardBatch(inputData, from, size);
+        final double lossSum = SGDOptimizer.calculateErrors(
+                loss,
+                actualValues,
+                expectedResult,
+                from,
+                size,
+                replica.getOutputSize(),
+                errors[worker]);
+        replica.computeGradients(errors[worker], size);
+        return lossSum;
+    }
+
+    /**
+     * @return sum of the results of the tasks.
+     */
+    private double runAll(final List<Callable<Double>> tasks) {
+        try {
+            double sum = 0.;
+            for (final Future<Double> future : executor.invokeAll(tasks)) {
+                sum += future.get();
+            }
+            return sum;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Training was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Training failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
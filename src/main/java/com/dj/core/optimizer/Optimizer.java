@@ -1,5 +1,7 @@
 package com.dj.core.optimizer;
 
+import com.dj.core.dataset.Dataset;
+import com.dj.core.dataset.InMemoryDataset;
 import com.dj.core.model.graph.Context;
 import com.dj.core.model.graph.Neuron;
 
@@ -23,12 +25,37 @@ public interface Optimizer {
                 expectedResult);
     }
 
+    default void train(
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons,
+            final double[][] inputData,
+            final double[][] expectedResult,
+            final double[][] inputTestData,
+            final double[][] expectedTestResult) {
+        train(context,
+                inputNeurons,
+                outputNeurons,
+                new InMemoryDataset(inputData, expectedResult),
+                new InMemoryDataset(inputTestData, expectedTestResult));
+    }
+
+    default void train(
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons,
+            final Dataset trainingData) {
+        train(context, inputNeurons, outputNeurons, trainingData, trainingData);
+    }
+
+    /**
+     * @param trainingData read once per epoch, see {@link Dataset#open()}.
+     * @param testData data the loss is calculated on.
+     */
     void train(
             final Context context,
             final List<Neuron> inputNeurons,
             final List<Neuron> outputNeurons,
-            double[][] inputData,
-            double[][] expectedResult,
-            double[][] inputTestData,
-            double[][] expectedTestResult);
+            Dataset trainingData,
+            Dataset testData);
 }
@@ -3,8 +3,33 @@ package com.dj.core.optimizer;
 
 public interface OptimizerProgressListener {
 
+    /**
+     * Called with the loss on the test data.
+     */
     void onProgress(
             final double loss,
             final int currentEpoch,
             final int targetEpoch);
+
+    /**
+     * Called after every epoch with the average loss of its training examples, accumulated during the training
+     * forward passes, so it costs nothing to calculate.
+     */
+    default void onTrainingLoss(
+            final double loss,
+            final int currentEpoch,
+            final int targetEpoch) {
+        // no-op
+    }
+
+    /**
+     * Called when the optimizer changes the learning rate of the Context: by the schedule or because the loss has
+     * increased.
+     */
+    default void onLearningRateChanged(
+            final double previousLearningRate,
+            final double learningRate,
+            final int currentEpoch) {
+        // no-op
+    }
 }
@@ -1,29 +1,74 @@
 package com.dj.core.optimizer;
 
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.Dataset;
+import com.dj.core.dataset.PrefetchingDataset;
+import com.dj.core.dataset.ShuffledDataset;
+import com.dj.core.metrics.MetricsRegistry;
+import com.dj.core.metrics.TrainingMetrics;
+import com.dj.core.model.graph.CompiledNetwork;
 import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.LayerCompiler;
 import com.dj.core.model.graph.Neuron;
 import com.dj.core.model.loss.Loss;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.optimizer.schedule.LearningRateSchedule;
 
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 
 
 public class SGDOptimizer implements Optimizer {
 
+    /**
+     * Amount of examples read from the Dataset at once when the Neurons are trained one example at a time and when
+     * the loss is calculated.
+     */
+    private static final int READ_BATCH_SIZE = 256;
+
     private final Loss loss;
     private final int numberOfEpochsToTrain;
     private final OptimizerProgressListener lossCalculatedListener;
     private final double adjustLearningRateBy;
+    private final int batchSize;
+    private final int threads;
+    private final boolean hogwild;
+    private final int shuffleBufferSize;
+    private final long seed;
+    private final int prefetchBatches;
+    private final int validationInterval;
+    private final double validationSampleRate;
+    private final boolean asyncValidation;
+    private final UpdateRule updateRule;
+    private final LearningRateSchedule learningRateSchedule;
+    private final int earlyStoppingPatience;
+    private final String checkpointPath;
+    private final int checkpointInterval;
+    private final long checkpointIntervalMillis;
+    private final MetricsRegistry metricsRegistry;
     private double currentLoss = Double.MAX_VALUE;
+    private double trainingLoss = Double.NaN;
+    private double bestLoss;
+    private CompiledNetwork bestWeights;
+    private int lossesWithoutImprovement;
+    private boolean stopped;
+    private int epochsTrained;
+    private LearningRateSchedule schedule;
+    private double initialLearningRate;
+    private int currentEpoch;
+    private long updatesInEpoch;
+    private double epochLossSum;
+    private long epochExamples;
+    private long updatesToSkip;
+    private TrainingMetrics metrics;
 
     public SGDOptimizer(final Loss loss,
                         final int numberOfEpochsToTrain,
                         final OptimizerProgressListener lossCalculatedListener,
                         final double adjustLearningRateBy) {
-        this.loss = loss;
-        this.numberOfEpochsToTrain = numberOfEpochsToTrain;
-        this.lossCalculatedListener = lossCalculatedListener;
-        this.adjustLearningRateBy = adjustLearningRateBy;
+        this(loss, numberOfEpochsToTrain, lossCalculatedListener, adjustLearningRateBy, 1, 1, false, 0, 0L, 0, 1, 1.,
+                false, null, null, 0, null, 0, 0L, null);
     }
 
     public SGDOptimizer(final Loss loss,
@@ -31,95 +76,825 @@ public class SGDOptimizer implements Optimizer {
         this(loss, numberOfEpochsToTrain, null, 1.0);
     }
 
+    private SGDOptimizer(final Loss loss,
+                         final int numberOfEpochsToTrain,
+                         final OptimizerProgressListener lossCalculatedListener,
+                         final double adjustLearningRateBy,
+                         final int batchSize,
+                         final int threads,
+                         final boolean hogwild,
+                         final int shuffleBufferSize,
+                         final long seed,
+                         final int prefetchBatches,
+                         final int validationInterval,
+                         final double validationSampleRate,
+                         final boolean asyncValidation,
+                         final UpdateRule updateRule,
+                         final LearningRateSchedule learningRateSchedule,
+                         final int earlyStoppingPatience,
+                         final String checkpointPath,
+                         final int checkpointInterval,
+                         final long checkpointIntervalMillis,
+                         final MetricsRegistry metricsRegistry) {
+        this.loss = loss;
+        this.numberOfEpochsToTrain = numberOfEpochsToTrain;
+        this.lossCalculatedListener = lossCalculatedListener;
+        this.adjustLearningRateBy = adjustLearningRateBy;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.hogwild = hogwild;
+        this.shuffleBufferSize = shuffleBufferSize;
+        this.seed = seed;
+        this.prefetchBatches = prefetchBatches;
+        this.validationInterval = validationInterval;
+        this.validationSampleRate = validationSampleRate;
+        this.asyncValidation = asyncValidation;
+        this.updateRule = updateRule;
+        this.learningRateSchedule = learningRateSchedule;
+        this.earlyStoppingPatience = earlyStoppingPatience;
+        this.checkpointPath = checkpointPath;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.metricsRegistry = metricsRegistry;
+    }
+
     @Override
     public void train(
             final Context context,
             final List<Neuron> inputNeurons,
             final List<Neuron> outputNeurons,
-            final double[][] inputData,
-            final double[][] expectedResult,
-            final double[][] inputTestData,
-            final double[][] expectedTestResult) {
-         IntStream.range(0, numberOfEpochsToTrain).forEach(epoch -> {
-             if (lossCalculatedListener != null || adjustLearningRateBy != 1.) {
-                 final double loss = calculateLoss(
-                         inputNeurons,
-                         outputNeurons,
-                         inputTestData,
-                         expectedTestResult);
-                 if (lossCalculatedListener != null) {
-                     lossCalculatedListener.onProgress(
-                             loss,
-                             epoch,
-                             numberOfEpochsToTrain);
-                 }
-                 if (adjustLearningRateBy != 1. && currentLoss < loss) {
-                     System.out.printf("Loss have increased from: %f to %f\n", currentLoss, loss);
-                     System.out.printf("Changing learning rate from: %f to %f\n",
-                             context.getLearningRate(),
-                             context.getLearningRate() * adjustLearningRateBy);
-                     context.setLearningRate(context.getLearningRate() * adjustLearningRateBy);
-                 }
-                 currentLoss = loss;
-             }
-             IntStream.range(0, inputData.length).forEach(index -> {
-                 trainIteration(
-                         inputNeurons,
-                         outputNeurons,
-                         inputData[index],
-                         expectedResult[index]);
-             });
-            }
-         );
-    }
-
-    private void trainIteration(
+            final Dataset data,
+            final Dataset testData) {
+        train(context, inputNeurons, outputNeurons, data, testData, null);
+    }
+
+    /**
+     * Continues the training from the checkpoint written by the training with the same graph, the same data and an
+     * optimizer built the same way: the weights, the Context and the state of the optimizer are restored, the
+     * examples already trained in the epoch of the checkpoint are skipped and the training goes on up to the
+     * numberOfEpochsToTrain, as if it has never stopped. Loss of the test data being calculated in the background
+     * when the checkpoint was taken is lost, see {@link Builder#asyncValidation(boolean)}.
+     */
+    public void resume(
+            final Checkpoint checkpoint,
+            final Context context,
             final List<Neuron> inputNeurons,
             final List<Neuron> outputNeurons,
-            final double[] inputData,
-            final double[] expectedResults) {
-        IntStream.range(0, inputData.length).forEach(example ->
-            inputNeurons
-                    .get(example)
-                    .forwardSignalReceived(null, inputData[example])
-        );
-        IntStream.range(0, outputNeurons.size()).forEach(
-                i -> {
-                    final double actualValue = outputNeurons.get(i).getForwardResult();
-                    final double expectedResult = expectedResults[i];
-                    outputNeurons
-                            .get(i)
-                            .backwardSignalReceived(
-                                    loss
-                                            .derivative(actualValue, expectedResult));
+            final Dataset data,
+            final Dataset testData) {
+        train(context, inputNeurons, outputNeurons, data, testData, checkpoint);
+    }
+
+    public void resume(
+            final Checkpoint checkpoint,
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons,
+            final Dataset data) {
+        resume(checkpoint, context, inputNeurons, outputNeurons, data, data);
+    }
+
+    private void train(
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons,
+            final Dataset data,
+            final Dataset testData,
+            final Checkpoint checkpoint) {
+        if (data.getInputSize() != inputNeurons.size() || data.getOutputSize() != outputNeurons.size()) {
+            throw new RuntimeException("Training data row sizes do not match the input and output layer sizes");
+        }
+        if (updateRule != null) {
+            context.setUpdateRule(updateRule);
+        }
+        initialLearningRate = context.getLearningRate();
+        schedule = learningRateSchedule;
+        bestLoss = Double.MAX_VALUE;
+        bestWeights = null;
+        lossesWithoutImprovement = 0;
+        stopped = false;
+        epochsTrained = 0;
+        updatesToSkip = 0;
+        if (checkpoint != null) {
+            restore(checkpoint, context, inputNeurons, outputNeurons);
+        }
+        final Dataset trainingData = pipeline(data, epochsTrained);
+        // With batches the graph is trained in the compiled form, weights are written back to the Neurons after
+        // every epoch, so the loss is always calculated with the latest weights.
+        final CompiledNetwork compiledNetwork
+                = batchSize > 1 || threads > 1 ? LayerCompiler.compile(inputNeurons, outputNeurons) : null;
+        metrics = metricsRegistry != null ? new TrainingMetrics(metricsRegistry, !hogwild || threads == 1) : null;
+        if (metrics != null && compiledNetwork != null) {
+            compiledNetwork.setMetrics(metrics.layerMetrics(compiledNetwork.getLayerCount()));
+        }
+        final Supplier<Checkpoint> checkpoints
+                = () -> checkpoint(context, compiledNetwork, inputNeurons, outputNeurons);
+        try (var validation = new Validation(loss, testData, validationSampleRate, seed, asyncValidation);
+             var trainer = threads > 1
+                     ? new DataParallelTrainer(compiledNetwork, loss, threads, batchSize, hogwild)
+                     : null;
+             var checkpointer = checkpointPath != null
+                     ? new Checkpointer(checkpointPath, checkpointInterval, checkpointIntervalMillis)
+                     : null) {
+            if (trainer != null && hogwild) {
+                runEpochs(context, inputNeurons, outputNeurons, compiledNetwork, validation, epoch -> {
+                    final double trainingLoss;
+                    try (var source = trainingData.open()) {
+                        trainingLoss = trainer.trainEpoch(source);
+                    }
+                    epochExamples = trainer.getEpochExamples();
+                    compiledNetwork.writeBack();
+                    return trainingLoss;
+                });
+                return;
+            }
+            final Batch batch = new Batch(
+                    compiledNetwork != null ? batchSize : READ_BATCH_SIZE,
+                    trainingData.getInputSize(),
+                    trainingData.getOutputSize());
+            final double[] batchErrors
+                    = compiledNetwork != null ? new double[batchSize * compiledNetwork.getOutputSize()] : null;
+            runEpochs(context, inputNeurons, outputNeurons, compiledNetwork, validation, epoch -> {
+                try (var source = trainingData.open()) {
+                    while (source.next(batch) > 0) {
+                        if (compiledNetwork == null) {
+                            for (int example = 0; example < batch.getSize(); example++) {
+                                if (skipUpdate()) {
+                                    continue;
+                                }
+                                final long start = metrics != null ? System.nanoTime() : 0L;
+                                onUpdate(
+                                        trainIteration(
+                                                inputNeurons,
+                                                outputNeurons,
+                                                batch.getInputs()[example],
+                                                batch.getExpectedResults()[example]),
+                                        1,
+                                        start,
+                                        checkpointer,
+                                        checkpoints);
+                            }
+                        } else if (!skipUpdate()) {
+                            final long start = metrics != null ? System.nanoTime() : 0L;
+                            final double lossSum = trainer != null
+                                    ? trainer.trainBatch(batch)
+                                    : trainBatch(
+                                            compiledNetwork,
+                                            batch.getInputs(),
+                                            batch.getExpectedResults(),
+                                            batchErrors,
+                                            0,
+                                            batch.getSize());
+                            onUpdate(lossSum, batch.getSize(), start, checkpointer, checkpoints);
+                        }
+                    }
+                }
+                if (compiledNetwork != null) {
+                    compiledNetwork.writeBack();
+                }
+                return epochExamples > 0 ? epochLossSum / epochExamples : 0.;
+            });
+        }
+    }
+
+    private void restore(
+            final Checkpoint checkpoint,
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons) {
+        if (checkpoint.getSeed() != seed) {
+            throw new RuntimeException("Checkpoint was taken by the training with another seed");
+        }
+        if (hogwild && threads > 1) {
+            throw new RuntimeException("Hogwild training can not be resumed in the middle of an epoch");
+        }
+        checkpoint.restore(context, inputNeurons, outputNeurons);
+        final Checkpoint.State state = checkpoint.getState();
+        initialLearningRate = state.initialLearningRate;
+        schedule = state.learningRateSchedule;
+        currentLoss = state.currentLoss;
+        bestLoss = state.bestLoss;
+        lossesWithoutImprovement = state.lossesWithoutImprovement;
+        bestWeights = checkpoint.restoreBestWeights(inputNeurons, outputNeurons);
+        epochsTrained = checkpoint.getEpoch();
+        updatesToSkip = checkpoint.getUpdates();
+        updatesInEpoch = checkpoint.getUpdates();
+        epochLossSum = checkpoint.getEpochLossSum();
+        epochExamples = checkpoint.getEpochExamples();
+    }
+
+    /**
+     * @return whether the next weight update was done before the checkpoint the training is resumed from.
+     */
+    private boolean skipUpdate() {
+        if (updatesToSkip == 0) {
+            return false;
+        }
+        updatesToSkip--;
+        return true;
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} before the update, only taken with the metrics.
+     */
+    private void onUpdate(
+            final double lossSum,
+            final int examples,
+            final long startNanos,
+            final Checkpointer checkpointer,
+            final Supplier<Checkpoint> checkpoints) {
+        epochLossSum += lossSum;
+        epochExamples += examples;
+        if (metrics != null) {
+            metrics.onBatch(currentEpoch, updatesInEpoch, examples, startNanos, lossSum);
+        }
+        updatesInEpoch++;
+        if (checkpointer != null) {
+            checkpointer.onUpdate(checkpoints);
+        }
+    }
+
+    /**
+     * Takes the checkpoint of the training: copies the latest weights, from the compiled network if the graph is
+     * trained in the compiled form.
+     */
+    private Checkpoint checkpoint(
+            final Context context,
+            final CompiledNetwork compiledNetwork,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons) {
+        final CompiledNetwork network
+                = compiledNetwork != null ? compiledNetwork : LayerCompiler.compile(inputNeurons, outputNeurons);
+        return new Checkpoint(
+                currentEpoch,
+                updatesInEpoch,
+                epochLossSum,
+                epochExamples,
+                seed,
+                new Checkpoint.State(
+                        context,
+                        initialLearningRate,
+                        schedule,
+                        currentLoss,
+                        bestLoss,
+                        lossesWithoutImprovement),
+                Checkpoint.Weights.of(network),
+                bestWeights != null ? Checkpoint.Weights.of(bestWeights) : null);
+    }
+
+    /**
+     * @return average loss of the training examples of the latest epoch, accumulated during the training forward
+     * passes: every example contributes the loss it had right before the weights were updated with it.
+     */
+    public double getTrainingLoss() {
+        return trainingLoss;
+    }
+
+    /**
+     * @return amount of epochs the latest training has run, less than the numberOfEpochsToTrain if it was stopped
+     * early.
+     */
+    public int getEpochsTrained() {
+        return epochsTrained;
+    }
+
+    /**
+     * @return the lowest loss of the latest training with the early stopping, the graph has the weights of this loss
+     * after the training.
+     */
+    public double getBestLoss() {
+        return bestLoss;
+    }
+
+    /**
+     * Wraps the training data into the shuffling and prefetching stages the optimizer was built with.
+     *
+     * @param firstEpoch epoch the training starts from.
+     */
+    private Dataset pipeline(final Dataset data, final int firstEpoch) {
+        Dataset result = data;
+        if (shuffleBufferSize > 0) {
+            // Every epoch gets the order of its number, also when the training is resumed.
+            result = new ShuffledDataset(result, shuffleBufferSize, seed + firstEpoch);
+        }
+        if (prefetchBatches > 0) {
+            result = new PrefetchingDataset(
+                    result,
+                    batchSize > 1 || threads > 1 ? batchSize : READ_BATCH_SIZE,
+                    prefetchBatches);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the epochs: calls the epochTrainer to train the graph on the whole training data once, calculates the
+     * loss on the test data when it's time to and adjusts the learning rate if needed. With the early stopping the
+     * epochs stop once the loss has not improved for the patience losses in a row, and the best weights are written
+     * back to the Neurons at the end. The weights after the last epoch are validated then too, so they can be the best.
+     *
+     * @param compiledNetwork network the graph is trained in, null if the Neurons are trained directly.
+     */
+    private void runEpochs(
+            final Context context,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons,
+            final CompiledNetwork compiledNetwork,
+            final Validation validation,
+            final IntToDoubleFunction epochTrainer) {
+        final boolean validate = validationInterval > 0
+                && (lossCalculatedListener != null
+                        || adjustLearningRateBy != 1.
+                        || learningRateSchedule != null
+                        || earlyStoppingPatience > 0);
+        final Supplier<CompiledNetwork> currentWeights = () -> snapshot(compiledNetwork, inputNeurons, outputNeurons);
+        final int firstEpoch = epochsTrained;
+        for (int epoch = firstEpoch; epoch < numberOfEpochsToTrain && !stopped; epoch++) {
+            currentEpoch = epoch;
+            // The epoch the training is resumed in was validated before the checkpoint.
+            final boolean resumed = updatesToSkip > 0;
+            if (!resumed) {
+                updatesInEpoch = 0;
+                epochLossSum = 0.;
+                epochExamples = 0;
+            }
+            if (validate && !resumed && epoch % validationInterval == 0) {
+                if (validation.isAsync()) {
+                    // The snapshot is taken before the epoch, same as the weights the synchronous loss is calculated
+                    // with.
+                    onValidationLoss(context, validation.submit(currentWeights.get(), epoch));
+                } else {
+                    onValidationLoss(
+                            context, validation.evaluate(inputNeurons, outputNeurons), epoch, currentWeights);
                 }
-        );
+            }
+            onValidationLoss(context, validation.poll());
+            if (stopped) {
+                break;
+            }
+            if (schedule != null) {
+                setLearningRate(context, schedule.learningRate(epoch, initialLearningRate), epoch);
+            }
+            final long examplesBefore = epochExamples;
+            if (metrics != null) {
+                metrics.onEpochStart();
+            }
+            trainingLoss = epochTrainer.applyAsDouble(epoch);
+            epochsTrained = epoch + 1;
+            if (metrics != null) {
+                metrics.onEpochEnd(epoch, epochExamples - examplesBefore, trainingLoss);
+            }
+            if (lossCalculatedListener != null) {
+                lossCalculatedListener.onTrainingLoss(trainingLoss, epoch, numberOfEpochsToTrain);
+            }
+            if (validationInterval == 0) {
+                onLoss(context, trainingLoss, epoch, currentWeights);
+            }
+        }
+        onValidationLoss(context, validation.await());
+        // Losses are calculated before the epochs, so the weights of the last epoch have not been validated yet. With
+        // the early stopping they should compete with the best weights, otherwise the last epoch is lost. The training
+        // is over, so the loss does not change the learning rate.
+        if (earlyStoppingPatience > 0 && validationInterval > 0 && !stopped && epochsTrained > firstEpoch) {
+            if (validation.isAsync()) {
+                validation.submit(currentWeights.get(), epochsTrained);
+                final Validation.Result result = validation.await();
+                onFinalLoss(result.loss, () -> result.snapshot);
+            } else {
+                onFinalLoss(validation.evaluate(inputNeurons, outputNeurons), currentWeights);
+            }
+        }
+        if (bestWeights != null) {
+            bestWeights.writeBack();
+            bestWeights = null;
+        }
+    }
+
+    /**
+     * @return copy of the current weights, which is not changed by the training.
+     */
+    private static CompiledNetwork snapshot(
+            final CompiledNetwork compiledNetwork,
+            final List<Neuron> inputNeurons,
+            final List<Neuron> outputNeurons) {
+        return compiledNetwork != null
+                ? compiledNetwork.copy()
+                : LayerCompiler.compile(inputNeurons, outputNeurons);
+    }
+
+    private void onValidationLoss(final Context context, final Validation.Result result) {
+        if (result != null) {
+            onValidationLoss(context, result.loss, result.epoch, () -> result.snapshot);
+        }
+    }
+
+    private void onValidationLoss(
+            final Context context,
+            final double loss,
+            final int epoch,
+            final Supplier<CompiledNetwork> weights) {
+        if (lossCalculatedListener != null) {
+            lossCalculatedListener.onProgress(
+                    loss,
+                    epoch,
+                    numberOfEpochsToTrain);
+        }
+        onLoss(context, loss, epoch, weights);
     }
 
-    private double calculateLoss(
+    /**
+     * @param weights weights the loss was calculated with, only taken if the loss is the best one so far.
+     */
+    private void onLoss(
+            final Context context,
+            final double loss,
+            final int epoch,
+            final Supplier<CompiledNetwork> weights) {
+        adjustLearningRate(context, loss, epoch);
+        if (schedule != null) {
+            schedule.onLoss(loss);
+        }
+        if (earlyStoppingPatience > 0) {
+            keepIfBest(loss, weights);
+        }
+    }
+
+    /**
+     * Loss of the weights after the last epoch, calculated with the early stopping only. It's reported to the
+     * listener and compared with the best loss, but does not change the learning rate.
+     */
+    private void onFinalLoss(final double loss, final Supplier<CompiledNetwork> weights) {
+        if (lossCalculatedListener != null) {
+            lossCalculatedListener.onProgress(loss, epochsTrained, numberOfEpochsToTrain);
+        }
+        keepIfBest(loss, weights);
+    }
+
+    private void keepIfBest(final double loss, final Supplier<CompiledNetwork> weights) {
+        if (loss < bestLoss) {
+            bestLoss = loss;
+            bestWeights = weights.get();
+            lossesWithoutImprovement = 0;
+        } else if (++lossesWithoutImprovement >= earlyStoppingPatience) {
+            stopped = true;
+        }
+    }
+
+    private void adjustLearningRate(final Context context, final double loss, final int epoch) {
+        if (adjustLearningRateBy != 1. && currentLoss < loss) {
+            setLearningRate(context, context.getLearningRate() * adjustLearningRateBy, epoch);
+        }
+        currentLoss = loss;
+    }
+
+    private void setLearningRate(final Context context, final double learningRate, final int epoch) {
+        final double previousLearningRate = context.getLearningRate();
+        if (previousLearningRate == learningRate) {
+            return;
+        }
+        context.setLearningRate(learningRate);
+        if (lossCalculatedListener != null) {
+            lossCalculatedListener.onLearningRateChanged(previousLearningRate, learningRate, epoch);
+        }
+    }
+
+    /**
+     * @return sum of the errors of all the outputs before the training.
+     */
+    private double trainIteration(
             final List<Neuron> inputNeurons,
             final List<Neuron> outputNeurons,
+            final double[] inputData,
+            final double[] expectedResults) {
+        for (int i = 0; i < inputData.length; i++) {
+            inputNeurons.get(i).forwardSignalReceived(null, inputData[i]);
+        }
+        final double[] actualValues = new double[outputNeurons.size()];
+        for (int i = 0; i < actualValues.length; i++) {
+            actualValues[i] = outputNeurons.get(i).getForwardResult();
+        }
+        final double[] errors = new double[actualValues.length];
+        final double lossSum = loss.errorAndDerivatives(actualValues, 0, expectedResults, errors, errors.length);
+        for (int i = 0; i < errors.length; i++) {
+            outputNeurons.get(i).backwardSignalReceived(errors[i]);
+        }
+        return lossSum;
+    }
+
+    /**
+     * @return sum of the errors of all the outputs of all the examples before the training.
+     */
+    private double trainBatch(
+            final CompiledNetwork compiledNetwork,
             final double[][] inputData,
-            final double[][] expectedResults) {
-        return IntStream
-                .range(0, inputData.length)
-                .mapToDouble(exampleIndex -> {
-                    IntStream.range(0, inputData[exampleIndex].length).forEach(i ->
-                            inputNeurons
-                                    .get(i)
-                                    .forwardSignalReceived(
-                                            null,
-                                            inputData[exampleIndex][i])
-                    );
-                    return IntStream
-                            .range(0, expectedResults[exampleIndex].length)
-                            .mapToDouble(i ->
-                                loss.error(
-                                        outputNeurons
-                                                .get(i)
-                                                .getForwardResult(),
-                                        expectedResults[exampleIndex][i])
-                    ).sum();
-        }).average().getAsDouble();
+            final double[][] expectedResults,
+            final double[] errors,
+            final int from,
+            final int size) {
+        final double[] actualValues = compiledNetwork.forwardBatch(inputData, from, size);
+        final double lossSum = calculateErrors(
+                loss, actualValues, expectedResults, from, size, compiledNetwork.getOutputSize(), errors);
+        compiledNetwork.backwardBatch(errors, size);
+        return lossSum;
+    }
+
+    /**
+     * Calculates the errors of the batch for the {@link CompiledNetwork#backwardBatch(double[], int)}.
+     *
+     * @param actualValues result of the {@link CompiledNetwork#forwardBatch(double[][], int, int)}.
+     * @param errors receives the loss derivative for every output of every example of the batch.
+     * @return sum of the errors of all the outputs of all the examples, the running training loss is accumulated
+     * from it for free.
+     */
+    static double calculateErrors(
+            final Loss loss,
+            final double[] actualValues,
+            final double[][] expectedResults,
+            final int from,
+            final int size,
+            final int outputSize,
+            final double[] errors) {
+        return loss.errorAndDerivatives(actualValues, expectedResults, from, size, outputSize, errors);
+    }
+
+    public static class Builder {
+
+        private Loss loss;
+
+        private int numberOfEpochsToTrain;
+
+        private OptimizerProgressListener lossCalculatedListener;
+
+        private double adjustLearningRateBy = 1.;
+
+        private int batchSize = 1;
+
+        private int threads = 1;
+
+        private boolean hogwild;
+
+        private int shuffleBufferSize;
+
+        private long seed;
+
+        private int prefetchBatches;
+
+        private int validationInterval = 1;
+
+        private double validationSampleRate = 1.;
+
+        private boolean asyncValidation;
+
+        private UpdateRule updateRule;
+
+        private LearningRateSchedule learningRateSchedule;
+
+        private int earlyStoppingPatience;
+
+        private String checkpointPath;
+
+        private int checkpointInterval;
+
+        private long checkpointIntervalMillis;
+
+        private MetricsRegistry metricsRegistry;
+
+        public Builder loss(final Loss loss) {
+            this.loss = loss;
+            return this;
+        }
+
+        public Builder numberOfEpochsToTrain(final int numberOfEpochsToTrain) {
+            this.numberOfEpochsToTrain = numberOfEpochsToTrain;
+            return this;
+        }
+
+        public Builder lossCalculatedListener(final OptimizerProgressListener lossCalculatedListener) {
+            this.lossCalculatedListener = lossCalculatedListener;
+            return this;
+        }
+
+        public Builder adjustLearningRateBy(final double adjustLearningRateBy) {
+            this.adjustLearningRateBy = adjustLearningRateBy;
+            return this;
+        }
+
+        /**
+         * Amount of examples the gradients are accumulated for before weights are updated. With the default value 1
+         * weights are updated by the Neurons after every example. With bigger values the graph is compiled with the
+         * {@link LayerCompiler} and every batch is processed with matrix-matrix multiplications, weights are updated
+         * once per batch with the average gradient.
+         */
+        public Builder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Amount of threads to train with. With more than one thread the graph is compiled and every thread trains
+         * its own replica of the compiled graph on its own part of the data. By default the part of every batch is
+         * given to every thread and the gradients of all the threads are summed up before weights are updated, so
+         * the result is the same as with one thread and the same batch size (up to the floating point rounding).
+         * This mode needs the batch size of more than 1, a batch of one example can not be split between the threads.
+         * Training with one thread and the batch size 1 goes through the neurons and updates the weights differently,
+         * so it's not the same as the multithreaded training.
+         */
+        public Builder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Only used with more than one thread. Instead of summing up the gradients of all the threads every thread
+         * trains on its own part of the epoch and updates the shared weights right away, without any
+         * synchronization. It's faster, but results are not reproducible.
+         */
+        public Builder hogwild(final boolean hogwild) {
+            this.hogwild = hogwild;
+            return this;
+        }
+
+        /**
+         * Amount of examples to shuffle the training data with, see {@link ShuffledDataset}. With the default value
+         * 0 the examples are used in the order of the training data in every epoch.
+         */
+        public Builder shuffleBufferSize(final int shuffleBufferSize) {
+            this.shuffleBufferSize = shuffleBufferSize;
+            return this;
+        }
+
+        /**
+         * Seed of the shuffling, training with the same seed repeats the order of the examples of every epoch.
+         */
+        public Builder seed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Amount of batches to read ahead on a background thread while the current batch trains, see
+         * {@link PrefetchingDataset}. With the default value 0 the training data is read by the training thread.
+         */
+        public Builder prefetchBatches(final int prefetchBatches) {
+            this.prefetchBatches = prefetchBatches;
+            return this;
+        }
+
+        /**
+         * The loss on the test data is calculated before every validationInterval-th epoch, if there is a listener or
+         * the learning rate is adjusted. With 0 the test data is not used at all: the listener receives only the
+         * running training loss and the learning rate is adjusted by it, so there is no extra forward pass over the
+         * data. 1 by default.
+         */
+        public Builder validationInterval(final int validationInterval) {
+            this.validationInterval = validationInterval;
+            return this;
+        }
+
+        /**
+         * Share of the test data examples the loss is calculated on, the examples are chosen at random with the
+         * {@link #seed(long)}, but the same ones every time. 1 by default.
+         */
+        public Builder validationSampleRate(final double validationSampleRate) {
+            this.validationSampleRate = validationSampleRate;
+            return this;
+        }
+
+        /**
+         * Calculate the loss on the test data on a background thread with a snapshot of the weights while the
+         * training goes on. The listener receives the loss on the training thread at the start of the first epoch
+         * after the loss is known, and the learning rate is adjusted then. The graph has to be layered, see
+         * {@link LayerCompiler}.
+         */
+        public Builder asyncValidation(final boolean asyncValidation) {
+            this.asyncValidation = asyncValidation;
+            return this;
+        }
+
+        /**
+         * Rule the weights are updated with, for example {@link com.dj.core.model.update.Adam}. It's set to the
+         * Context when the training starts, by default the rule of the Context is used.
+         */
+        public Builder updateRule(final UpdateRule updateRule) {
+            this.updateRule = updateRule;
+            return this;
+        }
+
+        /**
+         * Schedule the learning rate of every epoch is taken from, see the
+         * {@link com.dj.core.optimizer.schedule} package. The learning rate of the Context at the start of the
+         * training is the initial one. Can not be combined with the {@link #adjustLearningRateBy(double)}.
+         */
+        public Builder learningRateSchedule(final LearningRateSchedule learningRateSchedule) {
+            this.learningRateSchedule = learningRateSchedule;
+            return this;
+        }
+
+        /**
+         * Stop the training once the loss has not improved for the given amount of validations in a row (or epochs,
+         * if the validationInterval is 0). The weights of the best loss are kept in memory and are written back to
+         * the Neurons when the training is over. The graph has to be layered, see {@link LayerCompiler}. With the
+         * default value 0 all the epochs are trained.
+         */
+        public Builder earlyStoppingPatience(final int earlyStoppingPatience) {
+            this.earlyStoppingPatience = earlyStoppingPatience;
+            return this;
+        }
+
+        /**
+         * File the {@link Checkpoint}s of the training are written to, see
+         * {@link SGDOptimizer#resume(Checkpoint, Context, List, List, Dataset, Dataset)}. Every checkpoint replaces
+         * the previous one. The graph has to be layered, see {@link LayerCompiler}, and the Hogwild training is not
+         * supported.
+         */
+        public Builder checkpointPath(final String checkpointPath) {
+            this.checkpointPath = checkpointPath;
+            return this;
+        }
+
+        /**
+         * Write a checkpoint every checkpointInterval weight updates: batches, or examples with the batch size 1.
+         */
+        public Builder checkpointInterval(final int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Write a checkpoint every checkpointIntervalMillis milliseconds, checked after every weight update.
+         */
+        public Builder checkpointIntervalMillis(final long checkpointIntervalMillis) {
+            this.checkpointIntervalMillis = checkpointIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Registry the metrics of the training are recorded into, see {@link TrainingMetrics}. Without it (the
+         * default) nothing is measured. The Hogwild training has no batch metrics, only the epoch ones.
+         */
+        public Builder metrics(final MetricsRegistry metricsRegistry) {
+            this.metricsRegistry = metricsRegistry;
+            return this;
+        }
+
+        public SGDOptimizer build() {
+            if (loss == null) {
+                throw new RuntimeException("Loss need to be set in order to create a SGDOptimizer");
+            }
+            if (batchSize < 1) {
+                throw new RuntimeException("Batch size should be positive");
+            }
+            if (threads < 1) {
+                throw new RuntimeException("Amount of threads should be positive");
+            }
+            if (threads > 1 && batchSize == 1 && !hogwild) {
+                throw new RuntimeException("Batch size should be more than 1 to split batches between the threads,"
+                        + " or the Hogwild mode should be used");
+            }
+            if (shuffleBufferSize < 0 || prefetchBatches < 0) {
+                throw new RuntimeException("Shuffle buffer size and amount of prefetched batches can not be negative");
+            }
+            if (validationInterval < 0) {
+                throw new RuntimeException("Validation interval can not be negative");
+            }
+            if (validationSampleRate <= 0. || validationSampleRate > 1.) {
+                throw new RuntimeException("Validation sample rate should be in (0, 1]");
+            }
+            if (learningRateSchedule != null && adjustLearningRateBy != 1.) {
+                throw new RuntimeException("Learning rate schedule can not be combined with adjustLearningRateBy");
+            }
+            if (earlyStoppingPatience < 0) {
+                throw new RuntimeException("Early stopping patience can not be negative");
+            }
+            if (checkpointInterval < 0 || checkpointIntervalMillis < 0) {
+                throw new RuntimeException("Checkpoint intervals can not be negative");
+            }
+            if (checkpointPath != null && checkpointInterval == 0 && checkpointIntervalMillis == 0) {
+                throw new RuntimeException("Checkpoint interval need to be set in order to write checkpoints");
+            }
+            if (checkpointPath != null && hogwild && threads > 1) {
+                throw new RuntimeException("Checkpoints are not supported by the Hogwild training");
+            }
+            return new SGDOptimizer(
+                    loss,
+                    numberOfEpochsToTrain,
+                    lossCalculatedListener,
+                    adjustLearningRateBy,
+                    batchSize,
+                    threads,
+                    hogwild,
+                    shuffleBufferSize,
+                    seed,
+                    prefetchBatches,
+                    validationInterval,
+                    validationSampleRate,
+                    asyncValidation,
+                    updateRule,
+                    learningRateSchedule,
+                    earlyStoppingPatience,
+                    checkpointPath,
+                    checkpointInterval,
+                    checkpointIntervalMillis,
+                    metricsRegistry);
+        }
     }
 }
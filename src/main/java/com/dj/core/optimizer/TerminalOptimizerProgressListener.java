@@ -13,4 +13,28 @@ public class TerminalOptimizerProgressListener implements OptimizerProgressListe
                 currentEpoch,
                 targetEpoch);
     }
+
+    @Override
+    public void onTrainingLoss(
+            final double loss,
+            final int currentEpoch,
+            final int targetEpoch) {
+        System.out.printf(
+                "TRAINING LOSS: %5f, Epoch: %d of %d\n",
+                loss,
+                currentEpoch,
+                targetEpoch);
+    }
+
+    @Override
+    public void onLearningRateChanged(
+            final double previousLearningRate,
+            final double learningRate,
+            final int currentEpoch) {
+        System.out.printf(
+                "Changing learning rate from: %f to %f, Epoch: %d\n",
+                previousLearningRate,
+                learningRate,
+                currentEpoch);
+    }
 }
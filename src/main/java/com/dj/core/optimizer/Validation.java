@@ -0,0 +1,228 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.Dataset;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.loss.CompensatedSum;
+import com.dj.core.model.loss.Loss;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates the loss on the test data for the {@link SGDOptimizer}.
+ *
+ * Only a sample of the test data can be used: every example is taken with the given probability, the same examples
+ * are taken in every evaluation, so the losses of different epochs can be compared.
+ *
+ * In the asynchronous mode the loss is calculated on a background thread with a snapshot of the weights, while the
+ * training goes on. Only one evaluation runs at a time: submitting the next one waits for the previous one.
+ */
+final class Validation implements AutoCloseable {
+
+    /**
+     * Amount of examples read from the test data at once.
+     */
+    private static final int READ_BATCH_SIZE = 256;
+
+    /**
+     * Amount of examples whose loss is summed up at once. Much more than the {@link CompensatedSum} sums up on one
+     * thread, so the losses of a large test data are summed up in parallel.
+     */
+    static final int EVALUATION_CHUNK_SIZE = 1 << 16;
+
+    private final Loss loss;
+
+    private final Dataset testData;
+
+    private final double sampleRate;
+
+    private final long seed;
+
+    private final ExecutorService executor;
+
+    private Future<Double> pending;
+
+    private int pendingEpoch;
+
+    private CompiledNetwork pendingSnapshot;
+
+    Validation(
+            final Loss loss,
+            final Dataset testData,
+            final double sampleRate,
+            final long seed,
+            final boolean async) {
+        this.loss = loss;
+        this.testData = testData;
+        this.sampleRate = sampleRate;
+        this.seed = seed;
+        this.executor = async
+                ? Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "dj-validation");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    boolean isAsync() {
+        return executor != null;
+    }
+
+    /**
+     * Calculates the loss of the graph on the calling thread.
+     */
+    double evaluate(final List<Neuron> inputNeurons, final List<Neuron> outputNeurons) {
+        final double[] outputs = new double[READ_BATCH_SIZE * testData.getOutputSize()];
+        return evaluate((inputs, size) -> {
+            for (int example = 0; example < size; example++) {
+                for (int i = 0; i < inputs[example].length; i++) {
+                    inputNeurons.get(i).forwardSignalReceived(null, inputs[example][i]);
+                }
+                for (int i = 0; i < outputNeurons.size(); i++) {
+                    outputs[example * outputNeurons.size() + i] = outputNeurons.get(i).getForwardResult();
+                }
+            }
+            return outputs;
+        });
+    }
+
+    /**
+     * Starts calculating the loss of the snapshot on the background thread. Waits for the previous evaluation first
+     * and returns its result.
+     *
+     * @param snapshot network nobody else uses, see {@link CompiledNetwork#copy()}.
+     * @return loss of the previous evaluation, null if there was none.
+     */
+    Result submit(final CompiledNetwork snapshot, final int epoch) {
+        final Result previous = await();
+        pending = executor.submit(() -> evaluate((inputs, size) -> snapshot.forwardBatch(inputs, 0, size)));
+        pendingEpoch = epoch;
+        pendingSnapshot = snapshot;
+        return previous;
+    }
+
+    /**
+     * @return loss of the latest evaluation if it's done already, null otherwise.
+     */
+    Result poll() {
+        return pending != null && pending.isDone() ? await() : null;
+    }
+
+    /**
+     * Waits for the latest evaluation.
+     *
+     * @return its loss, null if there is no evaluation running.
+     */
+    Result await() {
+        if (pending == null) {
+            return null;
+        }
+        try {
+            return new Result(pending.get(), pendingEpoch, pendingSnapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Validation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Validation failed", e.getCause());
+        } finally {
+            pending = null;
+            pendingSnapshot = null;
+        }
+    }
+
+    private double evaluate(final BatchForward forward) {
+        final int outputSize = testData.getOutputSize();
+        final Random random = new Random(seed);
+        final Batch batch = new Batch(READ_BATCH_SIZE, testData.getInputSize(), outputSize);
+        // References to the rows of the sampled examples of the batch, so they are sent forward together.
+        final double[][] inputs = new double[READ_BATCH_SIZE][];
+        // Outputs and expected outputs of the chunk, copied since the batch reuses its rows. Grow up to the
+        // EVALUATION_CHUNK_SIZE examples, so a small test data does not allocate the whole chunk.
+        double[] actual = new double[READ_BATCH_SIZE * outputSize];
+        double[][] expectedResults = new double[READ_BATCH_SIZE][];
+        int chunkSize = 0;
+        final CompensatedSum sum = new CompensatedSum();
+        long count = 0;
+        try (var source = testData.open()) {
+            while (source.next(batch) > 0) {
+                if (chunkSize + READ_BATCH_SIZE > expectedResults.length) {
+                    final int capacity = Math.min(expectedResults.length * 2, EVALUATION_CHUNK_SIZE);
+                    expectedResults = Arrays.copyOf(expectedResults, capacity);
+                    actual = Arrays.copyOf(actual, capacity * outputSize);
+                }
+                int size = 0;
+                for (int example = 0; example < batch.getSize(); example++) {
+                    if (sampleRate < 1. && random.nextDouble() >= sampleRate) {
+                        continue;
+                    }
+                    inputs[size] = batch.getInputs()[example];
+                    if (expectedResults[chunkSize + size] == null) {
+                        expectedResults[chunkSize + size] = new double[outputSize];
+                    }
+                    System.arraycopy(
+                            batch.getExpectedResults()[example], 0, expectedResults[chunkSize + size], 0, outputSize);
+                    size++;
+                }
+                if (size == 0) {
+                    continue;
+                }
+                System.arraycopy(forward.apply(inputs, size), 0, actual, chunkSize * outputSize, size * outputSize);
+                chunkSize += size;
+                if (chunkSize + READ_BATCH_SIZE > EVALUATION_CHUNK_SIZE) {
+                    sum.add(loss.error(actual, expectedResults, 0, chunkSize, outputSize));
+                    count += chunkSize;
+                    chunkSize = 0;
+                }
+            }
+        }
+        if (chunkSize > 0) {
+            sum.add(loss.error(actual, expectedResults, 0, chunkSize, outputSize));
+            count += chunkSize;
+        }
+        if (count == 0) {
+            throw new RuntimeException("Test data should not be empty");
+        }
+        return sum.get() / count;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface BatchForward {
+
+        /**
+         * @return outputs of the first size examples of the inputs, one example after another.
+         */
+        double[] apply(double[][] inputs, int size);
+    }
+
+    static final class Result {
+
+        final double loss;
+
+        final int epoch;
+
+        /**
+         * Weights the loss was calculated with.
+         */
+        final CompiledNetwork snapshot;
+
+        private Result(final double loss, final int epoch, final CompiledNetwork snapshot) {
+            this.loss = loss;
+            this.epoch = epoch;
+            this.snapshot = snapshot;
+        }
+    }
+}
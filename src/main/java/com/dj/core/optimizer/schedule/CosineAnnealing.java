@@ -0,0 +1,33 @@
+package com.dj.core.optimizer.schedule;
+
+/**
+ * Lowers the learning rate from the initial one to the minimal one along the half of the cosine wave in the given
+ * amount of epochs, the rate stays minimal after that.
+ */
+public class CosineAnnealing implements LearningRateSchedule {
+
+    private final int epochs;
+
+    private final double minLearningRate;
+
+    public CosineAnnealing(final int epochs, final double minLearningRate) {
+        if (epochs < 1) {
+            throw new RuntimeException("Amount of epochs should be positive");
+        }
+        if (minLearningRate < 0.) {
+            throw new RuntimeException("Minimal learning rate can not be negative");
+        }
+        this.epochs = epochs;
+        this.minLearningRate = minLearningRate;
+    }
+
+    public CosineAnnealing(final int epochs) {
+        this(epochs, 0.);
+    }
+
+    @Override
+    public double learningRate(final int epoch, final double initialLearningRate) {
+        final double progress = Math.min(epoch, epochs) / (double) epochs;
+        return minLearningRate + (initialLearningRate - minLearningRate) * (1. + Math.cos(Math.PI * progress)) / 2.;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dj.core.optimizer.schedule;
+
+/**
+ * learningRate = initialLearningRate * gamma ^ epoch.
+ */
+public class ExponentialDecay implements LearningRateSchedule {
+
+    private final double gamma;
+
+    public ExponentialDecay(final double gamma) {
+        if (gamma <= 0.) {
+            throw new RuntimeException("Gamma should be positive");
+        }
+        this.gamma = gamma;
+    }
+
+    @Override
+    public double learningRate(final int epoch, final double initialLearningRate) {
+        return initialLearningRate * Math.pow(gamma, epoch);
+    }
+}
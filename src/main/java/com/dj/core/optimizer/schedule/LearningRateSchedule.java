@@ -0,0 +1,26 @@
+package com.dj.core.optimizer.schedule;
+
+import java.io.Serializable;
+
+/**
+ * Chooses the learning rate of every epoch. The {@link com.dj.core.optimizer.SGDOptimizer} asks for the rate before
+ * every epoch and sets it to the Context, so the Neurons and the compiled layers use it right away.
+ *
+ * Schedules are serializable, so the ones that remember the losses are stored with the checkpoints of the training.
+ */
+public interface LearningRateSchedule extends Serializable {
+
+    /**
+     * @param epoch number of the epoch, starting from 0.
+     * @param initialLearningRate learning rate of the Context when the training has started.
+     */
+    double learningRate(int epoch, double initialLearningRate);
+
+    /**
+     * Called with every loss the optimizer calculates: the loss on the test data, or the running training loss if
+     * the test data is not used.
+     */
+    default void onLoss(final double loss) {
+        // no-op
+    }
+}
@@ -0,0 +1,55 @@
+package com.dj.core.optimizer.schedule;
+
+/**
+ * Multiplies the learning rate by the factor when the loss has not improved for patience losses in a row, but keeps
+ * it above the minimal one. The schedule remembers the losses it has seen, so every training needs its own instance.
+ */
+public class ReduceOnPlateau implements LearningRateSchedule {
+
+    private final double factor;
+
+    private final int patience;
+
+    private final double minLearningRate;
+
+    private double bestLoss = Double.MAX_VALUE;
+
+    private int lossesWithoutImprovement;
+
+    private double multiplier = 1.;
+
+    public ReduceOnPlateau(final double factor, final int patience, final double minLearningRate) {
+        if (factor <= 0. || factor >= 1.) {
+            throw new RuntimeException("Factor should be in (0, 1)");
+        }
+        if (patience < 1) {
+            throw new RuntimeException("Patience should be positive");
+        }
+        if (minLearningRate < 0.) {
+            throw new RuntimeException("Minimal learning rate can not be negative");
+        }
+        this.factor = factor;
+        this.patience = patience;
+        this.minLearningRate = minLearningRate;
+    }
+
+    public ReduceOnPlateau(final double factor, final int patience) {
+        this(factor, patience, 0.);
+    }
+
+    @Override
+    public double learningRate(final int epoch, final double initialLearningRate) {
+        return Math.max(initialLearningRate * multiplier, minLearningRate);
+    }
+
+    @Override
+    public void onLoss(final double loss) {
+        if (loss < bestLoss) {
+            bestLoss = loss;
+            lossesWithoutImprovement = 0;
+        } else if (++lossesWithoutImprovement >= patience) {
+            multiplier *= factor;
+            lossesWithoutImprovement = 0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.dj.core.optimizer.schedule;
+
+/**
+ * Multiplies the learning rate by the factor every stepSize epochs.
+ */
+public class StepDecay implements LearningRateSchedule {
+
+    private final int stepSize;
+
+    private final double factor;
+
+    public StepDecay(final int stepSize, final double factor) {
+        if (stepSize < 1) {
+            throw new RuntimeException("Step size should be positive");
+        }
+        if (factor <= 0.) {
+            throw new RuntimeException("Factor should be positive");
+        }
+        this.stepSize = stepSize;
+        this.factor = factor;
+    }
+
+    @Override
+    public double learningRate(final int epoch, final double initialLearningRate) {
+        return initialLearningRate * Math.pow(factor, epoch / stepSize);
+    }
+}
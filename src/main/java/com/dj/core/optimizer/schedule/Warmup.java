@@ -0,0 +1,42 @@
+package com.dj.core.optimizer.schedule;
+
+/**
+ * Grows the learning rate linearly to the initial one during the first epochs, then follows the given schedule as if
+ * the training has started after the warmup.
+ */
+public class Warmup implements LearningRateSchedule {
+
+    private final int epochs;
+
+    private final LearningRateSchedule schedule;
+
+    public Warmup(final int epochs, final LearningRateSchedule schedule) {
+        if (epochs < 1) {
+            throw new RuntimeException("Amount of warmup epochs should be positive");
+        }
+        this.epochs = epochs;
+        this.schedule = schedule;
+    }
+
+    /**
+     * Keeps the initial learning rate after the warmup.
+     */
+    public Warmup(final int epochs) {
+        this(epochs, null);
+    }
+
+    @Override
+    public double learningRate(final int epoch, final double initialLearningRate) {
+        if (epoch < epochs) {
+            return initialLearningRate * (epoch + 1) / epochs;
+        }
+        return schedule != null ? schedule.learningRate(epoch - epochs, initialLearningRate) : initialLearningRate;
+    }
+
+    @Override
+    public void onLoss(final double loss) {
+        if (schedule != null) {
+            schedule.onLoss(loss);
+        }
+    }
+}
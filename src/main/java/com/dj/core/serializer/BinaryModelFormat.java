@@ -0,0 +1,471 @@
+package com.dj.core.serializer;
+
+import com.dj.core.helpers.Scaler;
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.activation.HyperbolicTangent;
+import com.dj.core.model.activation.Identity;
+import com.dj.core.model.activation.LeakyRelu;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.DenseLayer;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.model.graph.Layers;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.graph.Precision;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary representation of a layered model (see {@link LayerCompiler}). All the values are little-endian:
+ *
+ * int       magic, "DJMF"
+ * int       format version
+ * int       flags, {@link #FLOAT_PARAMETERS} and {@link #INPUT_SCALER} bits
+ * int       amount of layers, L
+ * double    learning rate
+ * int       debug mode, 0 or 1
+ * int       amount of input neurons
+ * int[L]    amount of neurons in every layer
+ * int[N]    activation function id of every neuron, layer by layer (N is the amount of neurons in all the layers)
+ * padding   up to the 8 bytes boundary
+ * double[N] activation function parameter of every neuron
+ * double[I] input scaler scales, only with the {@link #INPUT_SCALER} flag (I is the amount of input neurons)
+ * double[I] input scaler offsets, only with the {@link #INPUT_SCALER} flag
+ * for every layer:
+ *   double[] weights, row-major, see {@link DenseLayer}
+ *   double[] biases
+ * long      CRC32 of all the previous bytes
+ *
+ * Weights and biases of the models with the {@link Precision#FLOAT} precision are stored as float[] instead of
+ * double[], the flags have the {@link #FLOAT_PARAMETERS} bit set for them.
+ *
+ * Since the header is padded, all the double values start at 8 bytes boundary (and the float ones at 4 bytes
+ * boundary) and can be read in bulk straight from the file.
+ *
+ * The flags are the features the reader must support to read the file: a reader rejects a file with any flag it does
+ * not know. The version is increased whenever the layout or the meaning of the values changes:
+ * 1 - the first layout, double parameters only;
+ * 2 - the {@link #FLOAT_PARAMETERS} and {@link #INPUT_SCALER} flags and the {@link #IDENTITY} activation function.
+ * Files of all the versions up to the {@link #VERSION} can be read, files are always written with the
+ * {@link #VERSION}.
+ */
+final class BinaryModelFormat {
+
+    static final int MAGIC = 0x464D4A44;
+
+    static final int VERSION = 2;
+
+    private static final int FIRST_VERSION = 1;
+
+    /**
+     * Flag of the models whose weights and biases are stored as floats.
+     */
+    static final int FLOAT_PARAMETERS = 1;
+
+    /**
+     * Flag of the models stored with the input {@link Scaler}.
+     */
+    static final int INPUT_SCALER = 2;
+
+    static final int SIGMOID = 1;
+
+    static final int HYPERBOLIC_TANGENT = 2;
+
+    static final int RELU = 3;
+
+    static final int LEAKY_RELU = 4;
+
+    static final int IDENTITY = 5;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryModelFormat() { } // no-op
+
+    static void write(final ModelWrapper model, final Path path) throws IOException {
+        final CompiledNetwork network = LayerCompiler.compile(model.getInputLayer(), model.getOutputLayer());
+        final Context context = model.getContext() != null ? model.getContext() : network.getContext();
+        try (var channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            final ChannelWriter writer = new ChannelWriter(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            final Scaler scaler = model.getInputScaler();
+            writer.putInt((context.getPrecision() == Precision.FLOAT ? FLOAT_PARAMETERS : 0)
+                    | (scaler != null ? INPUT_SCALER : 0));
+            writer.putInt(network.getLayerCount());
+            writer.putDouble(context.getLearningRate());
+            writer.putInt(context.isDebugMode() ? 1 : 0);
+            writer.putInt(network.getInputSize());
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                writer.putInt(network.getLayer(i).getOutputSize());
+            }
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                final DenseLayer layer = network.getLayer(i);
+                for (int neuron = 0; neuron < layer.getOutputSize(); neuron++) {
+                    writer.putInt(activationId(layer.getActivationFunction(neuron)));
+                }
+            }
+            writer.alignTo(Double.BYTES);
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                final DenseLayer layer = network.getLayer(i);
+                for (int neuron = 0; neuron < layer.getOutputSize(); neuron++) {
+                    writer.putDouble(activationParameter(layer.getActivationFunction(neuron)));
+                }
+            }
+            if (scaler != null) {
+                writer.putDoubles(scaler.getScales());
+                writer.putDoubles(scaler.getOffsets());
+            }
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                final DenseLayer layer = network.getLayer(i);
+                if (layer.getPrecision() == Precision.FLOAT) {
+                    writer.putFloats(layer.getFloatWeights());
+                    writer.putFloats(layer.getFloatBiases());
+                } else {
+                    writer.putDoubles(layer.getWeights());
+                    writer.putDoubles(layer.getBiases());
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    static ModelWrapper read(final Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ChannelReader reader = new ChannelReader(channel);
+            if (reader.getInt() != MAGIC) {
+                throw new IOException("Not a binary model file: " + path);
+            }
+            final int version = reader.getInt();
+            final int flags = reader.getInt();
+            checkVersionAndFlags(version, flags);
+            final Precision precision = (flags & FLOAT_PARAMETERS) != 0 ? Precision.FLOAT : Precision.DOUBLE;
+            final int layerCount = reader.getInt();
+            final Context context = new Context(reader.getDouble(), reader.getInt() == 1, precision);
+            final int inputSize = reader.getInt();
+            final int[] layerSizes = new int[layerCount];
+            int neuronCount = 0;
+            for (int i = 0; i < layerCount; i++) {
+                layerSizes[i] = reader.getInt();
+                neuronCount += layerSizes[i];
+            }
+            final int[] activationIds = new int[neuronCount];
+            for (int i = 0; i < neuronCount; i++) {
+                activationIds[i] = reader.getInt();
+            }
+            reader.alignTo(Double.BYTES);
+            final double[] activationParameters = new double[neuronCount];
+            reader.getDoubles(activationParameters);
+            Scaler scaler = null;
+            if ((flags & INPUT_SCALER) != 0) {
+                final double[] scales = new double[inputSize];
+                final double[] offsets = new double[inputSize];
+                reader.getDoubles(scales);
+                reader.getDoubles(offsets);
+                scaler = new Scaler(scales, offsets);
+            }
+
+            final List<Neuron> inputLayer = new ArrayList<>();
+            for (int i = 0; i < inputSize; i++) {
+                inputLayer.add(new InputNeuron());
+            }
+            List<Neuron> previousLayer = inputLayer;
+            int neuronIndex = 0;
+            for (int i = 0; i < layerCount; i++) {
+                final double[] weights = new double[layerSizes[i] * previousLayer.size()];
+                final double[] biases = new double[layerSizes[i]];
+                if (precision == Precision.FLOAT) {
+                    reader.getFloats(weights);
+                    reader.getFloats(biases);
+                } else {
+                    reader.getDoubles(weights);
+                    reader.getDoubles(biases);
+                }
+                final ActivationFunction[] activationFunctions = new ActivationFunction[layerSizes[i]];
+                for (int row = 0; row < layerSizes[i]; row++) {
+                    activationFunctions[row]
+                            = activation(activationIds[neuronIndex], activationParameters[neuronIndex]);
+                    neuronIndex++;
+                }
+                // Every neuron gets all its connections at once, connecting them one by one would copy the
+                // connections of the neuron on every weight.
+                final List<Neuron> layer
+                        = Layers.denseLayer(previousLayer, weights, biases, activationFunctions, context);
+                previousLayer = layer;
+            }
+            reader.verifyChecksum();
+            return new ModelWrapper.Builder()
+                    .context(context)
+                    .inputLayer(inputLayer)
+                    .outputLayer(previousLayer)
+                    .inputScaler(scaler)
+                    .build();
+        }
+    }
+
+    /**
+     * Rejects the files written by a newer version of the format or with the features this reader does not know.
+     */
+    static void checkVersionAndFlags(final int version, final int flags) throws IOException {
+        if (version < FIRST_VERSION || version > VERSION) {
+            throw new IOException("Unsupported model file version: " + version);
+        }
+        if ((flags & ~(FLOAT_PARAMETERS | INPUT_SCALER)) != 0) {
+            throw new IOException("Unsupported model file flags: " + flags);
+        }
+    }
+
+    static int activationId(final ActivationFunction activationFunction) {
+        if (activationFunction instanceof Sigmoid) {
+            return SIGMOID;
+        } else if (activationFunction instanceof HyperbolicTangent) {
+            return HYPERBOLIC_TANGENT;
+        } else if (activationFunction instanceof Relu) {
+            return RELU;
+        } else if (activationFunction instanceof LeakyRelu) {
+            return LEAKY_RELU;
+        } else if (activationFunction instanceof Identity) {
+            return IDENTITY;
+        }
+        throw new RuntimeException("Activation function " + activationFunction.getClass().getName()
+                + " can not be stored in the binary format, use SerializerHelper.serializeToFile instead");
+    }
+
+    static double activationParameter(final ActivationFunction activationFunction) {
+        if (activationFunction instanceof Sigmoid) {
+            return ((Sigmoid) activationFunction).isEnforceLimit() ? 1. : 0.;
+        } else if (activationFunction instanceof LeakyRelu) {
+            return ((LeakyRelu) activationFunction).getM();
+        }
+        return 0.;
+    }
+
+    static ActivationFunction activation(final int id, final double parameter) {
+        switch (id) {
+            case SIGMOID:
+                return new Sigmoid(parameter == 1.);
+            case HYPERBOLIC_TANGENT:
+                return new HyperbolicTangent();
+            case RELU:
+                return new Relu();
+            case LEAKY_RELU:
+                return new LeakyRelu(parameter);
+            case IDENTITY:
+                return new Identity();
+            default:
+                throw new RuntimeException("Unknown activation function id: " + id);
+        }
+    }
+
+    /**
+     * Writes values to the channel through a fixed size buffer and calculates the checksum of everything written.
+     */
+    private static final class ChannelWriter {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        private final CRC32 checksum = new CRC32();
+
+        private long position;
+
+        private ChannelWriter(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(final int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putDouble(final double value) throws IOException {
+            ensureRemaining(Double.BYTES);
+            buffer.putDouble(value);
+            position += Double.BYTES;
+        }
+
+        void putDoubles(final double[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensureRemaining(Double.BYTES);
+                final int count = Math.min(buffer.remaining() / Double.BYTES, values.length - offset);
+                buffer.asDoubleBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+            }
+            position += (long) values.length * Double.BYTES;
+        }
+
+        void putFloats(final float[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensureRemaining(Float.BYTES);
+                final int count = Math.min(buffer.remaining() / Float.BYTES, values.length - offset);
+                buffer.asFloatBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+            }
+            position += (long) values.length * Float.BYTES;
+        }
+
+        void alignTo(final int bytes) throws IOException {
+            while (position % bytes != 0) {
+                ensureRemaining(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        /**
+         * Writes the checksum of all the written bytes and flushes the buffer.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putLong(checksum.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads values from the channel through a fixed size buffer and calculates the checksum of everything read.
+     */
+    private static final class ChannelReader {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        private final CRC32 checksum = new CRC32();
+
+        /**
+         * Size of the file without the checksum at the end.
+         */
+        private final long dataSize;
+
+        private long bytesLoaded;
+
+        private long position;
+
+        private ChannelReader(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.dataSize = channel.size() - Long.BYTES;
+            buffer.limit(0);
+        }
+
+        int getInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            position += Integer.BYTES;
+            return buffer.getInt();
+        }
+
+        double getDouble() throws IOException {
+            ensureAvailable(Double.BYTES);
+            position += Double.BYTES;
+            return buffer.getDouble();
+        }
+
+        void getDoubles(final double[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensureAvailable(Double.BYTES);
+                final int count = Math.min(buffer.remaining() / Double.BYTES, values.length - offset);
+                buffer.asDoubleBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+            }
+            position += (long) values.length * Double.BYTES;
+        }
+
+        /**
+         * Reads floats stored in the file into the double array.
+         */
+        void getFloats(final double[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                ensureAvailable(Float.BYTES);
+                values[i] = buffer.getFloat();
+            }
+            position += (long) values.length * Float.BYTES;
+        }
+
+        void alignTo(final int bytes) throws IOException {
+            while (position % bytes != 0) {
+                ensureAvailable(1);
+                buffer.get();
+                position++;
+            }
+        }
+
+        void verifyChecksum() throws IOException {
+            if (position != dataSize) {
+                throw new IOException("Model file has unexpected size");
+            }
+            final long expected = checksum.getValue();
+            if (getLong() != expected) {
+                throw new IOException("Model file checksum does not match, the file is corrupted");
+            }
+        }
+
+        private long getLong() throws IOException {
+            ensureAvailable(Long.BYTES);
+            position += Long.BYTES;
+            return buffer.getLong();
+        }
+
+        private void ensureAvailable(final int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                final int start = buffer.position();
+                final int read = channel.read(buffer);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of the model file");
+                }
+                // The checksum at the end of the file is not a part of the checksum itself.
+                final int checksumBytes = (int) Math.max(0, Math.min(read, dataSize - bytesLoaded));
+                final ByteBuffer loaded = buffer.duplicate();
+                loaded.position(start);
+                loaded.limit(start + checksumBytes);
+                checksum.update(loaded);
+                bytesLoaded += read;
+            }
+            buffer.flip();
+        }
+    }
+}
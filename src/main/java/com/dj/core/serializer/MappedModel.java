@@ -0,0 +1,257 @@
+package com.dj.core.serializer;
+
+import com.dj.core.helpers.Scaler;
+import com.dj.core.model.activation.ActivationFunction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A model stored with the {@link SerializerHelper#serializeToBinaryFile(ModelWrapper, String)} that is evaluated
+ * straight from the memory-mapped file. Weights are never copied to the heap: the forward pass reads them from the
+ * mapped file pages, so opening the model costs only the header parsing, and several JVMs that open the same file
+ * share one copy of the weights in the OS page cache.
+ *
+ * Same as the {@link com.dj.core.inference.Predictor} the MappedModel can be used from several threads at once.
+ */
+public final class MappedModel {
+
+    private final int inputSize;
+
+    private final int[] layerSizes;
+
+    /**
+     * Weights and biases of every layer, views of the mapped file, see {@link BinaryModelFormat} for the layout.
+     * Null if the model stores them as floats.
+     */
+    private final DoubleBuffer[] weights;
+
+    private final DoubleBuffer[] biases;
+
+    /**
+     * Same as {@link #weights} and {@link #biases} for the models that store weights and biases as floats.
+     */
+    private final FloatBuffer[] floatWeights;
+
+    private final FloatBuffer[] floatBiases;
+
+    private final ActivationFunction[][] activationFunctions;
+
+    /**
+     * Null if the model was stored without the input scaler.
+     */
+    private final Scaler inputScaler;
+
+    /**
+     * Two buffers of the size of the biggest layer: input and output of the current layer.
+     */
+    private final ThreadLocal<double[][]> buffers;
+
+    private MappedModel(
+            final int inputSize,
+            final int[] layerSizes,
+            final DoubleBuffer[] weights,
+            final DoubleBuffer[] biases,
+            final FloatBuffer[] floatWeights,
+            final FloatBuffer[] floatBiases,
+            final ActivationFunction[][] activationFunctions,
+            final Scaler inputScaler) {
+        this.inputSize = inputSize;
+        this.layerSizes = layerSizes;
+        this.weights = weights;
+        this.biases = biases;
+        this.floatWeights = floatWeights;
+        this.floatBiases = floatBiases;
+        this.activationFunctions = activationFunctions;
+        this.inputScaler = inputScaler;
+        int maxSize = inputSize;
+        for (final int layerSize : layerSizes) {
+            maxSize = Math.max(maxSize, layerSize);
+        }
+        final int bufferSize = maxSize;
+        this.buffers = ThreadLocal.withInitial(() -> new double[][] {new double[bufferSize], new double[bufferSize]});
+    }
+
+    public static MappedModel open(final String path) {
+        return open(path, false);
+    }
+
+    /**
+     * @param verifyChecksum whether the checksum of the file should be verified. It requires reading the whole file,
+     *                       so it's off by default.
+     */
+    public static MappedModel open(final String path, final boolean verifyChecksum) {
+        try (var channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Model files bigger than 2GB can not be mapped");
+            }
+            // The mapping stays valid after the channel is closed.
+            final MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            if (verifyChecksum) {
+                verifyChecksum(file);
+            }
+            return parse(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Model loading failed", e);
+        }
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    /**
+     * @param input values for the input neurons in the order of the model's input layer.
+     * @return values of the output neurons in the order of the model's output layer.
+     */
+    public double[] predict(final double[] input) {
+        if (input.length != inputSize) {
+            throw new RuntimeException("Input size does not match the input layer size");
+        }
+        final double[][] layerBuffers = buffers.get();
+        double[] layerInput = layerBuffers[0];
+        double[] layerOutput = layerBuffers[1];
+        if (inputScaler != null) {
+            inputScaler.transform(input, layerInput);
+        } else {
+            System.arraycopy(input, 0, layerInput, 0, inputSize);
+        }
+        int layerInputSize = inputSize;
+        for (int layer = 0; layer < layerSizes.length; layer++) {
+            for (int row = 0; row < layerSizes[layer]; row++) {
+                final double sum = weights != null
+                        ? dot(weights[layer], row * layerInputSize, layerInput, layerInputSize)
+                        : dot(floatWeights[layer], row * layerInputSize, layerInput, layerInputSize);
+                final double bias = biases != null ? biases[layer].get(row) : floatBiases[layer].get(row);
+                layerOutput[row] = activationFunctions[layer][row].forward(sum + bias);
+            }
+            final double[] swap = layerInput;
+            layerInput = layerOutput;
+            layerOutput = swap;
+            layerInputSize = layerSizes[layer];
+        }
+        final double[] result = new double[getOutputSize()];
+        System.arraycopy(layerInput, 0, result, 0, result.length);
+        return result;
+    }
+
+    private static double dot(final DoubleBuffer weights, final int offset, final double[] input, final int size) {
+        double sum = 0.;
+        for (int column = 0; column < size; column++) {
+            sum += weights.get(offset + column) * input[column];
+        }
+        return sum;
+    }
+
+    private static double dot(final FloatBuffer weights, final int offset, final double[] input, final int size) {
+        double sum = 0.;
+        for (int column = 0; column < size; column++) {
+            sum += weights.get(offset + column) * input[column];
+        }
+        return sum;
+    }
+
+    private static MappedModel parse(final ByteBuffer file) throws IOException {
+        if (file.getInt(0) != BinaryModelFormat.MAGIC) {
+            throw new IOException("Not a binary model file");
+        }
+        final int flags = file.getInt(8);
+        BinaryModelFormat.checkVersionAndFlags(file.getInt(4), flags);
+        final boolean floatParameters = (flags & BinaryModelFormat.FLOAT_PARAMETERS) != 0;
+        final int valueBytes = floatParameters ? Float.BYTES : Double.BYTES;
+        final int layerCount = file.getInt(12);
+        final int inputSize = file.getInt(28);
+        int position = 32;
+        final int[] layerSizes = new int[layerCount];
+        int neuronCount = 0;
+        for (int i = 0; i < layerCount; i++) {
+            layerSizes[i] = file.getInt(position);
+            neuronCount += layerSizes[i];
+            position += Integer.BYTES;
+        }
+        int idsPosition = position;
+        position = align(position + neuronCount * Integer.BYTES);
+        int parametersPosition = position;
+        position += neuronCount * Double.BYTES;
+        Scaler inputScaler = null;
+        if ((flags & BinaryModelFormat.INPUT_SCALER) != 0) {
+            final double[] scales = new double[inputSize];
+            final double[] offsets = new double[inputSize];
+            region(file, position, inputSize * Double.BYTES).asDoubleBuffer().get(scales);
+            region(file, position + inputSize * Double.BYTES, inputSize * Double.BYTES)
+                    .asDoubleBuffer()
+                    .get(offsets);
+            inputScaler = new Scaler(scales, offsets);
+            position += 2 * inputSize * Double.BYTES;
+        }
+
+        final ActivationFunction[][] activationFunctions = new ActivationFunction[layerCount][];
+        final DoubleBuffer[] weights = floatParameters ? null : new DoubleBuffer[layerCount];
+        final DoubleBuffer[] biases = floatParameters ? null : new DoubleBuffer[layerCount];
+        final FloatBuffer[] floatWeights = floatParameters ? new FloatBuffer[layerCount] : null;
+        final FloatBuffer[] floatBiases = floatParameters ? new FloatBuffer[layerCount] : null;
+        int layerInputSize = inputSize;
+        for (int i = 0; i < layerCount; i++) {
+            activationFunctions[i] = new ActivationFunction[layerSizes[i]];
+            for (int neuron = 0; neuron < layerSizes[i]; neuron++) {
+                activationFunctions[i][neuron] = BinaryModelFormat.activation(
+                        file.getInt(idsPosition),
+                        file.getDouble(parametersPosition));
+                idsPosition += Integer.BYTES;
+                parametersPosition += Double.BYTES;
+            }
+            final int weightsCount = layerSizes[i] * layerInputSize;
+            if (floatParameters) {
+                floatWeights[i] = region(file, position, weightsCount * valueBytes).asFloatBuffer();
+                floatBiases[i] = region(file, position + weightsCount * valueBytes, layerSizes[i] * valueBytes)
+                        .asFloatBuffer();
+            } else {
+                weights[i] = region(file, position, weightsCount * valueBytes).asDoubleBuffer();
+                biases[i] = region(file, position + weightsCount * valueBytes, layerSizes[i] * valueBytes)
+                        .asDoubleBuffer();
+            }
+            position += (weightsCount + layerSizes[i]) * valueBytes;
+            layerInputSize = layerSizes[i];
+        }
+        if (position + Long.BYTES != file.capacity()) {
+            throw new IOException("Model file has unexpected size");
+        }
+        return new MappedModel(
+                inputSize, layerSizes, weights, biases, floatWeights, floatBiases, activationFunctions, inputScaler);
+    }
+
+    private static ByteBuffer region(final ByteBuffer file, final int position, final int bytes) {
+        final ByteBuffer region = file.duplicate();
+        region.position(position);
+        region.limit(position + bytes);
+        return region.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int align(final int position) {
+        return (position + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    }
+
+    private static void verifyChecksum(final ByteBuffer file) throws IOException {
+        final ByteBuffer content = file.duplicate();
+        content.position(0);
+        content.limit(file.capacity() - Long.BYTES);
+        final CRC32 checksum = new CRC32();
+        checksum.update(content);
+        if (file.getLong(file.capacity() - Long.BYTES) != checksum.getValue()) {
+            throw new IOException("Model file checksum does not match, the file is corrupted");
+        }
+    }
+}
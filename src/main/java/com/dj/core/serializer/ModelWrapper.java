@@ -1,6 +1,7 @@
 package com.dj.core.serializer;
 
 
+import com.dj.core.helpers.Scaler;
 import com.dj.core.model.graph.Context;
 import com.dj.core.model.graph.Neuron;
 
@@ -13,13 +14,16 @@ public class ModelWrapper implements Serializable {
     private final Context context;
     private final List<Neuron> inputLayer;
     private final List<Neuron> outputLayer;
+    private final Scaler inputScaler;
 
     private ModelWrapper(final Context context,
                          final List<Neuron> inputLayer,
-                         final List<Neuron> outputLayer) {
+                         final List<Neuron> outputLayer,
+                         final Scaler inputScaler) {
         this.context = context;
         this.inputLayer = inputLayer;
         this.outputLayer = outputLayer;
+        this.inputScaler = inputScaler;
     }
 
     public Context getContext() {
@@ -34,6 +38,14 @@ public class ModelWrapper implements Serializable {
         return outputLayer;
     }
 
+    /**
+     * @return Scaler the inputs are transformed with before they reach the input layer, null if the model takes the
+     * inputs as they are.
+     */
+    public Scaler getInputScaler() {
+        return inputScaler;
+    }
+
     public static class Builder {
 
         private Context context;
@@ -42,6 +54,8 @@ public class ModelWrapper implements Serializable {
 
         private List<Neuron> outputLayer;
 
+        private Scaler inputScaler;
+
         public Builder context(final Context context) {
             this.context = context;
             return this;
@@ -57,8 +71,20 @@ public class ModelWrapper implements Serializable {
             return this;
         }
 
+        /**
+         * Scaler the model was trained with, it's stored with the model and applied to the inputs by the
+         * {@link com.dj.core.inference.Predictor}, the {@link MappedModel} and the quantized models.
+         */
+        public Builder inputScaler(final Scaler inputScaler) {
+            this.inputScaler = inputScaler;
+            return this;
+        }
+
         public ModelWrapper build() {
-            return new ModelWrapper(this.context, this.inputLayer, this.outputLayer);
+            if (inputScaler != null && inputLayer != null && inputScaler.getSize() != inputLayer.size()) {
+                throw new RuntimeException("Input scaler size does not match the input layer size");
+            }
+            return new ModelWrapper(this.context, this.inputLayer, this.outputLayer, this.inputScaler);
         }
     }
 }
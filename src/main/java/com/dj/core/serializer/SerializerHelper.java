@@ -1,6 +1,7 @@
 package com.dj.core.serializer;
 
 import java.io.*;
+import java.nio.file.Paths;
 
 public class SerializerHelper {
 
@@ -28,4 +29,28 @@ public class SerializerHelper {
             throw new RuntimeException("Serialization failed", e);
         }
     }
+
+    /**
+     * Stores the model in the compact binary format: only the shape of the layers, activation functions, weights and
+     * biases are stored. Much smaller and faster to load than the {@link #serializeToFile(ModelWrapper, String)},
+     * but only works for the layered models with the built-in activation functions (see {@link BinaryModelFormat}).
+     */
+    public static void serializeToBinaryFile(
+            final ModelWrapper model,
+            final String path) {
+        try {
+            BinaryModelFormat.write(model, Paths.get(path));
+        } catch (IOException e) {
+            throw new RuntimeException("Serialization failed", e);
+        }
+    }
+
+    public static ModelWrapper deserializeFromBinaryFile(
+            final String path) {
+        try {
+            return BinaryModelFormat.read(Paths.get(path));
+        } catch (IOException e) {
+            throw new RuntimeException("Deserialization failed", e);
+        }
+    }
 }
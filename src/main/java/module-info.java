@@ -1,9 +1,21 @@
 module com.kovalevskyi.java.deep.core {
+    exports com.dj.core.dataset;
+    exports com.dj.core.helpers;
+    exports com.dj.core.inference;
+    exports com.dj.core.metrics;
     exports com.dj.core.model.activation;
     exports com.dj.core.model.graph;
+    exports com.dj.core.model.init;
     exports com.dj.core.model.loss;
+    exports com.dj.core.model.update;
     exports com.dj.core.optimizer;
+    exports com.dj.core.optimizer.schedule;
+    exports com.dj.core.serializer;
 
     requires com.google.common;
     requires commons.math3;
+    // Only for the allocation rate of the training metrics, which is NaN when the module is absent.
+    requires static jdk.management;
+
+    uses com.dj.core.model.graph.ComputeBackend;
 }
@@ -0,0 +1,219 @@
+package com.dj.core.dataset;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class DatasetTest {
+
+    private static final String TMP_DIR_PATH = System.getProperty("java.io.tmpdir");
+
+    @Test
+    public void testInMemoryDatasetIsReadInBatches() {
+        final double[][] inputs = randomRows(10, 3, 1);
+        final double[][] expected = randomRows(10, 2, 2);
+
+        assertRows(inputs, expected, new InMemoryDataset(inputs, expected), 4);
+    }
+
+    @Test
+    public void testCsvDataset() throws IOException {
+        final Path file = Paths.get(TMP_DIR_PATH, "test-dataset.csv");
+        Files.write(file, List.of("a;b;c", "1;2.5;0", "", " -3 ; 4e-2 ; 1 "), StandardCharsets.UTF_8);
+        final Dataset dataset = new CsvDataset.Builder()
+                .path(file.toString())
+                .inputSize(2)
+                .outputSize(1)
+                .delimiter(';')
+                .skipHeader(true)
+                .build();
+
+        assertRows(new double[][] {{1., 2.5}, {-3., .04}}, new double[][] {{0.}, {1.}}, dataset, 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCsvLineWithWrongAmountOfValuesIsRejected() throws IOException {
+        final Path file = Paths.get(TMP_DIR_PATH, "test-dataset-wrong.csv");
+        Files.write(file, List.of("1,2,3", "1,2,3,4"), StandardCharsets.UTF_8);
+        final Dataset dataset = new CsvDataset.Builder()
+                .path(file.toString())
+                .inputSize(2)
+                .outputSize(1)
+                .build();
+
+        readAll(dataset, 10);
+    }
+
+    @Test
+    public void testBinaryDatasetRoundTrip() {
+        final double[][] inputs = randomRows(100, 5, 3);
+        final double[][] expected = randomRows(100, 2, 4);
+        final String path = Paths.get(TMP_DIR_PATH, "test-dataset.djd").toString();
+
+        BinaryDataset.write(new InMemoryDataset(inputs, expected), path);
+        // Chunks of 3 rows, so batches span several chunks.
+        final BinaryDataset dataset = BinaryDataset.open(path, 3 * 7 * Double.BYTES + 1);
+
+        assertEquals(100, dataset.size());
+        assertEquals(5, dataset.getInputSize());
+        assertEquals(2, dataset.getOutputSize());
+        assertRows(inputs, expected, dataset, 8);
+    }
+
+    @Test
+    public void testEveryOpenStartsFromTheBeginning() {
+        final double[][] inputs = randomRows(10, 1, 5);
+        final double[][] expected = randomRows(10, 1, 6);
+        final String path = Paths.get(TMP_DIR_PATH, "test-dataset-epochs.djd").toString();
+        BinaryDataset.write(new InMemoryDataset(inputs, expected), path);
+        final Dataset dataset = BinaryDataset.open(path);
+
+        for (int epoch = 0; epoch < 3; epoch++) {
+            assertRows(inputs, expected, dataset, 3);
+        }
+    }
+
+    @Test
+    public void testShuffledDatasetIsReproduciblePermutation() {
+        final double[][] inputs = new double[100][1];
+        final double[][] expected = new double[100][1];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i][0] = i;
+            expected[i][0] = -i;
+        }
+        final Dataset shuffled = new ShuffledDataset(new InMemoryDataset(inputs, expected), 16, 7);
+        final Dataset sameSeed = new ShuffledDataset(new InMemoryDataset(inputs, expected), 16, 7);
+
+        final List<double[][]> firstEpoch = readAll(shuffled, 10);
+        final List<double[][]> secondEpoch = readAll(shuffled, 3);
+        final Set<Double> seen = new HashSet<>();
+        boolean reordered = false;
+        for (int i = 0; i < firstEpoch.size(); i++) {
+            final double[][] row = firstEpoch.get(i);
+            assertEquals(-row[0][0], row[1][0], 0.);
+            seen.add(row[0][0]);
+            reordered |= row[0][0] != i;
+        }
+        assertEquals(100, seen.size());
+        assertTrue(reordered);
+        assertFalse(sameOrder(firstEpoch, secondEpoch));
+        assertTrue(sameOrder(firstEpoch, readAll(sameSeed, 7)));
+        assertTrue(sameOrder(secondEpoch, readAll(sameSeed, 100)));
+    }
+
+    @Test
+    public void testPrefetchingDatasetKeepsTheOrder() {
+        final double[][] inputs = randomRows(101, 3, 7);
+        final double[][] expected = randomRows(101, 2, 8);
+        final Dataset dataset = new PrefetchingDataset(new InMemoryDataset(inputs, expected), 8, 2);
+
+        for (final int batchSize : new int[] {1, 5, 8, 64}) {
+            assertRows(inputs, expected, dataset, batchSize);
+        }
+    }
+
+    @Test
+    public void testPrefetchingDatasetReportsReadingFailures() throws IOException {
+        final Path file = Paths.get(TMP_DIR_PATH, "test-dataset-prefetch.csv");
+        Files.write(file, List.of("1,2", "3,4", "5,x"), StandardCharsets.UTF_8);
+        final Dataset dataset = new PrefetchingDataset(
+                new CsvDataset.Builder().path(file.toString()).inputSize(1).outputSize(1).build(),
+                1,
+                1);
+        final Batch batch = new Batch(1, 1, 1);
+
+        try (var source = dataset.open()) {
+            assertEquals(1, source.next(batch));
+            assertEquals(1, source.next(batch));
+            try {
+                source.next(batch);
+                fail();
+            } catch (RuntimeException e) {
+                assertEquals("Dataset reading failed", e.getMessage());
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testPrefetchingSourceCanBeClosedEarly() {
+        final Dataset dataset = new PrefetchingDataset(
+                new InMemoryDataset(randomRows(1000, 1, 9), randomRows(1000, 1, 10)),
+                4,
+                2);
+        final Batch batch = new Batch(4, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            try (var source = dataset.open()) {
+                assertEquals(4, source.next(batch));
+            }
+        }
+    }
+
+    private static boolean sameOrder(final List<double[][]> first, final List<double[][]> second) {
+        for (int i = 0; i < first.size(); i++) {
+            if (first.get(i)[0][0] != second.get(i)[0][0]) {
+                return false;
+            }
+        }
+        return first.size() == second.size();
+    }
+
+    private static void assertRows(
+            final double[][] inputs,
+            final double[][] expected,
+            final Dataset dataset,
+            final int batchSize) {
+        final List<double[][]> rows = readAll(dataset, batchSize);
+        assertEquals(inputs.length, rows.size());
+        for (int i = 0; i < inputs.length; i++) {
+            assertArrayEquals(inputs[i], rows.get(i)[0], 0.);
+            assertArrayEquals(expected[i], rows.get(i)[1], 0.);
+        }
+    }
+
+    /**
+     * @return every example as {input, expected result}.
+     */
+    private static List<double[][]> readAll(final Dataset dataset, final int batchSize) {
+        final List<double[][]> rows = new ArrayList<>();
+        final Batch batch = new Batch(batchSize, dataset.getInputSize(), dataset.getOutputSize());
+        try (var source = dataset.open()) {
+            while (source.next(batch) > 0) {
+                for (int i = 0; i < batch.getSize(); i++) {
+                    rows.add(new double[][] {
+                            batch.getInputs()[i].clone(),
+                            batch.getExpectedResults()[i].clone()});
+                }
+            }
+            assertEquals(0, source.next(batch));
+        }
+        return rows;
+    }
+
+    private static double[][] randomRows(final int count, final int size, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] rows = new double[count][size];
+        for (final double[] row : rows) {
+            for (int i = 0; i < size; i++) {
+                row[i] = random.nextGaussian();
+            }
+        }
+        return rows;
+    }
+}
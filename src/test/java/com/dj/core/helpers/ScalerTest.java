@@ -0,0 +1,101 @@
+package com.dj.core.helpers;
+
+import com.dj.core.dataset.Batch;
+import com.dj.core.dataset.Dataset;
+import com.dj.core.dataset.InMemoryDataset;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ScalerTest {
+
+    @Test
+    public void testParallelAndStreamedStatisticsMatch() {
+        final double[][] rows = randomRows(10_000, 3, 1);
+        final FeatureStatistics parallel = FeatureStatistics.of(rows);
+        final FeatureStatistics streamed = FeatureStatistics.of(new InMemoryDataset(rows, new double[rows.length][1]));
+
+        assertEquals(rows.length, parallel.getCount());
+        assertEquals(rows.length, streamed.getCount());
+        for (int feature = 0; feature < 3; feature++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0.;
+            for (final double[] row : rows) {
+                min = Math.min(min, row[feature]);
+                max = Math.max(max, row[feature]);
+                sum += row[feature];
+            }
+            final double mean = sum / rows.length;
+            double squaredDifferences = 0.;
+            for (final double[] row : rows) {
+                squaredDifferences += (row[feature] - mean) * (row[feature] - mean);
+            }
+            for (final FeatureStatistics statistics : new FeatureStatistics[] {parallel, streamed}) {
+                assertEquals(min, statistics.getMin(feature), 0.);
+                assertEquals(max, statistics.getMax(feature), 0.);
+                assertEquals(mean, statistics.getMean(feature), 1e-9);
+                assertEquals(squaredDifferences / rows.length, statistics.getVariance(feature), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testMinMaxScaler() {
+        final double[][] rows = {{-2., 10., 5.}, {0., 30., 5.}, {2., 20., 5.}};
+        final Scaler scaler = Scaler.minMax(FeatureStatistics.of(rows), -1., 1.);
+
+        assertArrayEquals(new double[] {-1., -1., 0.}, scaler.transform(rows[0]), 1e-12);
+        assertArrayEquals(new double[] {0., 1., 0.}, scaler.transform(rows[1]), 1e-12);
+        assertArrayEquals(new double[] {1., 0., 0.}, scaler.transform(rows[2]), 1e-12);
+        final Scaler unitScaler = Scaler.minMax(FeatureStatistics.of(rows));
+        assertArrayEquals(new double[] {.5, 1., .5}, unitScaler.transform(rows[1]), 1e-12);
+    }
+
+    @Test
+    public void testZScoreScaler() {
+        final double[][] rows = randomRows(1000, 2, 2);
+        for (final double[] row : rows) {
+            row[0] = row[0] * 5. + 100.;
+            row[1] = 7.;
+        }
+        final Scaler scaler = Scaler.zScore(FeatureStatistics.of(rows));
+
+        final FeatureStatistics scaled = FeatureStatistics.of(scaler.transform(rows));
+        assertEquals(0., scaled.getMean(0), 1e-9);
+        assertEquals(1., scaled.getStandardDeviation(0), 1e-9);
+        assertEquals(0., scaled.getMin(1), 0.);
+        assertEquals(0., scaled.getMax(1), 0.);
+    }
+
+    @Test
+    public void testScaledDataset() {
+        final double[][] inputs = randomRows(10, 2, 3);
+        final double[][] expected = randomRows(10, 1, 4);
+        final Scaler scaler = Scaler.zScore(FeatureStatistics.of(inputs));
+        final Dataset dataset = scaler.transform(new InMemoryDataset(inputs, expected));
+        final Batch batch = new Batch(10, 2, 1);
+
+        try (var source = dataset.open()) {
+            assertEquals(10, source.next(batch));
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            assertArrayEquals(scaler.transform(inputs[i]), batch.getInputs()[i], 0.);
+            assertArrayEquals(expected[i], batch.getExpectedResults()[i], 0.);
+        }
+    }
+
+    private static double[][] randomRows(final int count, final int size, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] rows = new double[count][size];
+        for (final double[] row : rows) {
+            for (int i = 0; i < size; i++) {
+                row[i] = random.nextGaussian();
+            }
+        }
+        return rows;
+    }
+}
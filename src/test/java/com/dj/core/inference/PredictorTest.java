@@ -0,0 +1,123 @@
+package com.dj.core.inference;
+
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.serializer.ModelWrapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+
+
+public class PredictorTest {
+
+    @Test
+    public void testPredictionsMatchNeurons() {
+        final ModelWrapper model = buildModel();
+        final Predictor predictor = new Predictor.Builder().model(model).build();
+        final double[][] inputs = randomInputs(100);
+
+        final double[][] batchPredictions = predictor.predict(inputs);
+        for (int i = 0; i < inputs.length; i++) {
+            final double[] expected = forward(model, inputs[i]);
+            assertArrayEquals(expected, predictor.predict(inputs[i]), 0.);
+            assertArrayEquals(expected, batchPredictions[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testConcurrentPredictions() throws Exception {
+        final ModelWrapper model = buildModel();
+        final Predictor predictor = new Predictor.Builder().model(model).batchSize(7).build();
+        final double[][] inputs = randomInputs(500);
+        final double[][] expected = new double[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            expected[i] = forward(model, inputs[i]);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<double[][]>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    final double[][] predictions = new double[inputs.length][];
+                    for (int i = 0; i < inputs.length; i++) {
+                        predictions[i] = predictor.predict(inputs[i]);
+                    }
+                    return predictions;
+                }));
+                results.add(executor.submit(() -> predictor.predict(inputs)));
+            }
+            for (final Future<double[][]> result : results) {
+                final double[][] predictions = result.get();
+                for (int i = 0; i < inputs.length; i++) {
+                    assertArrayEquals(expected[i], predictions[i], 1e-12);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double[][] randomInputs(final int count) {
+        final Random random = new Random(1);
+        final double[][] inputs = new double[count][4];
+        for (final double[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextDouble();
+            }
+        }
+        return inputs;
+    }
+
+    private static double[] forward(final ModelWrapper model, final double[] input) {
+        for (int i = 0; i < input.length; i++) {
+            model.getInputLayer().get(i).forwardSignalReceived(null, input[i]);
+        }
+        return model.getOutputLayer().stream().mapToDouble(Neuron::getForwardResult).toArray();
+    }
+
+    private static ModelWrapper buildModel() {
+        final Random random = new Random(3);
+        final Context context = new Context();
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> hiddenLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        for (int i = 0; i < 5; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() - .5));
+            hiddenLayer.add(hidden);
+        }
+        for (int i = 0; i < 2; i++) {
+            final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Sigmoid())
+                    .context(context)
+                    .build();
+            hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+            outputLayer.add(output);
+        }
+        return new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(outputLayer)
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.dj.core.inference;
+
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.loss.QuadraticLoss;
+import com.dj.core.optimizer.SGDOptimizer;
+import com.dj.core.serializer.ModelWrapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class QuantizerTest {
+
+    @Test
+    public void testQuantizedPredictionsAreCloseToOriginal() {
+        final ModelWrapper model = randomModel();
+        final QuantizedModel quantizedModel = Quantizer.quantize(model, inputs(200, 2));
+        final Predictor predictor = new Predictor.Builder().model(model).build();
+
+        double maxDifference = 0.;
+        for (final double[] input : inputs(100, 3)) {
+            final double[] expected = predictor.predict(input);
+            final double[] actual = quantizedModel.predict(input);
+            for (int i = 0; i < expected.length; i++) {
+                maxDifference = Math.max(maxDifference, Math.abs(expected[i] - actual[i]));
+            }
+        }
+        assertTrue(maxDifference < .01);
+    }
+
+    @Test
+    public void testReport() {
+        final ModelWrapper model = trainedModel();
+        final QuantizedModel quantizedModel = Quantizer.quantize(model, inputs(200, 2));
+        final double[][] heldOutInputs = inputs(500, 4);
+
+        final QuantizationReport report
+                = Quantizer.report(model, quantizedModel, heldOutInputs, labels(heldOutInputs));
+
+        assertTrue(report.getOriginalAccuracy() > .8);
+        assertTrue(Math.abs(report.getAccuracyDelta()) < .05);
+        assertTrue(report.getMeanAbsoluteDifference() < .05);
+        assertTrue(report.getQuantizedParametersSize() < report.getOriginalParametersSize());
+    }
+
+    @Test
+    public void testWeightsOnTheQuantizationGridAreExact() {
+        // Weights 127 and -127 times the scale and even inputs from 0 to 127 are represented exactly.
+        final Context context = new Context();
+        final List<Neuron> inputLayer = List.of(new InputNeuron(), new InputNeuron());
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(.25)
+                .activationFunction(new Relu())
+                .context(context)
+                .build();
+        inputLayer.get(0).connect(output, .5);
+        inputLayer.get(1).connect(output, -.5);
+        final ModelWrapper model = new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(List.of(output))
+                .build();
+
+        final QuantizedModel quantizedModel = Quantizer.quantize(model, new double[][] {{127., 0.}, {0., 127.}});
+
+        assertEquals(.5 / 127, quantizedModel.getWeightScale(0, 0), 0.);
+        assertEquals(.5, quantizedModel.getInputScale(0), 0.);
+        assertEquals(-127, quantizedModel.getInputZeroPoint(0));
+        assertEquals(10.25, quantizedModel.predict(new double[] {30., 10.})[0], 1e-12);
+        assertEquals(0., quantizedModel.predict(new double[] {10., 30.})[0], 0.);
+        // Out of the calibrated range, clipped to 127.
+        assertEquals(63.75, quantizedModel.predict(new double[] {500., 0.})[0], 1e-12);
+    }
+
+    private static ModelWrapper randomModel() {
+        final Random random = new Random(3);
+        final Context context = new Context();
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> hiddenLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        for (int i = 0; i < 16; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() - .5));
+            hiddenLayer.add(hidden);
+        }
+        for (int i = 0; i < 2; i++) {
+            final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Sigmoid())
+                    .context(context)
+                    .build();
+            hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+            outputLayer.add(output);
+        }
+        return new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(outputLayer)
+                .build();
+    }
+
+    private static ModelWrapper trainedModel() {
+        final Random random = new Random(42);
+        final Context context = new Context(.1, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> hiddenLayer = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        for (int i = 0; i < 8; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble() - .5)
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() - .5));
+            hiddenLayer.add(hidden);
+        }
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(random.nextDouble() - .5)
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+        final List<Neuron> outputLayer = List.of(output);
+
+        final double[][] trainingInputs = inputs(400, 1);
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(500)
+                .batchSize(8)
+                .build()
+                .train(context, inputLayer, outputLayer, trainingInputs, labels(trainingInputs));
+        return new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(outputLayer)
+                .build();
+    }
+
+    private static double[][] inputs(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] inputs = new double[count][3];
+        for (final double[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextDouble();
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * 1 if the sum of the inputs is bigger than 1.5.
+     */
+    private static double[][] labels(final double[][] inputs) {
+        final double[][] labels = new double[inputs.length][1];
+        for (int i = 0; i < inputs.length; i++) {
+            labels[i][0] = inputs[i][0] + inputs[i][1] + inputs[i][2] > 1.5 ? 1. : 0.;
+        }
+        return labels;
+    }
+}
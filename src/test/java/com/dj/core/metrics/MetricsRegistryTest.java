@@ -0,0 +1,73 @@
+package com.dj.core.metrics;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testHistogram() {
+        final Histogram histogram = new MetricsRegistry().histogram("latency");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-12);
+        assertEquals(1., histogram.getMin(), 0.);
+        assertEquals(100., histogram.getMax(), 0.);
+        // 1 falls into [1, 2), 50 into [32, 64), 99 into [64, 128), which is capped by the maximum.
+        assertEquals(2., histogram.getPercentile(0.), 0.);
+        assertEquals(64., histogram.getPercentile(.5), 0.);
+        assertEquals(100., histogram.getPercentile(.99), 0.);
+    }
+
+    @Test
+    public void testSnapshot() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("examples").add(3);
+        registry.counter("examples").add(4);
+        registry.gauge("loss").set(.25);
+        registry.histogram("nanos").record(10.);
+
+        final Map<String, Double> snapshot = registry.snapshot();
+
+        assertEquals(7., snapshot.get("examples"), 0.);
+        assertEquals(.25, snapshot.get("loss"), 0.);
+        assertEquals(1., snapshot.get("nanos.count"), 0.);
+        assertEquals(10., snapshot.get("nanos.p99"), 0.);
+        assertEquals(8, snapshot.size());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMetricTypeIsChecked() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("examples");
+        registry.gauge("examples");
+    }
+
+    @Test
+    public void testJsonLinesSink() throws Exception {
+        final String path = Paths.get(System.getProperty("java.io.tmpdir"), "test-metrics.jsonl").toString();
+        Files.deleteIfExists(Paths.get(path));
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("training.examples").add(8);
+        registry.gauge("training.loss");
+        try (var sink = new JsonLinesMetricsSink(path)) {
+            sink.onEpoch(0, 1000, registry);
+            sink.onEpoch(1, 2000, registry);
+        }
+
+        final List<String> lines = Files.readAllLines(Paths.get(path));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).startsWith("{\"epoch\":1,\"nanos\":2000,\"timestamp\":"));
+        assertTrue(lines.get(1).endsWith(",\"metrics\":{\"training.examples\":8.0,\"training.loss\":null}}"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.dj.core.model;
+
+import com.dj.core.model.activation.HyperbolicTangent;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.graph.Precision;
+import com.dj.core.model.loss.QuadraticLoss;
+import com.dj.core.optimizer.SGDOptimizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * XOR can not be learned by a single neuron, it needs the hidden layer. Training should converge with both double
+ * and float weights, with the Neurons and with the compiled network.
+ */
+public class XorTest {
+
+    /**
+     * The last input is always 1: bias updates are scaled by the average input of the neuron, so without it the
+     * biases of the first layer never move for the {0, 0} example.
+     */
+    private static final double[][] XOR_INPUTS = {{0., 0., 1.}, {0., 1., 1.}, {1., 0., 1.}, {1., 1., 1.}};
+
+    private static final double[][] XOR_EXPECTED = {{0.}, {1.}, {1.}, {0.}};
+
+    private static final double[][] MAJORITY_INPUTS = {
+            {1., 1., 1.}, {1., 1., 0.}, {1., 0., 1.}, {0., 1., 1.},
+            {0., 0., 1.}, {0., 1., 0.}, {1., 0., 0.}, {0., 0., 0.}};
+
+    private static final double[][] MAJORITY_EXPECTED = {{1.}, {1.}, {1.}, {1.}, {0.}, {0.}, {0.}, {0.}};
+
+    @Test
+    public void testXorConverges() {
+        assertXorConverges(Precision.DOUBLE, 1);
+    }
+
+    @Test
+    public void testXorConvergesWithFloats() {
+        assertXorConverges(Precision.FLOAT, 1);
+    }
+
+    @Test
+    public void testXorConvergesWithFloatsInBatches() {
+        assertXorConverges(Precision.FLOAT, 4);
+    }
+
+    @Test
+    public void testPerceptronConvergesWithFloats() {
+        final Context context = new Context(.5, false, Precision.FLOAT);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 3; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        final List<ConnectedNeuron> hiddenLayer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble()));
+            hiddenLayer.add(hidden);
+        }
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(random.nextDouble())
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+        outputLayer.add(output);
+
+        train(context, inputLayer, outputLayer, MAJORITY_INPUTS, MAJORITY_EXPECTED, 4);
+
+        assertTrue(loss(inputLayer, outputLayer, MAJORITY_INPUTS, MAJORITY_EXPECTED) < .05);
+    }
+
+    private static void assertXorConverges(final Precision precision, final int batchSize) {
+        final Context context = new Context(.5, false, precision);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        final Random random = new Random(1);
+        for (int i = 0; i < 3; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        final List<ConnectedNeuron> hiddenLayer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble() - .5)
+                    .activationFunction(new HyperbolicTangent())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() * 2 - 1));
+            hiddenLayer.add(hidden);
+        }
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(random.nextDouble() - .5)
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() * 2 - 1));
+        outputLayer.add(output);
+
+        train(context, inputLayer, outputLayer, XOR_INPUTS, XOR_EXPECTED, batchSize);
+
+        assertTrue(loss(inputLayer, outputLayer, XOR_INPUTS, XOR_EXPECTED) < .05);
+    }
+
+    private static void train(
+            final Context context,
+            final List<Neuron> inputLayer,
+            final List<Neuron> outputLayer,
+            final double[][] inputs,
+            final double[][] expected,
+            final int batchSize) {
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(3000)
+                .batchSize(batchSize)
+                .build()
+                .train(context, inputLayer, outputLayer, inputs, expected);
+    }
+
+    private static double loss(
+            final List<Neuron> inputLayer,
+            final List<Neuron> outputLayer,
+            final double[][] inputs,
+            final double[][] expected) {
+        final QuadraticLoss loss = new QuadraticLoss();
+        double sum = 0.;
+        for (int example = 0; example < inputs.length; example++) {
+            for (int i = 0; i < inputs[example].length; i++) {
+                inputLayer.get(i).forwardSignalReceived(null, inputs[example][i]);
+            }
+            sum += loss.error(outputLayer.get(0).getForwardResult(), expected[example][0]);
+        }
+        return sum / inputs.length;
+    }
+}
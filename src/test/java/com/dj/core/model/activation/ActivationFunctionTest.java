@@ -0,0 +1,89 @@
+package com.dj.core.model.activation;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class ActivationFunctionTest {
+
+    private static final List<ActivationFunction> FUNCTIONS = List.of(
+            new Sigmoid(),
+            new Sigmoid(true),
+            new HyperbolicTangent(),
+            new Relu(),
+            new LeakyRelu(.1),
+            new Identity(),
+            // User-defined function, only has the boxed methods.
+            new ActivationFunction() {
+                @Override
+                public Double forward(final Double x) {
+                    return x * x;
+                }
+
+                @Override
+                public Double backward(final Double error) {
+                    return 2 * error;
+                }
+            });
+
+    @Test
+    public void testBulkMethodsMatchSingleValues() {
+        final double[] in = values();
+        for (final ActivationFunction function : FUNCTIONS) {
+            final double[] expectedForward = new double[in.length];
+            final double[] expectedBackward = new double[in.length];
+            for (int i = 0; i < in.length; i++) {
+                expectedForward[i] = function.forward(in[i]);
+                expectedBackward[i] = function.backward(in[i]);
+            }
+
+            final double[] forward = new double[in.length];
+            final double[] backward = new double[in.length];
+            final double[] cachedBackward = new double[in.length];
+            function.forward(in, forward, in.length);
+            function.backward(in, backward, in.length);
+            function.backward(in, forward, cachedBackward, in.length);
+
+            assertArrayEquals(expectedForward, forward, 0.);
+            assertArrayEquals(expectedBackward, backward, 0.);
+            assertArrayEquals(expectedBackward, cachedBackward, 0.);
+        }
+    }
+
+    @Test
+    public void testBulkMethodsRespectLength() {
+        final double[] in = values();
+        final double[] out = new double[in.length];
+        new Sigmoid().forward(in, out, 10);
+        for (int i = 10; i < out.length; i++) {
+            assertEquals(0., out[i], 0.);
+        }
+    }
+
+    @Test
+    public void testHyperbolicTangentDerivative() {
+        final HyperbolicTangent tanh = new HyperbolicTangent();
+        final double h = 1e-6;
+        for (final double x : values()) {
+            final double numeric = (tanh.forward(x + h) - tanh.forward(x - h)) / (2 * h);
+            assertEquals(numeric, tanh.backward(x), 1e-6);
+        }
+        // sinh / cosh overflows to NaN for big inputs.
+        assertEquals(1., tanh.forward(1000.), 0.);
+    }
+
+    private static double[] values() {
+        final Random random = new Random(5);
+        final double[] values = new double[101];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - .5) * 8;
+        }
+        values[0] = 0.;
+        return values;
+    }
+}
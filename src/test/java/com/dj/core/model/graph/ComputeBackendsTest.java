@@ -0,0 +1,47 @@
+package com.dj.core.model.graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+
+public class ComputeBackendsTest {
+
+    @Test
+    public void testScalarBackendIsUsedWithoutOtherBackends() {
+        assertEquals(ScalarBackend.NAME, ComputeBackends.choose(null).getName());
+        assertSame(ComputeBackends.scalar(), ComputeBackends.choose(ScalarBackend.NAME));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownBackendIsRejected() {
+        ComputeBackends.choose("unknown");
+    }
+
+    @Test
+    public void testScalarBackendMath() {
+        final ComputeBackend backend = ComputeBackends.scalar();
+        final double[] matrix = {1., 2., 3., 4., 5., 6.};
+        final double[] bias = {.5, -.5};
+
+        assertEquals(32., backend.dot(matrix, 3, new double[] {0., 1., 2., 3.}, 1, 3), 0.);
+
+        final double[] y = {1., 1., 1.};
+        backend.axpy(2., matrix, 1, y, 0, 3);
+        assertEquals(5., y[0], 0.);
+        assertEquals(9., y[2], 0.);
+
+        final double[] gemv = new double[2];
+        backend.gemv(matrix, 2, 3, new double[] {1., 0., -1.}, bias, gemv);
+        assertEquals(-1.5, gemv[0], 0.);
+        assertEquals(-2.5, gemv[1], 0.);
+
+        final double[] gemm = new double[4];
+        backend.gemm(matrix, 2, 3, new double[] {1., 0., -1., 0., 1., 0.}, 2, bias, gemm);
+        assertEquals(-1.5, gemm[0], 0.);
+        assertEquals(-2.5, gemm[1], 0.);
+        assertEquals(2.5, gemm[2], 0.);
+        assertEquals(4.5, gemm[3], 0.);
+    }
+}
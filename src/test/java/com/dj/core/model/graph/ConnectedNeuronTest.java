@@ -0,0 +1,86 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ConnectedNeuronTest {
+
+    private static final int WARM_UP_SAMPLES = 50_000;
+
+    private static final int MEASURED_SAMPLES = 100_000;
+
+    @Test
+    public void testForwardPassDoesNotAllocate() {
+        final var threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final var allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        final Context context = new Context();
+        final InputNeuron[] inputs = new InputNeuron[16];
+        final ConnectedNeuron[] hidden = new ConnectedNeuron[8];
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        for (int i = 0; i < hidden.length; i++) {
+            hidden[i] = new ConnectedNeuron.Builder()
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            hidden[i].connect(output, .1 * i);
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new InputNeuron();
+            for (final ConnectedNeuron neuron : hidden) {
+                inputs[i].connect(neuron, .01 * i);
+            }
+        }
+
+        sendSamples(inputs, WARM_UP_SAMPLES);
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = allocationBean.getThreadAllocatedBytes(threadId);
+        sendSamples(inputs, MEASURED_SAMPLES);
+        final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // A small bound instead of 0 for the TLAB refills and the measurement itself, not per sample.
+        assertTrue("Bytes allocated by " + MEASURED_SAMPLES + " samples: " + allocated, allocated < 1024);
+    }
+
+    @Test
+    public void testEveryConnectionGetsItsOwnSlot() {
+        final Context context = new Context();
+        final InputNeuron input = new InputNeuron();
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(0.)
+                .activationFunction(new Relu())
+                .context(context)
+                .build();
+        input.connect(output, 1.);
+        input.connect(output, 2.);
+
+        input.forwardSignalReceived(null, 1.);
+        assertEquals(3., output.getForwardResult(), 0.);
+
+        output.forwardSignalReceived(0, 2.);
+        output.forwardSignalReceived(1, 1.);
+        assertEquals(4., output.getForwardResult(), 0.);
+    }
+
+    private static void sendSamples(final InputNeuron[] inputs, final int samples) {
+        for (int sample = 0; sample < samples; sample++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i].forwardSignalReceived(null, (double) ((sample + i) % 3));
+            }
+        }
+    }
+}
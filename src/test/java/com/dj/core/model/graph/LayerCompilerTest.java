@@ -0,0 +1,180 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.update.Adam;
+import com.dj.core.model.update.UpdateState;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class LayerCompilerTest {
+
+    private static final double[][] INPUTS = {
+            {1., 1., 1.}, {1., 1., 0.}, {1., 0., 1.}, {0., 1., 1.},
+            {0., 0., 1.}, {0., 1., 0.}, {1., 0., 0.}, {0., 0., 0.}};
+
+    private static final double[] EXPECTED = {1., 0., 1., 1., 0., 0., 0., 0.};
+
+    @Test
+    public void testForwardMatchesNeurons() {
+        final Network network = new Network(Precision.DOUBLE);
+        final CompiledNetwork compiled = LayerCompiler.compile(network.inputLayer, network.outputLayer);
+
+        assertEquals(2, compiled.getLayerCount());
+        assertEquals(3, compiled.getInputSize());
+        assertEquals(1, compiled.getOutputSize());
+        for (final double[] input : INPUTS) {
+            assertEquals(network.forward(input), compiled.forward(input)[0], 0.);
+        }
+    }
+
+    @Test
+    public void testTrainingMatchesNeurons() {
+        assertTrainingMatchesNeurons(Precision.DOUBLE);
+    }
+
+    @Test
+    public void testFloatTrainingMatchesNeurons() {
+        assertTrainingMatchesNeurons(Precision.FLOAT);
+    }
+
+    private static void assertTrainingMatchesNeurons(final Precision precision) {
+        final Network trainedByNeurons = new Network(precision);
+        final Network trainedByCompiled = new Network(precision);
+        final CompiledNetwork compiled
+                = LayerCompiler.compile(trainedByCompiled.inputLayer, trainedByCompiled.outputLayer);
+
+        for (int epoch = 0; epoch < 100; epoch++) {
+            for (int i = 0; i < INPUTS.length; i++) {
+                final double neuronsResult = trainedByNeurons.forward(INPUTS[i]);
+                trainedByNeurons.output.backwardSignalReceived(2. * (EXPECTED[i] - neuronsResult));
+
+                final double compiledResult = compiled.forward(INPUTS[i])[0];
+                compiled.backward(new double[] {2. * (EXPECTED[i] - compiledResult)});
+            }
+        }
+        compiled.writeBack();
+
+        for (final double[] input : INPUTS) {
+            assertEquals(trainedByNeurons.forward(input), trainedByCompiled.forward(input), 0.);
+        }
+    }
+
+    @Test
+    public void testMomentsSurviveCompileAndWriteBack() {
+        final Network network = new Network(Precision.DOUBLE);
+        network.output.getContext().setUpdateRule(new Adam());
+        // The neurons get their moments first, then the training goes on in the compiled form.
+        for (int i = 0; i < INPUTS.length; i++) {
+            network.output.backwardSignalReceived(2. * (EXPECTED[i] - network.forward(INPUTS[i])));
+        }
+        final CompiledNetwork compiled = LayerCompiler.compile(network.inputLayer, network.outputLayer);
+        final DenseLayer outputLayer = compiled.getLayer(1);
+        assertEquals(INPUTS.length, outputLayer.getWeightState().getStep());
+        assertEquals(
+                network.output.getUpdateState().getMoment(1)[0],
+                outputLayer.getBiasState().getMoment(1)[0],
+                0.);
+        for (int i = 0; i < INPUTS.length; i++) {
+            compiled.backward(new double[] {2. * (EXPECTED[i] - compiled.forward(INPUTS[i])[0])});
+        }
+        compiled.writeBack();
+
+        final CompiledNetwork recompiled = LayerCompiler.compile(network.inputLayer, network.outputLayer);
+        for (int layer = 0; layer < compiled.getLayerCount(); layer++) {
+            final UpdateState weightState = compiled.getLayer(layer).getWeightState();
+            final UpdateState recompiledWeightState = recompiled.getLayer(layer).getWeightState();
+            assertEquals(2 * INPUTS.length, recompiledWeightState.getStep());
+            for (int moment = 0; moment < 2; moment++) {
+                assertArrayEquals(weightState.getMoment(moment), recompiledWeightState.getMoment(moment), 0.);
+                assertArrayEquals(
+                        compiled.getLayer(layer).getBiasState().getMoment(moment),
+                        recompiled.getLayer(layer).getBiasState().getMoment(moment),
+                        0.);
+            }
+        }
+        // Hidden neurons are connected to the inputs in different orders, so this checks the mapping by the neuron.
+        assertTrue(compiled.getLayer(0).getWeightState().getMoment(0)[5] != 0.);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNotDenseGraphIsRejected() {
+        final Context context = new Context();
+        final InputNeuron inputA = new InputNeuron();
+        final InputNeuron inputB = new InputNeuron();
+        final ConnectedNeuron hidden1 = new ConnectedNeuron.Builder()
+                .activationFunction(new Relu())
+                .context(context)
+                .build();
+        final ConnectedNeuron hidden2 = new ConnectedNeuron.Builder()
+                .activationFunction(new Relu())
+                .context(context)
+                .build();
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        inputA.connect(hidden1, .1);
+        inputB.connect(hidden1, .2);
+        inputA.connect(hidden2, .3);
+        hidden1.connect(output, .4);
+        hidden2.connect(output, .5);
+
+        LayerCompiler.compile(List.of(inputA, inputB), List.of(output));
+    }
+
+    private static class Network {
+
+        private final InputNeuron[] inputs = {
+                new InputNeuron("friend"), new InputNeuron("vodka"), new InputNeuron("sunny")};
+
+        private final ConnectedNeuron output;
+
+        private final List<Neuron> inputLayer;
+
+        private final List<Neuron> outputLayer;
+
+        private Network(final Precision precision) {
+            final Context context = new Context(.05, false, precision);
+            final ConnectedNeuron hidden1 = new ConnectedNeuron.Builder()
+                    .bias(.1)
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            final ConnectedNeuron hidden2 = new ConnectedNeuron.Builder()
+                    .bias(.2)
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            output = new ConnectedNeuron.Builder()
+                    .bias(.3)
+                    .activationFunction(new Sigmoid())
+                    .context(context)
+                    .build();
+            inputs[0].connect(hidden1, .11);
+            inputs[1].connect(hidden1, .12);
+            inputs[2].connect(hidden1, .13);
+            // Connected in a different order on purpose, the compiler should map weights by the neuron.
+            inputs[2].connect(hidden2, .23);
+            inputs[0].connect(hidden2, .21);
+            inputs[1].connect(hidden2, .22);
+            hidden1.connect(output, .31);
+            hidden2.connect(output, .32);
+            inputLayer = List.of(inputs[0], inputs[1], inputs[2]);
+            outputLayer = List.of(output);
+        }
+
+        private double forward(final double[] input) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i].forwardSignalReceived(null, input[i]);
+            }
+            return output.getForwardResult();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.dj.core.model.graph;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.init.WeightInitializer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+
+public class LayersTest {
+
+    private static final double[][] INPUTS = {
+            {1., 1., 1.}, {1., 1., 0.}, {1., 0., 1.}, {0., 1., 1.},
+            {0., 0., 1.}, {0., 1., 0.}, {1., 0., 0.}, {0., 0., 0.}};
+
+    private static final double[] EXPECTED = {1., 0., 1., 1., 0., 0., 0., 0.};
+
+    /**
+     * Weight of the connection from the input i to the neuron j is (j + 1) / 10 + (i + 1) / 100, bias is -(j + 1) / 10.
+     */
+    private static final WeightInitializer INITIALIZER = new WeightInitializer() {
+        @Override
+        public void initializeWeights(final double[] weights, final int fanIn, final int fanOut) {
+            for (int row = 0; row < fanOut; row++) {
+                for (int column = 0; column < fanIn; column++) {
+                    weights[row * fanIn + column] = (row + 1) / 10. + (column + 1) / 100.;
+                }
+            }
+        }
+
+        @Override
+        public void initializeBiases(final double[] biases, final int fanIn, final int fanOut) {
+            for (int row = 0; row < fanOut; row++) {
+                biases[row] = -(row + 1) / 10.;
+            }
+        }
+    };
+
+    @Test
+    public void testDenseLayerMatchesConnectedNeurons() {
+        assertDenseLayerMatchesConnectedNeurons(Precision.DOUBLE);
+    }
+
+    @Test
+    public void testFloatDenseLayerMatchesConnectedNeurons() {
+        assertDenseLayerMatchesConnectedNeurons(Precision.FLOAT);
+    }
+
+    private static void assertDenseLayerMatchesConnectedNeurons(final Precision precision) {
+        final Context context = new Context(.05, false, precision);
+        final List<Neuron> inputLayer = Layers.inputLayer(3);
+        final List<Neuron> hiddenLayer = Layers.denseLayer(inputLayer, 4, new Relu(), INITIALIZER, context);
+        final List<Neuron> outputLayer = Layers.denseLayer(hiddenLayer, 1, new Sigmoid(), INITIALIZER, context);
+
+        final Context connectedContext = new Context(.05, false, precision);
+        final List<Neuron> connectedInputLayer = Layers.inputLayer(3);
+        final List<Neuron> connectedHiddenLayer = connect(connectedInputLayer, 4, new Relu(), connectedContext);
+        final List<Neuron> connectedOutputLayer = connect(connectedHiddenLayer, 1, new Sigmoid(), connectedContext);
+
+        final ConnectedNeuron hidden = (ConnectedNeuron) hiddenLayer.get(2);
+        assertArrayEquals(inputLayer.toArray(), hidden.getBackwardNeurons());
+        assertEquals(.32, hidden.getWeight(1), 1e-7);
+        assertEquals(-.3, hidden.getBias(), 1e-7);
+
+        for (int epoch = 0; epoch < 50; epoch++) {
+            for (int i = 0; i < INPUTS.length; i++) {
+                final double result = forward(inputLayer, outputLayer, INPUTS[i]);
+                final double connectedResult = forward(connectedInputLayer, connectedOutputLayer, INPUTS[i]);
+                assertEquals(connectedResult, result, 0.);
+                outputLayer.get(0).backwardSignalReceived(2. * (EXPECTED[i] - result));
+                connectedOutputLayer.get(0).backwardSignalReceived(2. * (EXPECTED[i] - connectedResult));
+            }
+        }
+    }
+
+    @Test
+    public void testDenseLayersCompile() {
+        final Context context = new Context(.05, false);
+        final List<Neuron> inputLayer = Layers.inputLayer(3);
+        final List<Neuron> hiddenLayer = Layers.denseLayer(inputLayer, 4, new Relu(), INITIALIZER, context);
+        final List<Neuron> outputLayer = Layers.denseLayer(hiddenLayer, 2, new Sigmoid(), INITIALIZER, context);
+
+        final CompiledNetwork compiled = LayerCompiler.compile(inputLayer, outputLayer);
+        assertEquals(2, compiled.getLayerCount());
+        for (final double[] input : INPUTS) {
+            final double[] result = compiled.forward(input);
+            assertEquals(forward(inputLayer, outputLayer, input), result[0], 0.);
+            assertEquals(outputLayer.get(1).getForwardResult(), result[1], 0.);
+        }
+    }
+
+    @Test
+    public void testWideLayer() {
+        final Context context = new Context();
+        final List<Neuron> inputLayer = Layers.inputLayer(1000);
+        final List<Neuron> layer = Layers.denseLayer(inputLayer, 1000, new Relu(), INITIALIZER, context);
+
+        final ConnectedNeuron last = (ConnectedNeuron) layer.get(999);
+        assertSame(inputLayer.get(999), last.getBackwardNeurons()[999]);
+        assertEquals(100.01, last.getWeight(0), 1e-9);
+        assertEquals(110., last.getWeight(999), 1e-9);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testEmptyInputsAreRejected() {
+        Layers.denseLayer(new ArrayList<Neuron>(), 1, new Relu(), INITIALIZER, new Context());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testConnectedNeuronIsNotReconnected() {
+        final ConnectedNeuron neuron = (ConnectedNeuron) Layers.denseLayer(
+                Layers.inputLayer(2), 1, new Relu(), INITIALIZER, new Context()).get(0);
+        neuron.setBackwardConnections(new Neuron[] {new InputNeuron()}, new double[] {1.}, 0);
+    }
+
+    /**
+     * Same layer as the {@link Layers#denseLayer} builds, connected neuron by neuron.
+     */
+    private static List<Neuron> connect(
+            final List<Neuron> inputs,
+            final int width,
+            final ActivationFunction activationFunction,
+            final Context context) {
+        final double[] weights = new double[width * inputs.size()];
+        final double[] biases = new double[width];
+        INITIALIZER.initializeWeights(weights, inputs.size(), width);
+        INITIALIZER.initializeBiases(biases, inputs.size(), width);
+        final List<Neuron> layer = new ArrayList<>();
+        for (int row = 0; row < width; row++) {
+            final ConnectedNeuron neuron = new ConnectedNeuron.Builder()
+                    .bias(biases[row])
+                    .activationFunction(activationFunction)
+                    .context(context)
+                    .build();
+            for (int column = 0; column < inputs.size(); column++) {
+                inputs.get(column).connect(neuron, weights[row * inputs.size() + column]);
+            }
+            layer.add(neuron);
+        }
+        return layer;
+    }
+
+    private static double forward(final List<Neuron> inputLayer, final List<Neuron> outputLayer, final double[] input) {
+        for (int i = 0; i < input.length; i++) {
+            inputLayer.get(i).forwardSignalReceived(null, input[i]);
+        }
+        return outputLayer.get(0).getForwardResult();
+    }
+}
@@ -0,0 +1,96 @@
+package com.dj.core.model.init;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class WeightInitializerTest {
+
+    private static final int FAN_IN = 1000;
+
+    private static final int FAN_OUT = 300;
+
+    @Test
+    public void testSameSeedSameWeightsWhateverTheThreadCount() throws Exception {
+        final double[] sequential = initialize(new ForkJoinPool(1), new He(42));
+        final double[] parallel = initialize(new ForkJoinPool(4), new He(42));
+
+        assertTrue(sequential.length > 2 * RandomInitializer.CHUNK_SIZE);
+        assertArrayEquals(sequential, parallel, 0.);
+        assertFalse(sequential[0] == initialize(new ForkJoinPool(4), new He(43))[0]);
+    }
+
+    @Test
+    public void testEveryLayerGetsItsOwnWeights() {
+        final Xavier initializer = new Xavier(42);
+        final double[] first = new double[FAN_IN * FAN_OUT];
+        final double[] second = new double[FAN_IN * FAN_OUT];
+        initializer.initializeWeights(first, FAN_IN, FAN_OUT);
+        initializer.initializeWeights(second, FAN_IN, FAN_OUT);
+
+        assertFalse(first[0] == second[0]);
+        final double[] again = new double[FAN_IN * FAN_OUT];
+        new Xavier(42).initializeWeights(again, FAN_IN, FAN_OUT);
+        assertArrayEquals(first, again, 0.);
+    }
+
+    @Test
+    public void testDistributions() {
+        final double xavierLimit = Math.sqrt(6. / (FAN_IN + FAN_OUT));
+        assertDistribution(new Xavier(1), 0., xavierLimit / Math.sqrt(3.), -xavierLimit, xavierLimit);
+        assertDistribution(new Uniform(-.5, 1.5, 1), .5, 2. / Math.sqrt(12.), -.5, 1.5);
+        assertDistribution(
+                new He(1), 0., Math.sqrt(2. / FAN_IN), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        assertDistribution(new Normal(3., .5, 1), 3., .5, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testBiasesAreZeros() {
+        final double[] biases = new double[FAN_OUT];
+        new He(1).initializeBiases(biases, FAN_IN, FAN_OUT);
+        assertArrayEquals(new double[FAN_OUT], biases, 0.);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidStandardDeviationIsRejected() {
+        new Normal(0., 0., 1);
+    }
+
+    private static void assertDistribution(
+            final WeightInitializer initializer,
+            final double mean,
+            final double standardDeviation,
+            final double min,
+            final double max) {
+        final double[] weights = new double[FAN_IN * FAN_OUT];
+        initializer.initializeWeights(weights, FAN_IN, FAN_OUT);
+        double sum = 0.;
+        double squaresSum = 0.;
+        for (final double weight : weights) {
+            assertTrue(weight >= min && weight < max);
+            sum += weight;
+            squaresSum += weight * weight;
+        }
+        final double actualMean = sum / weights.length;
+        final double actualStandardDeviation = Math.sqrt(squaresSum / weights.length - actualMean * actualMean);
+        assertEquals(mean, actualMean, standardDeviation * .01);
+        assertEquals(standardDeviation, actualStandardDeviation, standardDeviation * .01);
+    }
+
+    private static double[] initialize(final ForkJoinPool pool, final WeightInitializer initializer)
+            throws Exception {
+        try {
+            final double[] weights = new double[FAN_IN * FAN_OUT];
+            pool.submit(() -> initializer.initializeWeights(weights, FAN_IN, FAN_OUT)).get();
+            return weights;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
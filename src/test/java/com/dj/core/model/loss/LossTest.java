@@ -0,0 +1,122 @@
+package com.dj.core.model.loss;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class LossTest {
+
+    private static final List<Loss> ELEMENTWISE_LOSSES = List.of(
+            new QuadraticLoss(),
+            new AbsoluteLoss(),
+            new HuberLoss(.5),
+            new BinaryCrossEntropy());
+
+    @Test
+    public void testBatchMatchesSingleOutputs() {
+        final int size = 50;
+        final int outputSize = 3;
+        final double[] actual = new double[size * outputSize];
+        final double[][] expected = new double[size + 2][outputSize];
+        final Random random = new Random(1);
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = random.nextDouble();
+            // The batch starts at the example 2 of the expected results.
+            expected[2 + i / outputSize][i % outputSize] = random.nextInt(2);
+        }
+        for (final Loss loss : ELEMENTWISE_LOSSES) {
+            double expectedError = 0.;
+            final double[] expectedDerivatives = new double[actual.length];
+            for (int i = 0; i < actual.length; i++) {
+                final double expectedValue = expected[2 + i / outputSize][i % outputSize];
+                expectedError += loss.error(actual[i], expectedValue);
+                expectedDerivatives[i] = loss.derivative(actual[i], expectedValue);
+            }
+
+            final double[] derivatives = new double[actual.length];
+            assertEquals(expectedError, loss.error(actual, expected, 2, size, outputSize), 1e-9);
+            assertEquals(
+                    expectedError,
+                    loss.errorAndDerivatives(actual, expected, 2, size, outputSize, derivatives),
+                    1e-9);
+            assertArrayEquals(expectedDerivatives, derivatives, 1e-12);
+        }
+    }
+
+    @Test
+    public void testDerivativesAreMinusGradient() {
+        for (final Loss loss : ELEMENTWISE_LOSSES) {
+            for (final double actual : new double[] {.1, .4, .7, .95}) {
+                final double gradient = (loss.error(actual + 1e-7, 1.) - loss.error(actual - 1e-7, 1.)) / 2e-7;
+                assertEquals(-gradient, loss.derivative(actual, 1.), 1e-5 * Math.max(1., Math.abs(gradient)));
+            }
+        }
+    }
+
+    @Test
+    public void testHuberLoss() {
+        final HuberLoss loss = new HuberLoss(1.);
+        assertEquals(.125, loss.error(.5, 1.), 0.);
+        assertEquals(.5, loss.derivative(.5, 1.), 0.);
+        assertEquals(2.5, loss.error(4., 1.), 0.);
+        assertEquals(-1., loss.derivative(4., 1.), 0.);
+    }
+
+    @Test
+    public void testBinaryCrossEntropyStaysFinite() {
+        final BinaryCrossEntropy loss = new BinaryCrossEntropy();
+        assertEquals(-Math.log(BinaryCrossEntropy.EPSILON), loss.error(0., 1.), 1e-6);
+        assertTrue(Double.isFinite(loss.derivative(1., 0.)));
+        assertEquals(-Math.log(.8), loss.error(.2, 0.), 1e-12);
+    }
+
+    @Test
+    public void testCompensatedSumKeepsSmallValues() {
+        final CompensatedSum sum = new CompensatedSum();
+        double plainSum = 0.;
+        sum.add(1.);
+        plainSum += 1.;
+        for (int i = 0; i < 1_000_000; i++) {
+            sum.add(1e-16);
+            plainSum += 1e-16;
+        }
+        assertEquals(1., plainSum, 0.);
+        assertEquals(1. + 1e-10, sum.get(), 1e-22);
+    }
+
+    @Test
+    public void testParallelSumDoesNotDependOnThreads() throws Exception {
+        final int count = 10 * CompensatedSum.CHUNK_SIZE + 17;
+        final double[] values = new double[count];
+        double plainSum = 0.;
+        for (int i = 0; i < count; i++) {
+            values[i] = .1;
+            plainSum += values[i];
+        }
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            final double singleSum = single.submit(() -> CompensatedSum.sum(count, i -> values[i])).get();
+            final double severalSum = several.submit(() -> CompensatedSum.sum(count, i -> values[i])).get();
+            assertEquals(singleSum, severalSum, 0.);
+            assertEquals(count / 10., singleSum, 1e-9);
+            assertNotEquals(count / 10., plainSum, 1e-9);
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidHuberDeltaIsRejected() {
+        new HuberLoss(0.);
+    }
+}
@@ -0,0 +1,132 @@
+package com.dj.core.model.loss;
+
+import com.dj.core.model.activation.Identity;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.Layers;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.init.Xavier;
+import com.dj.core.optimizer.SGDOptimizer;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SoftmaxCrossEntropyTest {
+
+    private final SoftmaxCrossEntropy loss = new SoftmaxCrossEntropy();
+
+    @Test
+    public void testMatchesSoftmaxAndLog() {
+        // The example starts at the position 1, to check the offset.
+        final double[] logits = {Double.NaN, .5, -1., 2., .1};
+        final double[] expected = {0., 0., 1., 0.};
+        final double[] derivatives = new double[logits.length];
+
+        final double[] probabilities = new double[4];
+        double sumExp = 0.;
+        for (int i = 0; i < probabilities.length; i++) {
+            sumExp += Math.exp(logits[1 + i]);
+        }
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = Math.exp(logits[1 + i]) / sumExp;
+        }
+        final double expectedLoss = -Math.log(probabilities[2]);
+
+        assertEquals(expectedLoss, loss.error(logits, 1, expected, 4), 1e-12);
+        assertEquals(expectedLoss, loss.errorAndDerivatives(logits, 1, expected, derivatives, 4), 1e-12);
+        for (int i = 0; i < probabilities.length; i++) {
+            assertEquals(expected[i] - probabilities[i], derivatives[1 + i], 1e-12);
+        }
+        assertEquals(0., derivatives[0], 0.);
+        assertArrayEquals(probabilities, SoftmaxCrossEntropy.softmax(new double[] {.5, -1., 2., .1}), 1e-12);
+    }
+
+    @Test
+    public void testDerivativesAreMinusGradient() {
+        final double[] logits = {.3, -.2, 1.5};
+        final double[] expected = {.2, .5, .3};
+        final double[] derivatives = new double[3];
+        loss.errorAndDerivatives(logits, 0, expected, derivatives, 3);
+        for (int i = 0; i < logits.length; i++) {
+            final double[] shifted = logits.clone();
+            shifted[i] += 1e-6;
+            final double gradient = (loss.error(shifted, 0, expected, 3) - loss.error(logits, 0, expected, 3)) / 1e-6;
+            assertEquals(-gradient, derivatives[i], 1e-5);
+        }
+    }
+
+    @Test
+    public void testLargeLogitsDoNotOverflow() {
+        final double[] expected = {0., 1., 0.};
+        final double[] derivatives = new double[3];
+        final double[] logits = {1000., 1001., 999.};
+        final double lossOfLarge = loss.errorAndDerivatives(logits, 0, expected, derivatives, 3);
+
+        assertEquals(loss.error(new double[] {0., 1., -1.}, 0, expected, 3), lossOfLarge, 1e-12);
+        for (final double derivative : derivatives) {
+            assertTrue(Double.isFinite(derivative));
+        }
+        assertEquals(0., loss.error(new double[] {-1000., 1000., -1000.}, 0, expected, 3), 0.);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSingleOutputIsRejected() {
+        loss.error(1., 1.);
+    }
+
+    @Test
+    public void testDefaultExampleErrorSumsOutputs() {
+        final Loss quadraticLoss = new QuadraticLoss();
+        final double[] actual = {.1, .7, .4};
+        final double[] expected = {0., 1., 1.};
+        final double[] derivatives = new double[3];
+
+        final double error = quadraticLoss.errorAndDerivatives(actual, 0, expected, derivatives, 3);
+        assertEquals(.01 + .09 + .36, error, 1e-12);
+        assertEquals(error, quadraticLoss.error(actual, 0, expected, 3), 0.);
+        assertArrayEquals(new double[] {-.2, .6, 1.2}, derivatives, 1e-12);
+    }
+
+    @Test
+    public void testTrainsClassifier() {
+        for (final int batchSize : new int[] {1, 8}) {
+            final double[][] inputs = new double[90][];
+            final double[][] expected = new double[90][];
+            final double[][] centers = {{-1., -1.}, {1., -1.}, {0., 1.}};
+            final Random random = new Random(1);
+            for (int i = 0; i < inputs.length; i++) {
+                final int label = i % 3;
+                inputs[i] = new double[] {
+                        centers[label][0] + random.nextGaussian() * .2, centers[label][1] + random.nextGaussian() * .2};
+                expected[i] = new double[3];
+                expected[i][label] = 1.;
+            }
+            final Context context = new Context(.1, false);
+            final List<Neuron> inputLayer = Layers.inputLayer(2);
+            final List<Neuron> outputLayer = Layers.denseLayer(inputLayer, 3, new Identity(), new Xavier(1), context);
+
+            final SGDOptimizer optimizer = new SGDOptimizer.Builder()
+                    .loss(loss)
+                    .numberOfEpochsToTrain(100)
+                    .batchSize(batchSize)
+                    .build();
+            optimizer.train(context, inputLayer, outputLayer, inputs, expected);
+
+            assertTrue(optimizer.getTrainingLoss() < .1);
+            for (int i = 0; i < inputs.length; i++) {
+                inputLayer.get(0).forwardSignalReceived(null, inputs[i][0]);
+                inputLayer.get(1).forwardSignalReceived(null, inputs[i][1]);
+                final double[] probabilities = SoftmaxCrossEntropy.softmax(new double[] {
+                        outputLayer.get(0).getForwardResult(),
+                        outputLayer.get(1).getForwardResult(),
+                        outputLayer.get(2).getForwardResult()});
+                assertTrue(probabilities[i % 3] > .5);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.dj.core.model.update;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class UpdateRuleTest {
+
+    @Test
+    public void testGradientDescent() {
+        final double[] gradients = {1., -2.};
+
+        new GradientDescent().computeChanges(gradients, 2, .1, new UpdateState(0, 2));
+
+        assertArrayEquals(new double[] {.1, -.2}, gradients, 1e-15);
+    }
+
+    @Test
+    public void testMomentum() {
+        final UpdateRule rule = new Momentum(.5);
+        final UpdateState state = new UpdateState(rule.getMomentCount(), 1);
+
+        assertArrayEquals(new double[] {.1}, changes(rule, state, 1.), 1e-15);
+        // velocity = .5 * 1 + 1
+        assertArrayEquals(new double[] {.15}, changes(rule, state, 1.), 1e-15);
+        assertEquals(1.5, state.getMoment(0)[0], 1e-15);
+    }
+
+    @Test
+    public void testNesterov() {
+        final UpdateRule rule = new Nesterov(.5);
+        final UpdateState state = new UpdateState(rule.getMomentCount(), 1);
+
+        // velocity = 1, change = .1 * (1 + .5 * 1)
+        assertArrayEquals(new double[] {.15}, changes(rule, state, 1.), 1e-15);
+        // velocity = 1.5, change = .1 * (1 + .5 * 1.5)
+        assertArrayEquals(new double[] {.175}, changes(rule, state, 1.), 1e-15);
+    }
+
+    @Test
+    public void testRmsProp() {
+        final UpdateRule rule = new RmsProp(.5, 0.);
+        final UpdateState state = new UpdateState(rule.getMomentCount(), 2);
+
+        // meanSquare = .5 * g^2, change = .1 * g / sqrt(.5 * g^2)
+        assertArrayEquals(
+                new double[] {.1 * Math.sqrt(2.), -.1 * Math.sqrt(2.)},
+                changes(rule, state, 4., -.01),
+                1e-12);
+        assertArrayEquals(new double[] {8., .00005}, state.getMoment(0), 1e-12);
+    }
+
+    @Test
+    public void testAdamCorrectsTheBiasOfTheMoments() {
+        final UpdateRule rule = new Adam(.9, .999, 0.);
+        final UpdateState state = new UpdateState(rule.getMomentCount(), 2);
+
+        // After the bias correction the first change is the learning rate in the direction of the gradient.
+        assertArrayEquals(new double[] {.1, -.1}, changes(rule, state, 100., -.001), 1e-12);
+        assertEquals(1, state.getStep());
+
+        final double first = .9 * 10. + .1 * 50.;
+        final double second = .999 * 10. + .001 * 2500.;
+        final double expected = .1 * (first / (1. - .81)) / Math.sqrt(second / (1. - .999 * .999));
+        assertEquals(expected, changes(rule, state, 50., 0.)[0], 1e-12);
+        assertEquals(2, state.getStep());
+    }
+
+    @Test
+    public void testResizeKeepsTheMoments() {
+        final UpdateState state = new UpdateState(2, 2);
+        state.getMoment(0)[1] = 1.;
+        state.getMoment(1)[0] = 2.;
+        state.setStep(7);
+
+        final UpdateState resized = state.resize(3);
+
+        assertEquals(3, resized.getParameterCount());
+        assertEquals(7, resized.getStep());
+        assertArrayEquals(new double[] {0., 1., 0.}, resized.getMoment(0), 0.);
+        assertArrayEquals(new double[] {2., 0., 0.}, resized.getMoment(1), 0.);
+        resized.getMoment(0)[0] = 5.;
+        assertEquals(0., state.getMoment(0)[0], 0.);
+    }
+
+    private static double[] changes(final UpdateRule rule, final UpdateState state, final double... gradients) {
+        final double[] result = gradients.clone();
+        rule.computeChanges(result, result.length, .1, state);
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.dataset.InMemoryDataset;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.CompiledNetwork;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.model.graph.Layers;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.init.Xavier;
+import com.dj.core.model.loss.QuadraticLoss;
+import com.dj.core.model.update.Adam;
+import com.dj.core.model.update.UpdateState;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+public class DataParallelTrainerTest {
+
+    private static final int EXAMPLES = 2000;
+
+    @Test
+    public void testHogwildThreadsShareUpdateStates() {
+        final Random random = new Random(1);
+        final double[][] inputs = new double[EXAMPLES][2];
+        final double[][] expectedResults = new double[EXAMPLES][1];
+        for (int example = 0; example < EXAMPLES; example++) {
+            inputs[example][0] = random.nextDouble();
+            inputs[example][1] = random.nextDouble();
+            expectedResults[example][0] = inputs[example][0] > inputs[example][1] ? 1. : 0.;
+        }
+        final Context context = new Context(.01, false);
+        context.setUpdateRule(new Adam());
+        final List<Neuron> inputLayer = Layers.inputLayer(2);
+        final List<Neuron> hiddenLayer = Layers.denseLayer(inputLayer, 4, new Sigmoid(), new Xavier(2), context);
+        final List<Neuron> outputLayer = Layers.denseLayer(hiddenLayer, 1, new Sigmoid(), new Xavier(3), context);
+        final CompiledNetwork network = LayerCompiler.compile(inputLayer, outputLayer);
+
+        try (var trainer = new DataParallelTrainer(network, new QuadraticLoss(), 4, 1, true)) {
+            final UpdateState[] weightStates = new UpdateState[network.getLayerCount()];
+            final UpdateState[] biasStates = new UpdateState[network.getLayerCount()];
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                weightStates[i] = network.getLayer(i).getWeightState();
+                biasStates[i] = network.getLayer(i).getBiasState();
+                assertNotNull(weightStates[i]);
+                assertNotNull(biasStates[i]);
+            }
+
+            try (var source = new InMemoryDataset(inputs, expectedResults).open()) {
+                trainer.trainEpoch(source);
+            }
+
+            // Every batch of one example is one update of every layer, whichever thread has done it.
+            for (int i = 0; i < network.getLayerCount(); i++) {
+                assertSame(weightStates[i], network.getLayer(i).getWeightState());
+                assertSame(biasStates[i], network.getLayer(i).getBiasState());
+                assertEquals(EXAMPLES, weightStates[i].getStep());
+                assertEquals(EXAMPLES, biasStates[i].getStep());
+            }
+        }
+    }
+}
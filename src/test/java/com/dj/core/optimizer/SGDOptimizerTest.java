@@ -0,0 +1,652 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.dataset.BinaryDataset;
+import com.dj.core.dataset.InMemoryDataset;
+import com.dj.core.metrics.MetricsListener;
+import com.dj.core.metrics.MetricsRegistry;
+import com.dj.core.metrics.TrainingMetrics;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.loss.QuadraticLoss;
+import com.dj.core.model.update.Adam;
+import com.dj.core.model.update.Momentum;
+import com.dj.core.model.update.Nesterov;
+import com.dj.core.model.update.RmsProp;
+import com.dj.core.model.update.UpdateRule;
+import com.dj.core.optimizer.schedule.ExponentialDecay;
+import com.dj.core.optimizer.schedule.ReduceOnPlateau;
+import com.dj.core.optimizer.schedule.Warmup;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class SGDOptimizerTest {
+
+    private static final double[][] INPUTS = {
+            {1., 1., 1.}, {1., 1., 0.}, {1., 0., 1.}, {0., 1., 1.},
+            {0., 0., 1.}, {0., 1., 0.}, {1., 0., 0.}, {0., 0., 0.}};
+
+    private static final double[][] EXPECTED = {{1.}, {1.}, {1.}, {1.}, {0.}, {0.}, {0.}, {0.}};
+
+    @Test
+    public void testMiniBatchTraining() {
+        final Context context = new Context(.5, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        buildNetwork(context, inputLayer, outputLayer);
+        final double lossBefore = loss(inputLayer, outputLayer);
+
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(2000)
+                .batchSize(4)
+                .build()
+                .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+        final double lossAfter = loss(inputLayer, outputLayer);
+        assertTrue(lossAfter < lossBefore);
+        assertTrue(lossAfter < 0.05);
+    }
+
+    @Test
+    public void testParallelTrainingMatchesSingleThread() {
+        final Random random = new Random(7);
+        final double[][] inputs = new double[64][3];
+        final double[][] expected = new double[64][1];
+        for (int i = 0; i < inputs.length; i++) {
+            for (int j = 0; j < 3; j++) {
+                inputs[i][j] = random.nextInt(2);
+            }
+            expected[i][0] = inputs[i][0] + inputs[i][1] + inputs[i][2] >= 2 ? 1. : 0.;
+        }
+        final List<List<Neuron>> singleThread = trainWithThreads(1, false, inputs, expected);
+        final List<List<Neuron>> parallel = trainWithThreads(4, false, inputs, expected);
+
+        for (final double[] input : inputs) {
+            assertEquals(
+                    forward(singleThread.get(0), singleThread.get(1), input),
+                    forward(parallel.get(0), parallel.get(1), input),
+                    1e-9);
+        }
+    }
+
+    @Test
+    public void testHogwildTraining() {
+        final Context context = new Context(.5, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        buildNetwork(context, inputLayer, outputLayer);
+        final double lossBefore = loss(inputLayer, outputLayer);
+
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(2000)
+                .batchSize(2)
+                .threads(2)
+                .hogwild(true)
+                .build()
+                .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+        assertTrue(loss(inputLayer, outputLayer) < lossBefore);
+    }
+
+    @Test
+    public void testHogwildTrainingMetrics() {
+        final Context context = new Context(.5, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        buildNetwork(context, inputLayer, outputLayer);
+        final MetricsRegistry registry = new MetricsRegistry();
+        final List<Long> batches = new ArrayList<>();
+        registry.addListener(new MetricsListener() {
+
+            @Override
+            public void onEpoch(final int epoch, final long nanos, final MetricsRegistry metrics) {
+                // no-op
+            }
+
+            @Override
+            public void onBatch(
+                    final int epoch,
+                    final long batch,
+                    final int examples,
+                    final long nanos,
+                    final double loss) {
+                batches.add(batch);
+            }
+        });
+
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(10)
+                .batchSize(2)
+                .threads(2)
+                .hogwild(true)
+                .metrics(registry)
+                .build()
+                .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+        // The threads update the weights on their own, so only the epochs are measured.
+        final Map<String, Double> snapshot = registry.snapshot();
+        assertTrue(batches.isEmpty());
+        assertEquals(10. * INPUTS.length, snapshot.get(TrainingMetrics.EXAMPLES), 0.);
+        assertEquals(0., snapshot.get(TrainingMetrics.BATCHES), 0.);
+        assertEquals(10., snapshot.get(TrainingMetrics.EPOCH_NANOS + ".count"), 0.);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSynchronousThreadsNeedBatches() {
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(1)
+                .threads(2)
+                .build();
+    }
+
+    @Test
+    public void testStreamedTrainingMatchesInMemory() {
+        final String path = Paths.get(System.getProperty("java.io.tmpdir"), "test-sgd-dataset.djd").toString();
+        BinaryDataset.write(new InMemoryDataset(INPUTS, EXPECTED), path);
+        for (final int batchSize : new int[] {1, 4}) {
+            final Context inMemoryContext = new Context(.5, false);
+            final List<Neuron> inMemoryInputLayer = new ArrayList<>();
+            final List<Neuron> inMemoryOutputLayer = new ArrayList<>();
+            buildNetwork(inMemoryContext, inMemoryInputLayer, inMemoryOutputLayer);
+            final Context streamedContext = new Context(.5, false);
+            final List<Neuron> streamedInputLayer = new ArrayList<>();
+            final List<Neuron> streamedOutputLayer = new ArrayList<>();
+            buildNetwork(streamedContext, streamedInputLayer, streamedOutputLayer);
+            final SGDOptimizer optimizer = new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(100)
+                    .batchSize(batchSize)
+                    .build();
+
+            optimizer.train(inMemoryContext, inMemoryInputLayer, inMemoryOutputLayer, INPUTS, EXPECTED);
+            // Chunks of 3 rows, so the file is mapped several times per epoch.
+            optimizer.train(
+                    streamedContext,
+                    streamedInputLayer,
+                    streamedOutputLayer,
+                    BinaryDataset.open(path, 3 * 4 * Double.BYTES));
+
+            for (final double[] input : INPUTS) {
+                assertEquals(
+                        forward(inMemoryInputLayer, inMemoryOutputLayer, input),
+                        forward(streamedInputLayer, streamedOutputLayer, input),
+                        0.);
+            }
+        }
+    }
+
+    @Test
+    public void testShuffledTrainingIsReproducible() {
+        final double[] results = new double[2];
+        for (int run = 0; run < 2; run++) {
+            final Context context = new Context(.5, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final double lossBefore = loss(inputLayer, outputLayer);
+
+            new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(2000)
+                    .batchSize(4)
+                    .shuffleBufferSize(INPUTS.length)
+                    .seed(11)
+                    .prefetchBatches(2)
+                    .build()
+                    .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+            results[run] = loss(inputLayer, outputLayer);
+            assertTrue(results[run] < lossBefore);
+        }
+        assertEquals(results[0], results[1], 0.);
+    }
+
+    @Test
+    public void testRunningTrainingLossWithoutValidation() {
+        for (final int threads : new int[] {1, 2}) {
+            final Context context = new Context(.5, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final List<Double> trainingLosses = new ArrayList<>();
+            final List<Double> validationLosses = new ArrayList<>();
+            final SGDOptimizer optimizer = new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(2000)
+                    .batchSize(4)
+                    .threads(threads)
+                    .validationInterval(0)
+                    .lossCalculatedListener(recordingListener(validationLosses, trainingLosses))
+                    .build();
+
+            optimizer.train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+            assertTrue(validationLosses.isEmpty());
+            assertEquals(2000, trainingLosses.size());
+            assertTrue(trainingLosses.get(1999) < trainingLosses.get(0));
+            // By the end of the training the weights barely change within an epoch.
+            assertEquals(loss(inputLayer, outputLayer), trainingLosses.get(1999), .01);
+            assertEquals(trainingLosses.get(1999), optimizer.getTrainingLoss(), 0.);
+        }
+    }
+
+    @Test
+    public void testAsyncSampledValidationMatchesSynchronous() {
+        final List<List<Double>> validationLosses = new ArrayList<>();
+        final List<Double> results = new ArrayList<>();
+        for (final boolean async : new boolean[] {false, true}) {
+            final Context context = new Context(.5, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final List<Double> losses = new ArrayList<>();
+            new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(100)
+                    .batchSize(4)
+                    .validationInterval(10)
+                    .validationSampleRate(.5)
+                    .seed(3)
+                    .asyncValidation(async)
+                    .lossCalculatedListener(recordingListener(losses, new ArrayList<>()))
+                    .build()
+                    .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+            validationLosses.add(losses);
+            results.add(loss(inputLayer, outputLayer));
+        }
+
+        assertEquals(10, validationLosses.get(0).size());
+        assertEquals(10, validationLosses.get(1).size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(validationLosses.get(0).get(i), validationLosses.get(1).get(i), 1e-12);
+        }
+        assertEquals(results.get(0), results.get(1), 0.);
+    }
+
+    @Test
+    public void testUpdateRules() {
+        final UpdateRule[] rules = {new Momentum(), new Nesterov(), new RmsProp(), new Adam()};
+        final double[] learningRates = {.05, .05, .02, .02};
+        for (int rule = 0; rule < rules.length; rule++) {
+            for (final int batchSize : new int[] {1, 4}) {
+                final Context context = new Context(learningRates[rule], false);
+                final List<Neuron> inputLayer = new ArrayList<>();
+                final List<Neuron> outputLayer = new ArrayList<>();
+                buildNetwork(context, inputLayer, outputLayer);
+                final double lossBefore = loss(inputLayer, outputLayer);
+
+                new SGDOptimizer.Builder()
+                        .loss(new QuadraticLoss())
+                        .numberOfEpochsToTrain(1000)
+                        .batchSize(batchSize)
+                        .updateRule(rules[rule])
+                        .build()
+                        .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+                final double lossAfter = loss(inputLayer, outputLayer);
+                assertTrue(rules[rule] + " with batch " + batchSize, lossAfter < lossBefore);
+                assertTrue(rules[rule] + " with batch " + batchSize + ": " + lossAfter, lossAfter < 0.05);
+            }
+        }
+    }
+
+    @Test
+    public void testLearningRateSchedule() {
+        final Context context = new Context(.5, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        buildNetwork(context, inputLayer, outputLayer);
+        final List<Double> learningRates = new ArrayList<>();
+
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(20)
+                .batchSize(4)
+                .learningRateSchedule(new Warmup(5, new ExponentialDecay(.9)))
+                .lossCalculatedListener(new OptimizerProgressListener() {
+
+                    @Override
+                    public void onProgress(final double loss, final int currentEpoch, final int targetEpoch) {
+                        // no-op
+                    }
+
+                    @Override
+                    public void onLearningRateChanged(
+                            final double previousLearningRate,
+                            final double learningRate,
+                            final int currentEpoch) {
+                        final int changes = learningRates.size();
+                        assertEquals(changes < 5 ? changes : changes + 1, currentEpoch);
+                        learningRates.add(learningRate);
+                    }
+                })
+                .build()
+                .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+        // The last warmup epoch and the first epoch after it have the same rate, so there is no change between them.
+        assertEquals(19, learningRates.size());
+        assertEquals(.1, learningRates.get(0), 1e-15);
+        assertEquals(.5, learningRates.get(4), 1e-15);
+        assertEquals(.45, learningRates.get(5), 1e-15);
+        assertEquals(.5 * Math.pow(.9, 14), context.getLearningRate(), 1e-15);
+    }
+
+    @Test
+    public void testEarlyStoppingKeepsBestWeights() {
+        // The network learns the opposite of the test data, so the test loss only grows after a while.
+        final double[][] testExpected = new double[EXPECTED.length][];
+        for (int i = 0; i < EXPECTED.length; i++) {
+            testExpected[i] = new double[] {1. - EXPECTED[i][0]};
+        }
+        for (final boolean async : new boolean[] {false, true}) {
+            final Context context = new Context(.5, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final SGDOptimizer optimizer = new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(2000)
+                    .batchSize(4)
+                    .earlyStoppingPatience(5)
+                    .asyncValidation(async)
+                    .build();
+
+            optimizer.train(context, inputLayer, outputLayer, INPUTS, EXPECTED, INPUTS, testExpected);
+
+            assertTrue(optimizer.getEpochsTrained() < 100);
+            final QuadraticLoss loss = new QuadraticLoss();
+            double testLoss = 0.;
+            for (int i = 0; i < INPUTS.length; i++) {
+                testLoss += loss.error(forward(inputLayer, outputLayer, INPUTS[i]), testExpected[i][0]);
+            }
+            assertEquals(optimizer.getBestLoss(), testLoss / INPUTS.length, 1e-12);
+        }
+    }
+
+    @Test
+    public void testEarlyStoppingKeepsLastEpochWhileImproving() {
+        for (final boolean async : new boolean[] {false, true}) {
+            final double[] results = new double[2];
+            for (final int patience : new int[] {0, 5}) {
+                final Context context = new Context(.5, false);
+                final List<Neuron> inputLayer = new ArrayList<>();
+                final List<Neuron> outputLayer = new ArrayList<>();
+                buildNetwork(context, inputLayer, outputLayer);
+                final SGDOptimizer optimizer = new SGDOptimizer.Builder()
+                        .loss(new QuadraticLoss())
+                        .numberOfEpochsToTrain(3)
+                        .batchSize(4)
+                        .earlyStoppingPatience(patience)
+                        .asyncValidation(async)
+                        .build();
+
+                optimizer.train(context, inputLayer, outputLayer, INPUTS, EXPECTED, INPUTS, EXPECTED);
+
+                assertEquals(3, optimizer.getEpochsTrained());
+                results[patience == 0 ? 0 : 1] = forward(inputLayer, outputLayer, INPUTS[0]);
+            }
+            // The loss is still going down after the last epoch, so its weights are the best ones.
+            assertEquals(results[0], results[1], 0.);
+        }
+    }
+
+    @Test
+    public void testLastEpochIsNotValidatedWithoutEarlyStopping() {
+        for (final boolean async : new boolean[] {false, true}) {
+            final Context context = new Context(2., false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final List<Integer> validatedEpochs = new ArrayList<>();
+            final double[] lastEpochLearningRate = new double[1];
+
+            new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(20)
+                    .batchSize(4)
+                    .adjustLearningRateBy(.5)
+                    .asyncValidation(async)
+                    .lossCalculatedListener(new OptimizerProgressListener() {
+
+                        @Override
+                        public void onProgress(final double loss, final int currentEpoch, final int targetEpoch) {
+                            validatedEpochs.add(currentEpoch);
+                        }
+
+                        @Override
+                        public void onTrainingLoss(final double loss, final int currentEpoch, final int targetEpoch) {
+                            lastEpochLearningRate[0] = context.getLearningRate();
+                        }
+                    })
+                    .build()
+                    .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+            assertEquals(20, validatedEpochs.size());
+            assertEquals(19, (int) validatedEpochs.get(19));
+            assertEquals(lastEpochLearningRate[0], context.getLearningRate(), 0.);
+        }
+    }
+
+    @Test
+    public void testResumeFromCheckpointMatchesUninterruptedTraining() {
+        final String path = Paths.get(System.getProperty("java.io.tmpdir"), "test-sgd-checkpoint.djc").toString();
+        for (final int[] setup : new int[][] {{1, 1}, {4, 1}, {4, 2}}) {
+            final Context context = new Context(.05, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            checkpointingOptimizer(setup, 10, null).train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+            // The interrupted training writes its last checkpoint somewhere in the middle of an epoch, checkpoints
+            // that are due while the previous one is being written are postponed.
+            final Context interruptedContext = new Context(.05, false);
+            final List<Neuron> interruptedInputLayer = new ArrayList<>();
+            final List<Neuron> interruptedOutputLayer = new ArrayList<>();
+            buildNetwork(interruptedContext, interruptedInputLayer, interruptedOutputLayer);
+            checkpointingOptimizer(setup, 5, path)
+                    .train(interruptedContext, interruptedInputLayer, interruptedOutputLayer, INPUTS, EXPECTED);
+            final Checkpoint checkpoint = Checkpoint.read(path);
+            assertTrue(checkpoint.getEpoch() < 5);
+            assertTrue(checkpoint.getUpdates() > 0);
+
+            final Context resumedContext = new Context(1., false);
+            final List<Neuron> resumedInputLayer = new ArrayList<>();
+            final List<Neuron> resumedOutputLayer = new ArrayList<>();
+            buildNetwork(resumedContext, resumedInputLayer, resumedOutputLayer);
+            checkpointingOptimizer(setup, 10, null).resume(
+                    checkpoint,
+                    resumedContext,
+                    resumedInputLayer,
+                    resumedOutputLayer,
+                    new InMemoryDataset(INPUTS, EXPECTED));
+
+            assertEquals(context.getLearningRate(), resumedContext.getLearningRate(), 0.);
+            for (final double[] input : INPUTS) {
+                assertEquals(
+                        forward(inputLayer, outputLayer, input),
+                        forward(resumedInputLayer, resumedOutputLayer, input),
+                        0.);
+            }
+        }
+    }
+
+    @Test
+    public void testTrainingMetrics() {
+        for (final int batchSize : new int[] {1, 4}) {
+            final Context context = new Context(.5, false);
+            final List<Neuron> inputLayer = new ArrayList<>();
+            final List<Neuron> outputLayer = new ArrayList<>();
+            buildNetwork(context, inputLayer, outputLayer);
+            final MetricsRegistry registry = new MetricsRegistry();
+            final List<Integer> epochs = new ArrayList<>();
+            final List<Long> batches = new ArrayList<>();
+            registry.addListener(new MetricsListener() {
+
+                @Override
+                public void onEpoch(final int epoch, final long nanos, final MetricsRegistry metrics) {
+                    epochs.add(epoch);
+                }
+
+                @Override
+                public void onBatch(
+                        final int epoch,
+                        final long batch,
+                        final int examples,
+                        final long nanos,
+                        final double loss) {
+                    assertEquals(batchSize, examples);
+                    batches.add(batch);
+                }
+            });
+
+            new SGDOptimizer.Builder()
+                    .loss(new QuadraticLoss())
+                    .numberOfEpochsToTrain(10)
+                    .batchSize(batchSize)
+                    .metrics(registry)
+                    .build()
+                    .train(context, inputLayer, outputLayer, INPUTS, EXPECTED);
+
+            final Map<String, Double> snapshot = registry.snapshot();
+            final int updates = 10 * INPUTS.length / batchSize;
+            assertEquals(10, epochs.size());
+            assertEquals(updates, batches.size());
+            assertEquals(INPUTS.length / batchSize - 1, (long) batches.get(batches.size() - 1));
+            assertEquals(10. * INPUTS.length, snapshot.get(TrainingMetrics.EXAMPLES), 0.);
+            assertEquals(updates, snapshot.get(TrainingMetrics.BATCHES), 0.);
+            assertEquals(10., snapshot.get(TrainingMetrics.EPOCH_NANOS + ".count"), 0.);
+            assertTrue(snapshot.get(TrainingMetrics.SAMPLES_PER_SECOND) > 0.);
+            if (ModuleLayer.boot().findModule("jdk.management").isPresent()) {
+                assertTrue(snapshot.get(TrainingMetrics.ALLOCATED_BYTES_PER_SECOND) >= 0.);
+            }
+            if (batchSize > 1) {
+                assertTrue(snapshot.get(TrainingMetrics.layerForwardNanos(1)) > 0.);
+                assertTrue(snapshot.get(TrainingMetrics.layerBackwardNanos(0)) > 0.);
+                assertEquals(updates, snapshot.get(TrainingMetrics.GRADIENT_NORM + ".count"), 0.);
+                assertTrue(snapshot.get(TrainingMetrics.UPDATE_NORM + ".max") > 0.);
+            } else {
+                assertFalse(snapshot.containsKey(TrainingMetrics.GRADIENT_NORM + ".count"));
+            }
+        }
+    }
+
+    /**
+     * @param setup batch size and amount of threads.
+     */
+    private static SGDOptimizer checkpointingOptimizer(final int[] setup, final int epochs, final String path) {
+        return new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(epochs)
+                .batchSize(setup[0])
+                .threads(setup[1])
+                .shuffleBufferSize(4)
+                .seed(11)
+                .updateRule(new Adam())
+                .learningRateSchedule(new ReduceOnPlateau(.5, 1))
+                .checkpointPath(path)
+                .checkpointInterval(path != null ? 3 : 0)
+                .build();
+    }
+
+    private static OptimizerProgressListener recordingListener(
+            final List<Double> validationLosses,
+            final List<Double> trainingLosses) {
+        return new OptimizerProgressListener() {
+
+            @Override
+            public void onProgress(final double loss, final int currentEpoch, final int targetEpoch) {
+                assertEquals(validationLosses.size() * 10, currentEpoch);
+                validationLosses.add(loss);
+            }
+
+            @Override
+            public void onTrainingLoss(final double loss, final int currentEpoch, final int targetEpoch) {
+                assertEquals(trainingLosses.size(), currentEpoch);
+                trainingLosses.add(loss);
+            }
+        };
+    }
+
+    private static List<List<Neuron>> trainWithThreads(
+            final int threads,
+            final boolean hogwild,
+            final double[][] inputs,
+            final double[][] expected) {
+        final Context context = new Context(.5, false);
+        final List<Neuron> inputLayer = new ArrayList<>();
+        final List<Neuron> outputLayer = new ArrayList<>();
+        buildNetwork(context, inputLayer, outputLayer);
+        new SGDOptimizer.Builder()
+                .loss(new QuadraticLoss())
+                .numberOfEpochsToTrain(50)
+                .batchSize(16)
+                .threads(threads)
+                .hogwild(hogwild)
+                .build()
+                .train(context, inputLayer, outputLayer, inputs, expected);
+        return List.of(inputLayer, outputLayer);
+    }
+
+    private static double forward(
+            final List<Neuron> inputLayer,
+            final List<Neuron> outputLayer,
+            final double[] input) {
+        for (int i = 0; i < input.length; i++) {
+            inputLayer.get(i).forwardSignalReceived(null, input[i]);
+        }
+        return outputLayer.get(0).getForwardResult();
+    }
+
+    static void buildNetwork(final Context context, final List<Neuron> inputLayer, final List<Neuron> outputLayer) {
+        final Random random = new Random(42);
+        for (int i = 0; i < 3; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        final List<ConnectedNeuron> hiddenLayer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Relu())
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble()));
+            hiddenLayer.add(hidden);
+        }
+        final ConnectedNeuron output = new ConnectedNeuron.Builder()
+                .bias(random.nextDouble())
+                .activationFunction(new Sigmoid())
+                .context(context)
+                .build();
+        hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+        outputLayer.add(output);
+    }
+
+    static double loss(final List<Neuron> inputLayer, final List<Neuron> outputLayer) {
+        final QuadraticLoss loss = new QuadraticLoss();
+        double sum = 0.;
+        for (int example = 0; example < INPUTS.length; example++) {
+            for (int i = 0; i < INPUTS[example].length; i++) {
+                inputLayer.get(i).forwardSignalReceived(null, INPUTS[example][i]);
+            }
+            sum += loss.error(outputLayer.get(0).getForwardResult(), EXPECTED[example][0]);
+        }
+        return sum / INPUTS.length;
+    }
+}
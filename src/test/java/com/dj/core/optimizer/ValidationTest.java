@@ -0,0 +1,83 @@
+package com.dj.core.optimizer;
+
+import com.dj.core.dataset.InMemoryDataset;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.LayerCompiler;
+import com.dj.core.model.graph.Layers;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.init.Xavier;
+import com.dj.core.model.loss.QuadraticLoss;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationTest {
+
+    /**
+     * Amount of terms the {@link com.dj.core.model.loss.CompensatedSum} sums up on one thread.
+     */
+    private static final int SEQUENTIAL_SUM_SIZE = 1 << 12;
+
+    private static final int EXAMPLES = Validation.EVALUATION_CHUNK_SIZE + 5000;
+
+    @Test
+    public void testLargeTestDataIsSummedUpInChunks() {
+        final Random random = new Random(42);
+        final double[][] inputs = new double[EXAMPLES][3];
+        final double[][] expectedResults = new double[EXAMPLES][2];
+        for (int example = 0; example < EXAMPLES; example++) {
+            for (int i = 0; i < inputs[example].length; i++) {
+                inputs[example][i] = random.nextDouble() * 2. - 1.;
+            }
+            expectedResults[example][0] = random.nextDouble();
+            expectedResults[example][1] = random.nextDouble();
+        }
+        final List<Neuron> inputLayer = Layers.inputLayer(3);
+        final List<Neuron> outputLayer = Layers.denseLayer(inputLayer, 2, new Sigmoid(), new Xavier(7), new Context());
+
+        double expectedLoss = 0.;
+        final double[] outputs = new double[2];
+        for (int example = 0; example < EXAMPLES; example++) {
+            for (int i = 0; i < inputs[example].length; i++) {
+                inputLayer.get(i).forwardSignalReceived(null, inputs[example][i]);
+            }
+            outputs[0] = outputLayer.get(0).getForwardResult();
+            outputs[1] = outputLayer.get(1).getForwardResult();
+            expectedLoss += new QuadraticLoss().error(outputs, 0, expectedResults[example], 2);
+        }
+        expectedLoss /= EXAMPLES;
+
+        final ChunkRecordingLoss loss = new ChunkRecordingLoss();
+        try (Validation validation = new Validation(
+                loss, new InMemoryDataset(inputs, expectedResults), 1., 0, true)) {
+            assertEquals(expectedLoss, validation.evaluate(inputLayer, outputLayer), 1e-12);
+            assertTrue("Largest chunk: " + loss.largestChunk, loss.largestChunk > SEQUENTIAL_SUM_SIZE);
+
+            loss.largestChunk = 0;
+            validation.submit(LayerCompiler.compile(inputLayer, outputLayer), 0);
+            assertEquals(expectedLoss, validation.await().loss, 1e-12);
+            assertTrue("Largest chunk: " + loss.largestChunk, loss.largestChunk > SEQUENTIAL_SUM_SIZE);
+        }
+    }
+
+    private static final class ChunkRecordingLoss extends QuadraticLoss {
+
+        private volatile int largestChunk;
+
+        @Override
+        public double error(
+                final double[] actual,
+                final double[][] expected,
+                final int from,
+                final int size,
+                final int outputSize) {
+            largestChunk = Math.max(largestChunk, size);
+            return super.error(actual, expected, from, size, outputSize);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.dj.core.optimizer.schedule;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LearningRateScheduleTest {
+
+    @Test
+    public void testStepDecay() {
+        final LearningRateSchedule schedule = new StepDecay(10, .5);
+
+        assertEquals(.4, schedule.learningRate(0, .4), 1e-15);
+        assertEquals(.4, schedule.learningRate(9, .4), 1e-15);
+        assertEquals(.2, schedule.learningRate(10, .4), 1e-15);
+        assertEquals(.1, schedule.learningRate(25, .4), 1e-15);
+    }
+
+    @Test
+    public void testExponentialDecay() {
+        final LearningRateSchedule schedule = new ExponentialDecay(.9);
+
+        assertEquals(.4, schedule.learningRate(0, .4), 1e-15);
+        assertEquals(.4 * .9 * .9 * .9, schedule.learningRate(3, .4), 1e-15);
+    }
+
+    @Test
+    public void testCosineAnnealing() {
+        final LearningRateSchedule schedule = new CosineAnnealing(10, .1);
+
+        assertEquals(.5, schedule.learningRate(0, .5), 1e-15);
+        assertEquals(.3, schedule.learningRate(5, .5), 1e-15);
+        assertEquals(.1, schedule.learningRate(10, .5), 1e-15);
+        assertEquals(.1, schedule.learningRate(20, .5), 1e-15);
+    }
+
+    @Test
+    public void testWarmup() {
+        final LearningRateSchedule schedule = new Warmup(4, new StepDecay(2, .5));
+
+        assertEquals(.1, schedule.learningRate(0, .4), 1e-15);
+        assertEquals(.3, schedule.learningRate(2, .4), 1e-15);
+        assertEquals(.4, schedule.learningRate(4, .4), 1e-15);
+        assertEquals(.2, schedule.learningRate(6, .4), 1e-15);
+        assertEquals(.4, new Warmup(4).learningRate(100, .4), 1e-15);
+    }
+
+    @Test
+    public void testReduceOnPlateau() {
+        final LearningRateSchedule schedule = new ReduceOnPlateau(.5, 2, .15);
+
+        schedule.onLoss(1.);
+        schedule.onLoss(.5);
+        schedule.onLoss(.7);
+        assertEquals(.4, schedule.learningRate(3, .4), 1e-15);
+        schedule.onLoss(.5);
+        assertEquals(.2, schedule.learningRate(4, .4), 1e-15);
+        schedule.onLoss(.4);
+        schedule.onLoss(.4);
+        schedule.onLoss(.4);
+        assertEquals(.15, schedule.learningRate(7, .4), 1e-15);
+    }
+}
@@ -0,0 +1,85 @@
+package com.dj.core.serializer;
+
+
+import com.dj.core.model.activation.LeakyRelu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ConnectedNeuron;
+import com.dj.core.model.graph.Context;
+import com.dj.core.model.graph.InputNeuron;
+import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.graph.Precision;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedModelTest {
+
+    private static final String TMP_DIR_PATH = System.getProperty("java.io.tmpdir");
+
+    @Test
+    public void testPredictionsMatchNeurons() {
+        assertPredictionsMatchNeurons(new Context());
+    }
+
+    @Test
+    public void testFloatModelPredictionsMatchNeurons() {
+        assertPredictionsMatchNeurons(new Context(.2, false, Precision.FLOAT));
+    }
+
+    private static void assertPredictionsMatchNeurons(Context context) {
+        Random random = new Random(17);
+        List<Neuron> inputLayer = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            inputLayer.add(new InputNeuron());
+        }
+        List<Neuron> hiddenLayer = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ConnectedNeuron hidden = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new LeakyRelu(.01))
+                    .context(context)
+                    .build();
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() - .5));
+            hiddenLayer.add(hidden);
+        }
+        List<Neuron> outputLayer = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ConnectedNeuron output = new ConnectedNeuron.Builder()
+                    .bias(random.nextDouble())
+                    .activationFunction(new Sigmoid())
+                    .context(context)
+                    .build();
+            hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+            outputLayer.add(output);
+        }
+        ModelWrapper model = new ModelWrapper.Builder()
+                .context(context)
+                .inputLayer(inputLayer)
+                .outputLayer(outputLayer)
+                .build();
+        Path modelFilePath = Paths.get(TMP_DIR_PATH, "test-mapped.dj");
+        SerializerHelper.serializeToBinaryFile(model, modelFilePath.toString());
+
+        MappedModel mappedModel = MappedModel.open(modelFilePath.toString(), true);
+
+        assertEquals(40, mappedModel.getInputSize());
+        assertEquals(3, mappedModel.getOutputSize());
+        for (int example = 0; example < 10; example++) {
+            double[] input = new double[40];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextDouble();
+                inputLayer.get(i).forwardSignalReceived(null, input[i]);
+            }
+            double[] actual = mappedModel.predict(input);
+            for (int i = 0; i < outputLayer.size(); i++) {
+                assertEquals(outputLayer.get(i).getForwardResult(), actual[i], 0.);
+            }
+        }
+    }
+}
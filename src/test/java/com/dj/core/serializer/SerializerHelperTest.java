@@ -1,20 +1,35 @@
 package com.dj.core.serializer;
 
 
+import com.dj.core.helpers.Scaler;
+import com.dj.core.inference.Predictor;
+import com.dj.core.model.activation.HyperbolicTangent;
+import com.dj.core.model.activation.LeakyRelu;
+import com.dj.core.model.activation.Relu;
 import com.dj.core.model.activation.Sigmoid;
 import com.dj.core.model.graph.ConnectedNeuron;
 import com.dj.core.model.graph.Context;
 import com.dj.core.model.graph.InputNeuron;
 import com.dj.core.model.graph.Neuron;
+import com.dj.core.model.graph.Precision;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
 public class SerializerHelperTest {
 
@@ -73,4 +88,167 @@ public class SerializerHelperTest {
         inputSunnyToTest.forwardSignalReceived(null, 1.);
         assertTrue(outputNeuronToTest.getForwardResult() > .7);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSerializeToBinaryFileAndDeserialize() {
+        ModelWrapper modelWrapper = buildModel();
+        Path binaryModelFilePath = Paths.get(TMP_DIR_PATH, "test-binary.dj");
+        Path javaModelFilePath = Paths.get(TMP_DIR_PATH, "test-java.dj");
+
+        SerializerHelper.serializeToBinaryFile(modelWrapper, binaryModelFilePath.toString());
+        SerializerHelper.serializeToFile(modelWrapper, javaModelFilePath.toString());
+
+        assertTrue(binaryModelFilePath.toFile().length() < javaModelFilePath.toFile().length());
+
+        ModelWrapper afterSerialization = SerializerHelper.deserializeFromBinaryFile(binaryModelFilePath.toString());
+        assertEquals(modelWrapper.getContext().getLearningRate(), afterSerialization.getContext().getLearningRate(), 0.);
+        assertEquals(modelWrapper.getInputLayer().size(), afterSerialization.getInputLayer().size());
+        assertEquals(modelWrapper.getOutputLayer().size(), afterSerialization.getOutputLayer().size());
+
+        Random random = new Random(5);
+        for (int example = 0; example < 20; example++) {
+            double[] input = {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+            double[] expected = forward(modelWrapper, input);
+            double[] actual = forward(afterSerialization, input);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], 0.);
+            }
+        }
+    }
+
+    @Test
+    public void testFloatModelBinaryRoundTrip() {
+        ModelWrapper doubleModel = buildModel(Precision.DOUBLE);
+        ModelWrapper floatModel = buildModel(Precision.FLOAT);
+        Path doubleModelFilePath = Paths.get(TMP_DIR_PATH, "test-binary-double.dj");
+        Path floatModelFilePath = Paths.get(TMP_DIR_PATH, "test-binary-float.dj");
+
+        SerializerHelper.serializeToBinaryFile(doubleModel, doubleModelFilePath.toString());
+        SerializerHelper.serializeToBinaryFile(floatModel, floatModelFilePath.toString());
+
+        assertTrue(floatModelFilePath.toFile().length() < doubleModelFilePath.toFile().length());
+
+        ModelWrapper afterSerialization = SerializerHelper.deserializeFromBinaryFile(floatModelFilePath.toString());
+        assertEquals(Precision.FLOAT, afterSerialization.getContext().getPrecision());
+        Random random = new Random(5);
+        for (int example = 0; example < 20; example++) {
+            double[] input = {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+            double[] expected = forward(floatModel, input);
+            double[] actual = forward(afterSerialization, input);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], 0.);
+            }
+        }
+    }
+
+    @Test
+    public void testInputScalerIsStoredWithTheModel() {
+        ModelWrapper model = buildModel();
+        Scaler scaler = new Scaler(new double[] {2., .5, -1.}, new double[] {-1., 0., 3.});
+        ModelWrapper scaledModel = new ModelWrapper.Builder()
+                .context(model.getContext())
+                .inputLayer(model.getInputLayer())
+                .outputLayer(model.getOutputLayer())
+                .inputScaler(scaler)
+                .build();
+        Path binaryModelFilePath = Paths.get(TMP_DIR_PATH, "test-binary-scaler.dj");
+        Path javaModelFilePath = Paths.get(TMP_DIR_PATH, "test-java-scaler.dj");
+        SerializerHelper.serializeToBinaryFile(scaledModel, binaryModelFilePath.toString());
+        SerializerHelper.serializeToFile(scaledModel, javaModelFilePath.toString());
+
+        ModelWrapper fromBinary = SerializerHelper.deserializeFromBinaryFile(binaryModelFilePath.toString());
+        ModelWrapper fromJava = SerializerHelper.deserializeFromFile(javaModelFilePath.toString());
+        assertArrayEquals(scaler.getScales(), fromBinary.getInputScaler().getScales(), 0.);
+        assertArrayEquals(scaler.getOffsets(), fromBinary.getInputScaler().getOffsets(), 0.);
+        assertArrayEquals(scaler.getOffsets(), fromJava.getInputScaler().getOffsets(), 0.);
+
+        Predictor predictor = new Predictor.Builder().model(fromBinary).build();
+        MappedModel mappedModel = MappedModel.open(binaryModelFilePath.toString(), true);
+        Random random = new Random(5);
+        double[][] inputs = new double[20][];
+        for (int example = 0; example < inputs.length; example++) {
+            inputs[example] = new double[] {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+        }
+        double[][] batchPredictions = predictor.predict(inputs);
+        for (int example = 0; example < inputs.length; example++) {
+            double[] expected = forward(model, scaler.transform(inputs[example]));
+            assertArrayEquals(expected, predictor.predict(inputs[example]), 1e-12);
+            assertArrayEquals(expected, batchPredictions[example], 1e-12);
+            assertArrayEquals(expected, mappedModel.predict(inputs[example]), 1e-12);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCorruptedBinaryFileIsRejected() throws IOException {
+        Path binaryModelFilePath = Paths.get(TMP_DIR_PATH, "test-corrupted.dj");
+        SerializerHelper.serializeToBinaryFile(buildModel(), binaryModelFilePath.toString());
+
+        byte[] content = Files.readAllBytes(binaryModelFilePath);
+        content[content.length - 20] ^= 1;
+        Files.write(binaryModelFilePath, content);
+
+        SerializerHelper.deserializeFromBinaryFile(binaryModelFilePath.toString());
+    }
+
+    @Test
+    public void testNewerVersionAndUnknownFlagsAreRejected() throws IOException {
+        Path binaryModelFilePath = Paths.get(TMP_DIR_PATH, "test-version.dj");
+        SerializerHelper.serializeToBinaryFile(buildModel(), binaryModelFilePath.toString());
+        byte[] content = Files.readAllBytes(binaryModelFilePath);
+        ByteBuffer header = ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(BinaryModelFormat.VERSION, header.getInt(4));
+
+        header.putInt(4, BinaryModelFormat.VERSION + 1);
+        assertRejected(binaryModelFilePath, content);
+        header.putInt(4, BinaryModelFormat.VERSION);
+        header.putInt(8, header.getInt(8) | 1 << 7);
+        assertRejected(binaryModelFilePath, content);
+    }
+
+    private static void assertRejected(Path path, byte[] content) throws IOException {
+        Files.write(path, content);
+        try {
+            SerializerHelper.deserializeFromBinaryFile(path.toString());
+            fail("Binary model should be rejected");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        try {
+            MappedModel.open(path.toString());
+            fail("Mapped model should be rejected");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    private static double[] forward(ModelWrapper model, double[] input) {
+        for (int i = 0; i < input.length; i++) {
+            model.getInputLayer().get(i).forwardSignalReceived(null, input[i]);
+        }
+        return model.getOutputLayer().stream().mapToDouble(Neuron::getForwardResult).toArray();
+    }
+
+    private static ModelWrapper buildModel() {
+        return buildModel(Precision.DOUBLE);
+    }
+
+    private static ModelWrapper buildModel(Precision precision) {
+        Random random = new Random(11);
+        Context context = new Context(.3, false, precision);
+        List<Neuron> inputLayer = List.of(new InputNeuron(), new InputNeuron(), new InputNeuron());
+        List<Neuron> hiddenLayer = new ArrayList<>();
+        hiddenLayer.add(new ConnectedNeuron.Builder().activationFunction(new Relu()).context(context).build());
+        hiddenLayer.add(new ConnectedNeuron.Builder().activationFunction(new LeakyRelu(.01)).context(context).build());
+        hiddenLayer.add(new ConnectedNeuron.Builder().activationFunction(new HyperbolicTangent()).context(context).build());
+        for (Neuron hidden : hiddenLayer) {
+            inputLayer.forEach(input -> input.connect(hidden, random.nextDouble() - .5));
+        }
+        List<Neuron> outputLayer = List.of(
+                new ConnectedNeuron.Builder().activationFunction(new Sigmoid(true)).context(context).build(),
+                new ConnectedNeuron.Builder().activationFunction(new Sigmoid()).context(context).build());
+        for (Neuron output : outputLayer) {
+            hiddenLayer.forEach(hidden -> hidden.connect(output, random.nextDouble() - .5));
+        }
+        return new ModelWrapper.Builder().context(context).inputLayer(inputLayer).outputLayer(outputLayer).build();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * {@link com.dj.core.model.graph.ComputeBackend} built on the Java Vector API. Once the module is on the class path
+ * or the module path and the JVM runs with --add-modules jdk.incubator.vector, the layers and the Neurons use it
+ * instead of the scalar backend.
+ *
+ * @since 0.02
+ */
+package com.dj.vector;
@@ -0,0 +1,6 @@
+module com.dj.vector {
+    requires com.kovalevskyi.java.deep.core;
+    requires jdk.incubator.vector;
+
+    provides com.dj.core.model.graph.ComputeBackend with com.dj.vector.VectorBackend;
+}
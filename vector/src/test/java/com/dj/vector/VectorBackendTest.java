@@ -0,0 +1,136 @@
+package com.dj.vector;
+
+import com.dj.core.model.activation.ActivationFunction;
+import com.dj.core.model.activation.HyperbolicTangent;
+import com.dj.core.model.activation.LeakyRelu;
+import com.dj.core.model.activation.Relu;
+import com.dj.core.model.activation.Sigmoid;
+import com.dj.core.model.graph.ComputeBackend;
+import com.dj.core.model.graph.ComputeBackends;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class VectorBackendTest {
+
+    /**
+     * Allowed difference for the results that depend on the order of the additions or on the exp/tanh
+     * approximation.
+     */
+    private static final double TOLERANCE = 1e-12;
+
+    private final ComputeBackend scalar = ComputeBackends.scalar();
+
+    private final ComputeBackend vector = new VectorBackend();
+
+    private final Random random = new Random(11);
+
+    @Test
+    public void testVectorBackendIsChosen() {
+        assertEquals(VectorBackend.NAME, ComputeBackends.get().getName());
+    }
+
+    @Test
+    public void testDotAndAxpyMatchScalar() {
+        // Lengths around the multiples of the vector length check the tails as well.
+        for (int length = 0; length < 70; length++) {
+            final double[] x = randomArray(length + 3);
+            final double[] y = randomArray(length + 5);
+            assertEquals(scalar.dot(x, 3, y, 5, length), vector.dot(x, 3, y, 5, length), TOLERANCE);
+
+            final double[] scalarY = y.clone();
+            final double[] vectorY = y.clone();
+            scalar.axpy(.3, x, 1, scalarY, 2, length);
+            vector.axpy(.3, x, 1, vectorY, 2, length);
+            assertArrayEquals(scalarY, vectorY, 0.);
+        }
+    }
+
+    @Test
+    public void testMatrixMultiplicationsMatchScalar() {
+        final int rows = 13;
+        final int columns = 37;
+        final int count = 5;
+        final double[] matrix = randomArray(rows * columns);
+        final double[] bias = randomArray(rows);
+        final double[] x = randomArray(columns * count);
+
+        final double[] scalarY = new double[rows];
+        final double[] vectorY = new double[rows];
+        scalar.gemv(matrix, rows, columns, x, bias, scalarY);
+        vector.gemv(matrix, rows, columns, x, bias, vectorY);
+        assertArrayEquals(scalarY, vectorY, TOLERANCE);
+
+        final double[] scalarBatch = new double[rows * count];
+        final double[] vectorBatch = new double[rows * count];
+        scalar.gemm(matrix, rows, columns, x, count, bias, scalarBatch);
+        vector.gemm(matrix, rows, columns, x, count, bias, vectorBatch);
+        assertArrayEquals(scalarBatch, vectorBatch, TOLERANCE);
+    }
+
+    @Test
+    public void testFloatWeightsMatchScalar() {
+        for (int length = 0; length < 70; length++) {
+            final float[] x = toFloats(randomArray(length + 3));
+            final double[] y = randomArray(length + 5);
+            assertEquals(scalar.dot(x, 3, y, 5, length), vector.dot(x, 3, y, 5, length), TOLERANCE);
+        }
+        final int rows = 13;
+        final int columns = 37;
+        final int count = 5;
+        final float[] matrix = toFloats(randomArray(rows * columns));
+        final float[] bias = toFloats(randomArray(rows));
+        final double[] x = randomArray(columns * count);
+
+        final double[] scalarBatch = new double[rows * count];
+        final double[] vectorBatch = new double[rows * count];
+        scalar.gemm(matrix, rows, columns, x, count, bias, scalarBatch);
+        vector.gemm(matrix, rows, columns, x, count, bias, vectorBatch);
+        assertArrayEquals(scalarBatch, vectorBatch, TOLERANCE);
+    }
+
+    @Test
+    public void testActivationsMatchScalar() {
+        final List<ActivationFunction> functions = List.of(
+                new Sigmoid(), new Sigmoid(true), new HyperbolicTangent(), new Relu(), new LeakyRelu(.1));
+        for (final ActivationFunction function : functions) {
+            for (final int length : new int[] {0, 1, 7, 64, 101}) {
+                final double[] in = randomArray(length);
+                in[length / 2] = length > 0 ? 0. : in[0];
+
+                final double[] scalarOut = new double[length];
+                final double[] vectorOut = new double[length];
+                scalar.forward(function, in, scalarOut, length);
+                vector.forward(function, in, vectorOut, length);
+                assertArrayEquals(scalarOut, vectorOut, TOLERANCE);
+
+                final double[] scalarDerivative = new double[length];
+                final double[] vectorDerivative = new double[length];
+                scalar.backward(function, in, scalarOut, scalarDerivative, length);
+                vector.backward(function, in, scalarOut, vectorDerivative, length);
+                assertArrayEquals(scalarDerivative, vectorDerivative, TOLERANCE);
+            }
+        }
+    }
+
+    private static float[] toFloats(final double[] values) {
+        final float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    private double[] randomArray(final int length) {
+        final double[] values = new double[Math.max(length, 1)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - .5) * 8;
+        }
+        return values;
+    }
+}